@@ -0,0 +1,63 @@
+package com.tess.exchangerateapp.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks averaging of provider responses for a growing number of symbols,
+ * as boxed maps and as primitive rate vectors. Compare allocation per call
+ * with the GC profiler (gc.alloc.rate.norm).
+ *
+ * Run: mvn -P benchmarks test-compile exec:exec -Djmh.args="AverageRatesBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AverageRatesBenchmark {
+    @Param({ "1", "10", "100" })
+    private int symbols;
+
+    private List<Map<String, Double>> results;
+    private List<RateVector> vectors;
+    private int[] quotes;
+
+    @Setup
+    public void setUp() {
+        Map<String, Double> first = new HashMap<>();
+        Map<String, Double> second = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < symbols; i++) {
+            String code = "C" + (char) ('A' + i / 26) + (char) ('A' + i % 26);
+            codes.add(code);
+            first.put(code, 1.0 + i);
+            second.put(code, 1.1 + i);
+        }
+        results = List.of(first, second);
+        quotes = RateVector.indices(codes);
+        vectors = List.of(table(first).select(quotes), table(second).select(quotes));
+    }
+
+    @Benchmark
+    public Map<String, Double> averageRates() {
+        return ExchangeService.averageRates(results);
+    }
+
+    @Benchmark
+    public RateVector averageVectors() {
+        return RateVector.average(vectors, quotes);
+    }
+
+    private static RateSnapshot table(Map<String, Double> rates) {
+        RateSnapshot.Builder table = RateSnapshot.builder("EUR");
+        rates.forEach(table::put);
+        return table.build();
+    }
+}
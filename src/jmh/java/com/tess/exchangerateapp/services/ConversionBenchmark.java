@@ -0,0 +1,125 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import com.tess.exchangerateapp.services.ConversionService.Format;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks bulk conversion throughput in rows per second: the scalar and
+ * Vector API kernels on one chunk of rows, and whole CSV and NDJSON streams
+ * through ConversionService, including parsing and writing. A stub API answers
+ * immediately and the output is discarded, so the streams measure our own
+ * per-row cost.
+ *
+ * Run: mvn -P benchmarks test-compile exec:exec -Djmh.args="ConversionBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+    private static final int CHUNK_ROWS = 4_096;
+    private static final int STREAM_ROWS = 100_000;
+    private static final List<String> CURRENCIES = List.of("EUR", "USD", "GBP", "JPY", "CHF", "NZD");
+
+    private final double[] amounts = new double[CHUNK_ROWS];
+    private final double[] rates = new double[CHUNK_ROWS];
+    private final double[] converted = new double[CHUNK_ROWS];
+    private byte[] csv;
+    private byte[] ndjson;
+    private ExchangeService exchangeService;
+    private ConversionService conversionService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < CHUNK_ROWS; i++) {
+            amounts[i] = random.nextInt(1_000_000) / 100.0;
+            rates[i] = 0.5 + random.nextDouble();
+        }
+
+        StringBuilder csvRows = new StringBuilder("amount,from,to\n");
+        StringBuilder ndjsonRows = new StringBuilder();
+        for (int i = 0; i < STREAM_ROWS; i++) {
+            String amount = Double.toString(random.nextInt(1_000_000) / 100.0);
+            String from = CURRENCIES.get(random.nextInt(CURRENCIES.size()));
+            String to = CURRENCIES.get(random.nextInt(CURRENCIES.size()));
+            csvRows.append(amount).append(',').append(from).append(',').append(to).append('\n');
+            ndjsonRows.append("{\"amount\":").append(amount).append(",\"from\":\"").append(from)
+                    .append("\",\"to\":\"").append(to).append("\"}\n");
+        }
+        csv = csvRows.toString().getBytes(StandardCharsets.UTF_8);
+        ndjson = ndjsonRows.toString().getBytes(StandardCharsets.UTF_8);
+
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getCache().setTtl(Duration.ofMinutes(10));
+        properties.getBatch().setWindow(Duration.ZERO);
+        exchangeService = new ExchangeService(List.of(new StubApi()), new MetricsService(), new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+        conversionService = new ConversionService(exchangeService, new CurrencyRegistry(List.of()), properties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        exchangeService.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_ROWS)
+    public double[] scalarKernel() {
+        AmountKernel.multiplyScalar(amounts, rates, converted, CHUNK_ROWS);
+        return converted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_ROWS)
+    public double[] vectorKernel() {
+        AmountKernel.multiply(amounts, rates, converted, CHUNK_ROWS);
+        return converted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_ROWS)
+    public long csvStream() throws IOException {
+        return conversionService.convert(Format.CSV, new ByteArrayInputStream(csv), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STREAM_ROWS)
+    public long ndjsonStream() throws IOException {
+        return conversionService.convert(Format.NDJSON, new ByteArrayInputStream(ndjson), OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Stub API answering every requested symbol with a rate derived from the pair.
+     */
+    private static final class StubApi implements ExchangeApiService {
+
+        @Override
+        public String getName() {
+            return "stub";
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            Map<String, Double> rates = new HashMap<>();
+            for (String symbol : symbols) {
+                rates.put(symbol, 1.0 + (base.hashCode() ^ symbol.hashCode() & 0xff) / 256.0);
+            }
+            return rates;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ExchangeService.getRates on the cache-hit and cache-miss paths.
+ * Stub APIs answer immediately, so the miss path measures our own fan-out,
+ * averaging and caching overhead rather than network latency.
+ *
+ * Run: mvn -P benchmarks test-compile exec:exec -Djmh.args="ExchangeServiceBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExchangeServiceBenchmark {
+    private static final List<String> SYMBOLS = List.of("USD", "NZD", "GBP", "JPY");
+
+    private ExchangeService hitService;
+    private ExchangeService missService;
+
+    @Setup
+    public void setUp() {
+        hitService = newService(Duration.ofMinutes(10));
+        missService = newService(Duration.ofNanos(1));
+        hitService.getRates("EUR", SYMBOLS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hitService.shutdown();
+        missService.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Double> cacheHit() {
+        return hitService.getRates("EUR", SYMBOLS);
+    }
+
+    @Benchmark
+    public Map<String, Double> cacheMiss() {
+        return missService.getRates("EUR", SYMBOLS);
+    }
+
+    private static ExchangeService newService(Duration ttl) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getCache().setTtl(ttl);
+        properties.getSnapshot().setTtl(Duration.ofNanos(1));
+        // Single-threaded misses have nobody to batch with; measure them without the wait
+        properties.getBatch().setWindow(Duration.ZERO);
+        return new ExchangeService(List.of(new StubApi("first", 1.0), new StubApi("second", 1.1)),
+                new MetricsService(), new RateCache(properties), new RateSnapshotStore(properties), properties);
+    }
+
+    /**
+     * Stub API answering every requested symbol with a fixed rate.
+     */
+    private record StubApi(String name, double rate) implements ExchangeApiService {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            Map<String, Double> rates = new HashMap<>();
+            for (String symbol : symbols) {
+                rates.put(symbol, rate);
+            }
+            return rates;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading a Fawaz /currencies/{base}.json payload of about 300
+ * currencies: data binding into nested maps and building the rate table from
+ * them, against the streaming FawazTableParser reading the full table or only
+ * a few symbols. Compare allocation per call with the GC profiler
+ * (gc.alloc.rate.norm).
+ *
+ * Run: mvn -P benchmarks test-compile exec:exec -Djmh.args="FawazParsingBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FawazParsingBenchmark {
+    private static final int CURRENCIES = 300;
+
+    /**
+     * Data-bound shape of the payload, as the maps based reader used it.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record FawazResponse(String date, @JsonAnySetter Map<String, Map<String, Double>> rates) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+    private int[] quotes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"date\": \"2025-06-14\", \"eur\": {");
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < CURRENCIES; i++) {
+            String code = "" + (char) ('a' + i / 26 % 26) + (char) ('a' + i % 26) + 'x';
+            codes.add(code);
+            json.append(i == 0 ? "" : ", ").append('"').append(code).append("\": ").append(1.0 + i / 7.0);
+        }
+        payload = json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+        quotes = RateVector.indices(List.of(codes.get(CURRENCIES - 1), codes.get(0)));
+    }
+
+    @Benchmark
+    public RateSnapshot dataBinding() throws IOException {
+        FawazResponse response = objectMapper.readValue(new ByteArrayInputStream(payload), FawazResponse.class);
+        RateSnapshot.Builder snapshot = RateSnapshot.builder("EUR");
+        response.rates().get("eur").forEach((symbol, rate) -> {
+            if (rate != null) {
+                snapshot.put(symbol, rate);
+            }
+        });
+        return snapshot.build();
+    }
+
+    @Benchmark
+    public RateSnapshot streamingSnapshot() throws IOException {
+        return FawazTableParser.parseSnapshot(new ByteArrayInputStream(payload), "EUR");
+    }
+
+    @Benchmark
+    public RateVector streamingSymbols() throws IOException {
+        return FawazTableParser.parseRates(new ByteArrayInputStream(payload), "EUR", quotes);
+    }
+}
@@ -0,0 +1,44 @@
+package com.tess.exchangerateapp.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks MetricsService.recordRequest/recordResponse on a single shared
+ * instance, uncontended and with several threads recording at once.
+ *
+ * Run: mvn -P benchmarks test-compile exec:exec -Djmh.args="MetricsServiceBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsServiceBenchmark {
+    private final MetricsService metricsService = new MetricsService();
+
+    @Benchmark
+    @Threads(1)
+    public void record1Thread() {
+        record();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void record4Threads() {
+        record();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordMaxThreads() {
+        record();
+    }
+
+    private void record() {
+        metricsService.recordRequest("fawazApi");
+        metricsService.recordResponse("fawazApi");
+    }
+}
@@ -0,0 +1,63 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JSON serialization of the /exchangeRates response body, built the
+ * same way as ExchangeRateController does, with the rates as a boxed map and
+ * as a rate vector serialized straight from its arrays, and as the
+ * pre-encoded body reused by RateResponseCache on a cache hit.
+ *
+ * Run: mvn -P benchmarks test-compile exec:exec -Djmh.args="ResponseSerializationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+    @Param({ "2", "20", "200" })
+    private int symbols;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Map<String, Double> rates;
+    private RateVector vector;
+    private List<String> codes;
+    private ExchangeService.RateLookup lookup;
+    private final RateResponseCache responses = new RateResponseCache(new ExchangeProperties());
+
+    @Setup
+    public void setUp() {
+        rates = new HashMap<>();
+        for (int i = 0; i < symbols; i++) {
+            rates.put("C" + i, 1.0 + i / 7.0);
+        }
+        vector = RateVector.of(rates);
+        codes = List.copyOf(rates.keySet());
+        lookup = new ExchangeService.RateLookup(vector, Map.of());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of("base", "EUR", "rates", rates));
+    }
+
+    @Benchmark
+    public byte[] serializeVector() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of("base", "EUR", "rates", vector));
+    }
+
+    @Benchmark
+    public byte[] encodedCacheHit() {
+        return responses.encode("EUR", codes, lookup).body();
+    }
+}
@@ -2,14 +2,20 @@ package com.tess.exchangerateapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Exchange Rate application.
- * Bootstraps Spring Boot and enables caching for exchange rate results.
+ * Bootstraps Spring Boot, enables caching for exchange rate results, binds
+ * the exchange.* configuration properties and enables scheduled background
+ * refresh of hot rates.
  */
 @SpringBootApplication
 @EnableCaching
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class ExchangeRateApplication {
 
 	public static void main(String[] args) {
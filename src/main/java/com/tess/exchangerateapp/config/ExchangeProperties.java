@@ -0,0 +1,699 @@
+package com.tess.exchangerateapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Tunable settings for exchange rate fetching, bound from the "exchange.*"
+ * properties in application.properties.
+ */
+@ConfigurationProperties(prefix = "exchange")
+public class ExchangeProperties {
+    private final Upstream upstream = new Upstream();
+    private final Cache cache = new Cache();
+    private final Snapshot snapshot = new Snapshot();
+    private final Refresh refresh = new Refresh();
+    private final Http http = new Http();
+    private final History history = new History();
+    private final Checkpoint checkpoint = new Checkpoint();
+    private final Routing routing = new Routing();
+    private final Breaker breaker = new Breaker();
+    private final Subscriptions subscriptions = new Subscriptions();
+    private final Batch batch = new Batch();
+    private final Currencies currencies = new Currencies();
+    private final Conversion conversion = new Conversion();
+    private final Limiter limiter = new Limiter();
+
+    public Upstream getUpstream() {
+        return upstream;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public Breaker getBreaker() {
+        return breaker;
+    }
+
+    public Subscriptions getSubscriptions() {
+        return subscriptions;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Currencies getCurrencies() {
+        return currencies;
+    }
+
+    public Conversion getConversion() {
+        return conversion;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Settings for calls to the upstream exchange rate APIs.
+     */
+    public static class Upstream {
+        /** Overall time a request waits for the APIs before averaging what arrived */
+        private Duration deadline = Duration.ofSeconds(3);
+
+        public Duration getDeadline() {
+            return deadline;
+        }
+
+        public void setDeadline(Duration deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Settings for the per currency pair rate cache.
+     */
+    public static class Cache {
+        /** How long a cached rate is served before it is fetched again */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /** Maximum number of currency pairs held before the least valuable are evicted */
+        private long maximumSize = 10_000;
+
+        /** Maximum number of pre-encoded response bodies (one per base and symbol list) */
+        private long responseMaximumSize = 1_000;
+
+        /** Whether to use the embedded shared second-level cache (a stand-in for a distributed one) */
+        private boolean sharedEnabled = false;
+
+        /** How long a pair a provider did not quote is not asked from that provider again */
+        private Duration negativeTtl = Duration.ofMinutes(5);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getResponseMaximumSize() {
+            return responseMaximumSize;
+        }
+
+        public void setResponseMaximumSize(long responseMaximumSize) {
+            this.responseMaximumSize = responseMaximumSize;
+        }
+
+        public boolean isSharedEnabled() {
+            return sharedEnabled;
+        }
+
+        public void setSharedEnabled(boolean sharedEnabled) {
+            this.sharedEnabled = sharedEnabled;
+        }
+
+        public Duration getNegativeTtl() {
+            return negativeTtl;
+        }
+
+        public void setNegativeTtl(Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+        }
+    }
+
+    /**
+     * Settings for the full rate tables kept per provider and base currency.
+     */
+    public static class Snapshot {
+        /**
+         * How long a downloaded table is used to answer requests, unless it is
+         * dated and its provider's publish schedule is known
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * How long a dated table is used once its provider's next publication is
+         * due, before it is fetched again (the provider may publish late)
+         */
+        private Duration recheckInterval = Duration.ofMinutes(15);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getRecheckInterval() {
+            return recheckInterval;
+        }
+
+        public void setRecheckInterval(Duration recheckInterval) {
+            this.recheckInterval = recheckInterval;
+        }
+    }
+
+    /**
+     * Settings for refreshing hot cached rates in the background before they
+     * expire.
+     */
+    public static class Refresh {
+        /** Whether background refresh runs at all */
+        private boolean enabled = true;
+
+        /** Delay between refresh cycles */
+        private Duration interval = Duration.ofSeconds(30);
+
+        /** Age after which a cached pair is refreshed (keep below the cache TTL) */
+        private Duration after = Duration.ofMinutes(8);
+
+        /** How recently a pair must have been requested to count as hot */
+        private Duration hotWindow = Duration.ofMinutes(10);
+
+        /** Maximum random delay before each base is refreshed, to spread upstream load */
+        private Duration jitter = Duration.ofSeconds(5);
+
+        /** Maximum number of bases refreshed at the same time */
+        private int concurrency = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getAfter() {
+            return after;
+        }
+
+        public void setAfter(Duration after) {
+            this.after = after;
+        }
+
+        public Duration getHotWindow() {
+            return hotWindow;
+        }
+
+        public void setHotWindow(Duration hotWindow) {
+            this.hotWindow = hotWindow;
+        }
+
+        public Duration getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(Duration jitter) {
+            this.jitter = jitter;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+
+    /**
+     * Settings for the shared HTTP client used to call the upstream APIs.
+     */
+    public static class Http {
+        /** Time allowed to open a connection */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /** Time allowed between sending a request and receiving the response headers */
+        private Duration readTimeout = Duration.ofSeconds(3);
+
+        /** Time allowed for a whole call, including waiting for a connection and reading the body */
+        private Duration totalTimeout = Duration.ofSeconds(5);
+
+        /** Maximum concurrent requests (and so connections) per upstream host */
+        private int maxConnectionsPerHost = 20;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getTotalTimeout() {
+            return totalTimeout;
+        }
+
+        public void setTotalTimeout(Duration totalTimeout) {
+            this.totalTimeout = totalTimeout;
+        }
+
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+
+        public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+    }
+
+    /**
+     * Settings for historical rates and their on-disk archive.
+     */
+    public static class History {
+        /** File holding archived daily rates */
+        private String archivePath = "data/rates.archive";
+
+        /** Longest date range a single history request may cover */
+        private int maxDays = 3660;
+
+        /** Longest date range fetched from an API in one call */
+        private int fetchChunkDays = 90;
+
+        public String getArchivePath() {
+            return archivePath;
+        }
+
+        public void setArchivePath(String archivePath) {
+            this.archivePath = archivePath;
+        }
+
+        public int getMaxDays() {
+            return maxDays;
+        }
+
+        public void setMaxDays(int maxDays) {
+            this.maxDays = maxDays;
+        }
+
+        public int getFetchChunkDays() {
+            return fetchChunkDays;
+        }
+
+        public void setFetchChunkDays(int fetchChunkDays) {
+            this.fetchChunkDays = fetchChunkDays;
+        }
+    }
+
+    /**
+     * Settings for checkpointing the rate cache to disk so a restarted instance
+     * starts with a warm cache.
+     */
+    public static class Checkpoint {
+        /** Whether the cache is checkpointed and restored at all */
+        private boolean enabled = true;
+
+        /** File holding the latest checkpoint */
+        private String path = "data/rate-cache.bin";
+
+        /** Delay between checkpoints */
+        private Duration interval = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    /**
+     * Settings for choosing which upstream APIs a cache miss is sent to.
+     */
+    public static class Routing {
+        /** ALL queries every API and averages; ADAPTIVE queries the fastest healthy ones first */
+        private Mode mode = Mode.ALL;
+
+        /** Number of APIs that must answer before rates are returned (ADAPTIVE mode) */
+        private int quorum = 1;
+
+        /** Shortest wait before a hedged request is sent to the next API */
+        private Duration hedgeMinDelay = Duration.ofMillis(20);
+
+        /** Recent error rate above which an API is ranked after the healthy ones */
+        private double unhealthyErrorRate = 0.5;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getQuorum() {
+            return quorum;
+        }
+
+        public void setQuorum(int quorum) {
+            this.quorum = quorum;
+        }
+
+        public Duration getHedgeMinDelay() {
+            return hedgeMinDelay;
+        }
+
+        public void setHedgeMinDelay(Duration hedgeMinDelay) {
+            this.hedgeMinDelay = hedgeMinDelay;
+        }
+
+        public double getUnhealthyErrorRate() {
+            return unhealthyErrorRate;
+        }
+
+        public void setUnhealthyErrorRate(double unhealthyErrorRate) {
+            this.unhealthyErrorRate = unhealthyErrorRate;
+        }
+
+        /**
+         * How cache misses are spread over the upstream APIs.
+         */
+        public enum Mode {
+            ALL, ADAPTIVE
+        }
+    }
+
+    /**
+     * Settings for the circuit breaker and bulkhead in front of each upstream
+     * API.
+     */
+    public static class Breaker {
+        /** Consecutive failures after which the circuit opens */
+        private int failureThreshold = 5;
+
+        /** How long an open circuit rejects calls before trial calls are allowed */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /** Number of trial calls allowed while half-open */
+        private int halfOpenCalls = 1;
+
+        /** Maximum number of calls in flight to one API; further calls are rejected */
+        private int maxConcurrentCalls = 16;
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+    }
+
+    /**
+     * Settings for streamed rate updates to subscribed clients.
+     */
+    public static class Subscriptions {
+        /** How often subscribed rates are looked up and changes pushed */
+        private Duration interval = Duration.ofSeconds(1);
+
+        /** Relative change below which a rate is not pushed again (1.0E-6 = 0.0001%) */
+        private double epsilon = 1.0E-6;
+
+        /** How long a stream stays open before the client has to reconnect */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /** Maximum number of open streams; further subscriptions are rejected */
+        private int maxSubscribers = 10000;
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public double getEpsilon() {
+            return epsilon;
+        }
+
+        public void setEpsilon(double epsilon) {
+            this.epsilon = epsilon;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+    }
+
+    /**
+     * Settings for micro-batching cache misses of the same base currency.
+     */
+    public static class Batch {
+        /** How long the first miss for a base waits for others to join its fetch (0 = no waiting) */
+        private Duration window = Duration.ofMillis(5);
+
+        /** Number of symbols after which a batch is fetched without waiting for the window to end */
+        private int maxSymbols = 50;
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxSymbols() {
+            return maxSymbols;
+        }
+
+        public void setMaxSymbols(int maxSymbols) {
+            this.maxSymbols = maxSymbols;
+        }
+    }
+
+    /**
+     * Settings for the registry of currency codes requests are validated
+     * against.
+     */
+    public static class Currencies {
+        /** Whether the providers' currency lists are loaded at all */
+        private boolean refreshEnabled = true;
+
+        /** Delay between refreshes of the providers' currency lists */
+        private Duration refreshInterval = Duration.ofHours(24);
+
+        public boolean isRefreshEnabled() {
+            return refreshEnabled;
+        }
+
+        public void setRefreshEnabled(boolean refreshEnabled) {
+            this.refreshEnabled = refreshEnabled;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    /**
+     * Settings for the streaming bulk conversion endpoint.
+     */
+    public static class Conversion {
+        /** Number of rows read, converted and written per chunk */
+        private int chunkRows = 4096;
+
+        public int getChunkRows() {
+            return chunkRows;
+        }
+
+        public void setChunkRows(int chunkRows) {
+            this.chunkRows = chunkRows;
+        }
+    }
+
+    /**
+     * Settings for the adaptive concurrency limit on lookups that miss the
+     * cache. The limit grows by one per window of fast lookups and shrinks by
+     * the backoff ratio whenever a lookup is slow or gets no rates (AIMD).
+     */
+    public static class Limiter {
+        /** Whether lookups that miss the cache are limited at all */
+        private boolean enabled = true;
+
+        /** Concurrent cache-miss lookups allowed at startup */
+        private int initialLimit = 50;
+
+        /** Lowest the limit can shrink to */
+        private int minLimit = 2;
+
+        /** Highest the limit can grow to; below Tomcat's 200 workers, so some are always free for cache hits */
+        private int maxLimit = 150;
+
+        /** Lookups slower than this count as a sign of overload */
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        /** Factor the limit is multiplied by on overload */
+        private double backoffRatio = 0.9;
+
+        /** Sent as Retry-After on requests rejected at the limit */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+}
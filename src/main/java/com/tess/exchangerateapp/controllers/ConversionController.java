@@ -0,0 +1,74 @@
+package com.tess.exchangerateapp.controllers;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import com.tess.exchangerateapp.services.ConversionService;
+import com.tess.exchangerateapp.services.ConversionService.Format;
+
+/**
+ * REST Controller for bulk currency conversion. Rows are read from the request
+ * body and answered on the response body as they are converted, so uploads of
+ * any size are handled in constant memory. Only available in the servlet
+ * serving mode.
+ */
+@RestController
+@Profile("!reactive")
+public class ConversionController {
+    static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final ConversionService conversionService;
+
+    /**
+     * @param conversionService Service converting streams of rows
+     */
+    public ConversionController(ConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    /**
+     * Converts rows of (amount, from, to) given as NDJSON or CSV, answering
+     * each row in the same format and order. Rows that cannot be converted are
+     * answered with an error in their error column, including rows whose rate
+     * lookup was shed because the upstream APIs were overloaded; the response
+     * status is always 200 once streaming has started.
+     *
+     * @param contentType Format of the rows ("application/x-ndjson" or "text/csv")
+     * @param request     The request whose body holds the rows
+     * @return The converted rows, streamed as they are converted
+     *
+     *         Example: POST /convert/stream (Content-Type: text/csv)
+     *         Body: 100,EUR,USD
+     *         Response: amount,from,to,rate,converted,error
+     *         100.0,EUR,USD,1.1406,114.06,
+     */
+    @PostMapping(value = "/convert/stream", consumes = { "application/x-ndjson", "text/csv" })
+    public ResponseEntity<StreamingResponseBody> convert(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request) throws IOException {
+        boolean csv = CSV.isCompatibleWith(contentType);
+        Format format = csv ? Format.CSV : Format.NDJSON;
+        InputStream in = request.getInputStream();
+
+        StreamingResponseBody body = out -> conversionService.convert(format, in, out);
+        return ResponseEntity.ok().contentType(csv ? CSV : HistoryController.NDJSON).body(body);
+    }
+
+    /**
+     * Handles invalid input.
+     *
+     * @param exception The validation exception containing the error message
+     * @return ResponseEntity with 400 status and error details
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", exception.getMessage()));
+    }
+}
@@ -1,50 +1,227 @@
 package com.tess.exchangerateapp.controllers;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import com.tess.exchangerateapp.services.ExchangeService;
+import com.tess.exchangerateapp.services.CurrencyRegistry;
+import com.tess.exchangerateapp.services.OverloadedException;
+import com.tess.exchangerateapp.services.RateResponseCache;
+import com.tess.exchangerateapp.services.RateSubscriptions;
 
 /**
  * REST Controller for exchange rate endpoints. Aggregates and averages rates
- * from multiple APIs.
+ * from multiple APIs. Served by Spring MVC unless the reactive profile is
+ * active.
  */
 @RestController
+@Profile("!reactive")
 public class ExchangeRateController {
     private final ExchangeService service;
+    private final RateResponseCache responses;
+    private final RateSubscriptions subscriptions;
+    private final CurrencyRegistry currencies;
 
-    /** @param service Service for fetching and processing exchange rates */
-    public ExchangeRateController(ExchangeService service) {
+    /**
+     * @param service       Service for fetching and processing exchange rates
+     * @param responses     Cache of pre-encoded response bodies
+     * @param subscriptions Publisher of rate changes to streaming clients
+     * @param currencies    Registry request currency codes are validated against
+     */
+    public ExchangeRateController(ExchangeService service, RateResponseCache responses,
+            RateSubscriptions subscriptions, CurrencyRegistry currencies) {
         this.service = service;
+        this.responses = responses;
+        this.subscriptions = subscriptions;
+        this.currencies = currencies;
     }
 
     /**
      * Gets exchange rates for currencies relative to base currency.
-     * Rates are averaged from multiple APIs and cached.
+     * Rates are averaged from multiple APIs and cached. If no API can be
+     * reached, last known rates are returned and their age in seconds is listed
+     * under "staleAgeSeconds". The body is served pre-encoded while the rates
+     * are unchanged, with an ETag; a request whose If-None-Match names the
+     * current ETag gets 304 Not Modified without a body. Symbols are trimmed,
+     * upper-cased and deduplicated, and an unknown currency code is rejected
+     * with 400 before any lookup.
      *
-     * @param base    Base currency code (e.g., "EUR")
-     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
-     * @return Map with "base" currency and "rates" map of currency codes to
-     *         exchange rates
+     * @param base        Base currency code (e.g., "EUR")
+     * @param symbols     Target currency codes (e.g., ["USD", "NZD"])
+     * @param ifNoneMatch ETags the client already holds, if any
+     * @return JSON body with "base" currency and "rates" map of currency codes
+     *         to exchange rates
      * 
      *         Example: GET /exchangeRates/EUR?symbols=USD,NZD
      *         Response: {"base": "EUR", "rates": {"USD":1.078588, "NZD":1.599893}}
+     *         Stale response: {"base": "EUR", "rates": {"USD":1.078588},
+     *         "staleAgeSeconds": {"USD": 1260}}
      */
     @GetMapping("/exchangeRates/{base}")
-    public Map<String, Object> getRates(@PathVariable String base,
-            @RequestParam(required = true) List<String> symbols) {
-        if (symbols == null || symbols.isEmpty()) {
-            throw new IllegalArgumentException("Symbols parameter cannot be empty");
+    public ResponseEntity<byte[]> getRates(@PathVariable String base,
+            @RequestParam(required = true) List<String> symbols,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String upperBase = currencies.normalize(base);
+        List<String> quotes = currencies.normalize(symbols);
+        return toResponse(responses, upperBase, quotes, service.lookup(upperBase, quotes), ifNoneMatch);
+    }
+
+    /**
+     * Streams changes of exchange rates as Server-Sent Events. The first
+     * "rates" event carries every subscribed rate; later events carry only the
+     * rates that changed. Rates for all streams are looked up once per publish
+     * cycle, however many clients are subscribed. The stream ends after the
+     * configured timeout and the client reconnects.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
+     * @return The event stream
+     * 
+     *         Example: GET /exchangeRates/EUR/stream?symbols=USD,NZD
+     *         Events: event:rates data:{"base":"EUR","rates":{"USD":1.078588,"NZD":1.599893}}
+     *         event:rates data:{"base":"EUR","rates":{"USD":1.079012}}
+     */
+    @GetMapping("/exchangeRates/{base}/stream")
+    public SseEmitter streamRates(@PathVariable String base, @RequestParam(required = true) List<String> symbols) {
+        String upperBase = currencies.normalize(base);
+        List<String> quotes = currencies.normalize(symbols);
+
+        SseEmitter emitter = new SseEmitter(subscriptions.getTimeout().toMillis());
+        RateSubscriptions.Subscription subscription = subscriptions.subscribe(upperBase, quotes, update -> {
+            try {
+                emitter.send(SseEmitter.event().name("rates").data(update, MediaType.APPLICATION_JSON));
+            } catch (IOException error) {
+                throw new UncheckedIOException(error);
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(_ -> subscription.close());
+        return emitter;
+    }
+
+    /**
+     * Builds the response for a rate lookup from its pre-encoded body. Shared
+     * with the reactive controller so both serving modes return the same
+     * contract.
+     *
+     * @throws RuntimeException If the lookup found no rates at all
+     */
+    static ResponseEntity<byte[]> toResponse(RateResponseCache responses, String base, List<String> symbols,
+            ExchangeService.RateLookup lookup, String ifNoneMatch) {
+        if (lookup.rates().isEmpty()) {
+            throw new RuntimeException("No exchange rates available");
         }
 
-        Map<String, Double> rates = service.getRates(base.toUpperCase(), symbols);
+        RateResponseCache.EncodedResponse encoded = responses.encode(base, symbols, lookup);
+        if (encoded.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(encoded.etag()).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(encoded.etag())
+                .body(encoded.body());
+    }
 
+    /**
+     * Gets exchange rates for many base/symbols groups in one request.
+     * Groups sharing a base are resolved together, so each base is looked up
+     * once. If a group has an amount, it is also converted into every symbol.
+     * Unknown currency codes are rejected with 400.
+     *
+     * @param request The groups to resolve
+     * @return Map with a "results" list, one entry per group in request order
+     * 
+     *         Example: POST /exchangeRates/batch
+     *         Body: {"queries": [{"base": "EUR", "symbols": ["USD"], "amount":
+     *         100}, {"base": "USD", "symbols": ["JPY"]}]}
+     *         Response: {"results": [{"base": "EUR", "rates": {"USD": 1.08},
+     *         "converted": {"USD": 108.0}}, {"base": "USD", "rates": {"JPY":
+     *         144.2}}]}
+     */
+    @PostMapping("/exchangeRates/batch")
+    public Map<String, Object> getRatesBatch(@RequestBody BatchRequest request) {
+        if (request == null || request.queries() == null || request.queries().isEmpty()) {
+            throw new IllegalArgumentException("Queries cannot be empty");
+        }
+
+        List<RateQuery> queries = new ArrayList<>();
+        Map<String, Set<String>> symbolsByBase = new LinkedHashMap<>();
+        for (RateQuery query : request.queries()) {
+            if (query.base() == null || query.base().isBlank()) {
+                throw new IllegalArgumentException("Base cannot be empty");
+            }
+            if (query.symbols() == null || query.symbols().isEmpty()) {
+                throw new IllegalArgumentException("Symbols cannot be empty for base " + query.base());
+            }
+            RateQuery normalized = new RateQuery(currencies.normalize(query.base()),
+                    currencies.normalize(query.symbols()), query.amount());
+            queries.add(normalized);
+            symbolsByBase.computeIfAbsent(normalized.base(), _ -> new LinkedHashSet<>()).addAll(normalized.symbols());
+        }
+
+        Map<String, Map<String, Double>> ratesByBase = service.getRatesBatch(symbolsByBase);
+
+        List<Map<String, Object>> results = queries.stream()
+                .map(query -> toResult(query, ratesByBase.getOrDefault(query.base(), Map.of())))
+                .toList();
+        return Map.of("results", results);
+    }
+
+    /**
+     * Builds the result entry for one normalized batch group from its base's
+     * rates.
+     */
+    private static Map<String, Object> toResult(RateQuery query, Map<String, Double> baseRates) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (String quote : query.symbols()) {
+            Double rate = baseRates.get(quote);
+            if (rate != null) {
+                rates.put(quote, rate);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("base", query.base());
+        result.put("rates", rates);
+        if (query.amount() != null) {
+            Map<String, Double> converted = new LinkedHashMap<>();
+            rates.forEach((symbol, rate) -> converted.put(symbol, query.amount() * rate));
+            result.put("converted", converted);
+        }
         if (rates.isEmpty()) {
-            throw new RuntimeException("No exchange rates available");
+            result.put("error", "No exchange rates available");
         }
-        return Map.of("base", base.toUpperCase(), "rates", rates);
+        return result;
+    }
+
+    /**
+     * Request body for the batch endpoint.
+     *
+     * @param queries The base/symbols groups to resolve
+     */
+    public record BatchRequest(List<RateQuery> queries) {
+    }
+
+    /**
+     * One base/symbols group in a batch request.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
+     * @param amount  Optional amount of the base currency to convert
+     */
+    public record RateQuery(String base, List<String> symbols, Double amount) {
     }
 
     /**
@@ -59,6 +236,35 @@ public class ExchangeRateController {
         return ResponseEntity.badRequest().body(Map.of("error", exception.getMessage()));
     }
 
+    /**
+     * Handles request bodies that are missing or not valid JSON.
+     *
+     * @param exception The exception raised while reading the body
+     * @return ResponseEntity with 400 status and error details
+     *         Example: {"error": "Request body is missing or malformed"}
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> handleUnreadableBody(HttpMessageNotReadableException exception) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Request body is missing or malformed"));
+    }
+
+    /**
+     * Handles lookups shed because too many are already waiting on the
+     * upstream APIs, telling the client when to retry.
+     *
+     * @param exception The exception carrying the retry delay
+     * @return ResponseEntity with 503 status, a Retry-After header in seconds
+     *         and error details
+     *         Example: {"error": "Too many lookups are waiting on the exchange rate APIs"}
+     */
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverloaded(OverloadedException exception) {
+        long seconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(Map.of("error", exception.getMessage()));
+    }
+
     /**
      * Handles service unavailability and rate retrieval failures.
      *
@@ -0,0 +1,126 @@
+package com.tess.exchangerateapp.controllers;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import com.tess.exchangerateapp.services.CurrencyIndex;
+import com.tess.exchangerateapp.services.HistoryService;
+
+/**
+ * REST Controller for historical exchange rates. Rates are served from an
+ * on-disk archive and streamed as newline-delimited JSON. Only available in
+ * the servlet serving mode.
+ */
+@RestController
+@Profile("!reactive")
+public class HistoryController {
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final HistoryService historyService;
+    private final int maxDays;
+
+    /**
+     * @param historyService Service for archived daily rates
+     * @param properties     Exchange settings (longest allowed range)
+     */
+    public HistoryController(HistoryService historyService, ExchangeProperties properties) {
+        this.historyService = historyService;
+        this.maxDays = properties.getHistory().getMaxDays();
+    }
+
+    /**
+     * Gets daily exchange rates for currencies relative to a base currency over
+     * a date range. Days without published rates (weekends, holidays) and today
+     * are not included.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
+     * @param from    First date, ISO format (e.g., "2025-06-02")
+     * @param to      Last date, ISO format (e.g., "2025-06-06")
+     * @return One JSON line per date
+     *
+     *         Example: GET /exchangeRates/EUR/history?symbols=USD&from=2025-06-02&to=2025-06-03
+     *         Response: {"date":"2025-06-02","rates":{"USD":1.1443}}
+     *         {"date":"2025-06-03","rates":{"USD":1.1406}}
+     */
+    @GetMapping("/exchangeRates/{base}/history")
+    public ResponseEntity<StreamingResponseBody> getHistory(@PathVariable String base,
+            @RequestParam(required = true) List<String> symbols,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (symbols == null || symbols.isEmpty()) {
+            throw new IllegalArgumentException("Symbols parameter cannot be empty");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxDays + " days");
+        }
+
+        String upperBase = base.toUpperCase();
+        List<String> upperSymbols = symbols.stream().map(String::toUpperCase).distinct().toList();
+        requireCode(upperBase);
+        upperSymbols.forEach(HistoryController::requireCode);
+
+        historyService.prepare(upperBase, from, to);
+
+        StreamingResponseBody body = out -> historyService.writeNdjson(upperBase, upperSymbols, from, to, out);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private static void requireCode(String code) {
+        if (!CurrencyIndex.isWellFormed(code)) {
+            throw new IllegalArgumentException("Invalid currency code: " + code);
+        }
+    }
+
+    /**
+     * Handles validation errors and invalid input parameters.
+     *
+     * @param exception The validation exception containing the error message
+     * @return ResponseEntity with 400 status and error details
+     *         Example: {"error": "From date must not be after to date"}
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", exception.getMessage()));
+    }
+
+    /**
+     * Handles dates that are not in ISO format.
+     *
+     * @param exception The exception raised while converting the parameter
+     * @return ResponseEntity with 400 status and error details
+     *         Example: {"error": "Invalid value for from"}
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleTypeMismatch(MethodArgumentTypeMismatchException exception) {
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "Invalid value for " + exception.getName()));
+    }
+
+    /**
+     * Handles unavailable historical rates.
+     *
+     * @param exception The runtime exception containing the error message
+     * @return ResponseEntity with 503 status and error details
+     *         Example: {"error": "No historical rates available for EUR from ..."}
+     */
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", exception.getMessage()));
+    }
+}
@@ -1,17 +1,23 @@
 package com.tess.exchangerateapp.controllers;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import com.tess.exchangerateapp.services.MetricsService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Map;
 
 /**
  * REST Controller for API usage metrics. Tracks request/response counts for
- * exchange rate APIs.
+ * exchange rate APIs. Served by Spring MVC unless the reactive profile is
+ * active.
  */
 @RestController
+@Profile("!reactive")
 public class MetricsController {
+    static final String OPENMETRICS_CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
     private final MetricsService metricsService;
 
     /** @param metricsService Service for collecting and retrieving API metrics */
@@ -22,17 +28,39 @@ public class MetricsController {
     /**
      * Gets current metrics for all exchange rate APIs.
      * 
-     * @return Map containing total queries and per-API request/response counts
+     * @return Map containing total queries, cache hit/miss counts, the miss
+     *         limiter's state and per-API request/response/failure/rejection
+     *         counts and latency percentiles
      * 
      *         Example response:
-     *         {"totalQueries": 30, "apis": [{ "name": "fawazApi", "metrics":
-     *         {"totalRequests": 30, "totalResponses": 30}}]}
+     *         {"totalQueries": 30, "cache": {"hits": 12, "misses": 30,
+     *         "hitRatio": 0.29}, "missLimiter": {"limit": 50, "inFlight": 0,
+     *         "rejected": 3, "servedStale": 1}, "apis": [{ "name": "fawazApi",
+     *         "metrics": {"totalRequests": 30, "totalResponses": 30, "failures": 0,
+     *         "fallbacks": 0, "rejected": 0, "latencyMs": {"count": 30, "p50": 41.9,
+     *         "p90": 88.0, "p99": 120.8, "max": 121.3}}}]}
      */
     @GetMapping("/metrics")
     public Map<String, Object> getMetrics() {
         return metricsService.getMetrics();
     }
 
+    /**
+     * Gets current metrics in the OpenMetrics text format for Prometheus scrapes.
+     * The text is streamed straight to the response writer.
+     *
+     * @param response The HTTP response to write the metrics to
+     * @throws IOException If writing the response fails
+     * 
+     *                     Example response line:
+     *                     exchange_api_requests_total{api="fawazApi"} 30
+     */
+    @GetMapping("/metrics/prometheus")
+    public void getPrometheusMetrics(HttpServletResponse response) throws IOException {
+        response.setContentType(OPENMETRICS_CONTENT_TYPE);
+        metricsService.writeOpenMetrics(response.getWriter());
+    }
+
     /**
      * Handles unexpected errors in the metrics service.
      * Returns a 500 Internal Server Error status with a descriptive error message.
@@ -0,0 +1,152 @@
+package com.tess.exchangerateapp.controllers;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.util.List;
+import java.util.Map;
+import com.tess.exchangerateapp.services.CurrencyRegistry;
+import com.tess.exchangerateapp.services.OverloadedException;
+import com.tess.exchangerateapp.services.RateResponseCache;
+import com.tess.exchangerateapp.services.RateSubscriptions;
+import com.tess.exchangerateapp.services.ReactiveExchangeService;
+
+/**
+ * Reactive REST Controller for exchange rate endpoints, served by WebFlux on
+ * Netty when the reactive profile is active. Returns the same responses as
+ * {@link ExchangeRateController}.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveExchangeRateController {
+    private final ReactiveExchangeService service;
+    private final RateResponseCache responses;
+    private final RateSubscriptions subscriptions;
+    private final CurrencyRegistry currencies;
+
+    /**
+     * @param service       Reactive service for fetching and processing exchange
+     *                      rates
+     * @param responses     Cache of pre-encoded response bodies
+     * @param subscriptions Publisher of rate changes to streaming clients
+     * @param currencies    Registry request currency codes are validated against
+     */
+    public ReactiveExchangeRateController(ReactiveExchangeService service, RateResponseCache responses,
+            RateSubscriptions subscriptions, CurrencyRegistry currencies) {
+        this.service = service;
+        this.responses = responses;
+        this.subscriptions = subscriptions;
+        this.currencies = currencies;
+    }
+
+    /**
+     * Gets exchange rates for currencies relative to base currency.
+     * Rates are averaged from multiple APIs and cached. If no API can be
+     * reached, last known rates are returned and their age in seconds is listed
+     * under "staleAgeSeconds". Bodies are pre-encoded and carry an ETag, and a
+     * matching If-None-Match gets 304 Not Modified. Symbols are normalized and
+     * unknown currency codes rejected like in the servlet controller.
+     *
+     * @param base        Base currency code (e.g., "EUR")
+     * @param symbols     Target currency codes (e.g., ["USD", "NZD"])
+     * @param ifNoneMatch ETags the client already holds, if any
+     * @return Mono emitting the JSON body with "base" currency and "rates" map
+     *         of currency codes to exchange rates
+     * 
+     *         Example: GET /exchangeRates/EUR?symbols=USD,NZD
+     *         Response: {"base": "EUR", "rates": {"USD":1.078588, "NZD":1.599893}}
+     */
+    @GetMapping("/exchangeRates/{base}")
+    public Mono<ResponseEntity<byte[]>> getRates(@PathVariable String base,
+            @RequestParam(required = true) List<String> symbols,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String upperBase = currencies.normalize(base);
+        List<String> quotes = currencies.normalize(symbols);
+        return service.lookup(upperBase, quotes)
+                .map(lookup -> ExchangeRateController.toResponse(responses, upperBase, quotes, lookup, ifNoneMatch));
+    }
+
+    /**
+     * Streams changes of exchange rates as Server-Sent Events, like
+     * {@link ExchangeRateController#streamRates(String, List)}. Cancelling the
+     * stream ends the subscription.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
+     * @return Flux of "rates" events
+     */
+    @GetMapping("/exchangeRates/{base}/stream")
+    public Flux<ServerSentEvent<RateSubscriptions.RateUpdate>> streamRates(@PathVariable String base,
+            @RequestParam(required = true) List<String> symbols) {
+        String upperBase = currencies.normalize(base);
+        List<String> quotes = currencies.normalize(symbols);
+
+        Sinks.Many<RateSubscriptions.RateUpdate> updates = Sinks.many().unicast().onBackpressureBuffer();
+        RateSubscriptions.Subscription subscription = subscriptions.subscribe(upperBase, quotes, updates::tryEmitNext);
+        return updates.asFlux()
+                .map(update -> ServerSentEvent.builder(update).event("rates").build())
+                .take(subscriptions.getTimeout())
+                .doFinally(_ -> subscription.close());
+    }
+
+    /**
+     * Handles validation errors and invalid input parameters.
+     *
+     * @param exception The validation exception containing the error message
+     * @return ResponseEntity with 400 status and error details
+     *         Example: {"error": "Symbols parameter cannot be empty"}
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(Map.of("error", exception.getMessage()));
+    }
+
+    /**
+     * Handles missing or unconvertible request parameters, which WebFlux
+     * reports as runtime exceptions.
+     *
+     * @param exception The exception raised while binding the request
+     * @return ResponseEntity with 400 status and error details
+     *         Example: {"error": "Required query parameter 'symbols' is not present."}
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, String>> handleServerWebInputException(ServerWebInputException exception) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(exception.getReason())));
+    }
+
+    /**
+     * Handles lookups shed because too many are already waiting on the
+     * upstream APIs, telling the client when to retry.
+     *
+     * @param exception The exception carrying the retry delay
+     * @return ResponseEntity with 503 status, a Retry-After header in seconds
+     *         and error details
+     *         Example: {"error": "Too many lookups are waiting on the exchange rate APIs"}
+     */
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleOverloaded(OverloadedException exception) {
+        long seconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(Map.of("error", exception.getMessage()));
+    }
+
+    /**
+     * Handles service unavailability and rate retrieval failures.
+     *
+     * @param exception The runtime exception containing the error message
+     * @return ResponseEntity with 503 status and error details
+     *         Example: {"error": "No exchange rates available"}
+     */
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", exception.getMessage()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.tess.exchangerateapp.controllers;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import com.tess.exchangerateapp.services.MetricsService;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Reactive REST Controller for API usage metrics, served by WebFlux on Netty
+ * when the reactive profile is active. Returns the same responses as
+ * {@link MetricsController}.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveMetricsController {
+    private final MetricsService metricsService;
+
+    /** @param metricsService Service for collecting and retrieving API metrics */
+    public ReactiveMetricsController(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Gets current metrics for all exchange rate APIs.
+     * 
+     * @return Mono emitting total queries, cache hit/miss counts, the miss
+     *         limiter's state and per-API request/response/failure/rejection
+     *         counts and latency percentiles, as in
+     *         {@link MetricsController#getMetrics()}
+     */
+    @GetMapping("/metrics")
+    public Mono<Map<String, Object>> getMetrics() {
+        return Mono.fromSupplier(metricsService::getMetrics);
+    }
+
+    /**
+     * Gets current metrics in the OpenMetrics text format for Prometheus scrapes.
+     *
+     * @return ResponseEntity with the OpenMetrics text
+     * @throws IOException If writing the metrics fails
+     */
+    @GetMapping("/metrics/prometheus")
+    public ResponseEntity<String> getPrometheusMetrics() throws IOException {
+        StringWriter text = new StringWriter();
+        metricsService.writeOpenMetrics(text);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MetricsController.OPENMETRICS_CONTENT_TYPE))
+                .body(text.toString());
+    }
+
+    /**
+     * Handles unexpected errors in the metrics service.
+     *
+     * @param exception The exception that occurred during metrics retrieval
+     * @return ResponseEntity with 500 status and error details
+     *         Example: {"error": "Failed to retrieve metrics: Unexpected error in
+     *         metrics service"}
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, String>> handleException(Exception exception) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Failed to retrieve metrics: " + exception.getMessage()));
+    }
+}
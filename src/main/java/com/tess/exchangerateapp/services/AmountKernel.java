@@ -0,0 +1,41 @@
+package com.tess.exchangerateapp.services;
+
+/**
+ * Multiplies columns of amounts by columns of rates, the arithmetic core of
+ * bulk conversion. Uses the Vector API ({@code jdk.incubator.vector}) when the
+ * module is present at runtime, so several lanes are multiplied per
+ * instruction on any SIMD width the CPU offers; without the module (e.g. a
+ * plain {@code java -jar} launch) a scalar loop computes the same results.
+ */
+public final class AmountKernel {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private AmountKernel() {
+    }
+
+    /** Returns whether {@link #multiply} runs on the Vector API */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Computes {@code out[i] = amounts[i] * rates[i]} for the first
+     * {@code length} elements. NaN rates give NaN results.
+     */
+    public static void multiply(double[] amounts, double[] rates, double[] out, int length) {
+        if (VECTORIZED) {
+            VectorAmountKernel.multiply(amounts, rates, out, length);
+        } else {
+            multiplyScalar(amounts, rates, out, length);
+        }
+    }
+
+    /**
+     * Computes {@code out[i] = amounts[i] * rates[i]} one element at a time.
+     */
+    public static void multiplyScalar(double[] amounts, double[] rates, double[] out, int length) {
+        for (int i = 0; i < length; i++) {
+            out[i] = amounts[i] * rates[i];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Circuit breaker and bulkhead for calls to one upstream API.
+ * After a run of consecutive failures the circuit opens and calls are
+ * rejected immediately; once the open period has passed a limited number of
+ * trial calls are let through (half-open), and the first success closes the
+ * circuit again while a failure reopens it. Independently of the circuit
+ * state, at most a fixed number of calls may be in flight at once, and calls
+ * beyond that are rejected instead of queued.
+ *
+ * Every permitted call must be finished with exactly one of
+ * {@link #onSuccess()}, {@link #onFailure()} or {@link #onCancelled(Permit)}.
+ */
+public final class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Semaphore bulkhead;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtNanos;
+
+    /** @param settings Breaker settings (thresholds, open period and bulkhead size) */
+    public CircuitBreaker(ExchangeProperties.Breaker settings) {
+        this.failureThreshold = Math.max(1, settings.getFailureThreshold());
+        this.openNanos = settings.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, settings.getHalfOpenCalls());
+        this.bulkhead = new Semaphore(Math.max(1, settings.getMaxConcurrentCalls()));
+    }
+
+    /**
+     * Asks to make a call. Never blocks.
+     *
+     * @return {@link Permit#CALL} or {@link Permit#TRIAL} if the call may
+     *         proceed, {@link Permit#REJECTED} if the circuit is open or the
+     *         bulkhead is full
+     */
+    public Permit tryAcquire() {
+        boolean trial = false;
+        if (state != State.CLOSED) {
+            if (state == State.OPEN && !halfOpenIfDue()) {
+                return Permit.REJECTED;
+            }
+            if (halfOpenPermits.getAndUpdate(permits -> permits > 0 ? permits - 1 : 0) == 0) {
+                return Permit.REJECTED;
+            }
+            trial = true;
+        }
+        if (!bulkhead.tryAcquire()) {
+            if (trial) {
+                returnTrialPermit();
+            }
+            return Permit.REJECTED;
+        }
+        return trial ? Permit.TRIAL : Permit.CALL;
+    }
+
+    /**
+     * Finishes a call that succeeded. Closes the circuit if it was not closed.
+     */
+    public void onSuccess() {
+        bulkhead.release();
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * Finishes a call that failed. Opens the circuit after too many consecutive
+     * failures, or at once if this was a half-open trial call.
+     */
+    public void onFailure() {
+        bulkhead.release();
+        if (state == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Finishes a call that was cancelled before it completed, e.g. because
+     * another API answered first. Does not count as success or failure. A
+     * cancelled trial call gives its half-open permit back; a call admitted
+     * while the circuit was closed has none to give.
+     *
+     * @param permit The permit {@link #tryAcquire()} granted the call
+     */
+    public void onCancelled(Permit permit) {
+        bulkhead.release();
+        if (permit == Permit.TRIAL && state == State.HALF_OPEN) {
+            returnTrialPermit();
+        }
+    }
+
+    /** Returns the current circuit state */
+    public State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void returnTrialPermit() {
+        halfOpenPermits.updateAndGet(permits -> Math.min(halfOpenCalls, permits + 1));
+    }
+
+    private boolean halfOpenIfDue() {
+        if (System.nanoTime() - openedAtNanos < openNanos) {
+            return false;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                halfOpenPermits.set(halfOpenCalls);
+                state = State.HALF_OPEN;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void transition(State next) {
+        if (next == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+            halfOpenPermits.set(0);
+        } else if (next == State.CLOSED) {
+            consecutiveFailures.set(0);
+        }
+        state = next;
+    }
+
+    /**
+     * Outcome of {@link #tryAcquire()}.
+     */
+    public enum Permit {
+        /** The call must not be made */
+        REJECTED,
+        /** The call may proceed as usual */
+        CALL,
+        /** The call may proceed as one of the half-open trial calls */
+        TRIAL;
+
+        /** Returns whether the call may proceed */
+        public boolean granted() {
+            return this != REJECTED;
+        }
+    }
+
+    /**
+     * Circuit states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
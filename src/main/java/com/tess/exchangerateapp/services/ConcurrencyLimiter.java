@@ -0,0 +1,90 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on the number of lookups in flight on a slow path, adjusted
+ * by additive increase and multiplicative decrease (AIMD) from the outcome of
+ * each lookup. A lookup that finishes within the latency threshold grows the
+ * limit by about one per limit's worth of such lookups, as long as the limit
+ * is actually in use; a slower lookup, e.g. one that waited for the upstream
+ * deadline, shrinks it by the backoff ratio. When upstreams slow down the
+ * limit follows them down, so excess requests are rejected at once instead of
+ * holding a request thread each while they wait.
+ *
+ * Every permitted lookup must be finished with exactly one of
+ * {@link #onComplete(long)} or {@link #onCancelled()}.
+ */
+public final class ConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Exact limit; only changed while holding the monitor */
+    private double limit;
+    /** Whole part of the limit, read without locking when acquiring */
+    private volatile int permits;
+
+    /** @param settings Limiter settings (initial, minimum and maximum limit, threshold and backoff) */
+    public ConcurrencyLimiter(ExchangeProperties.Limiter settings) {
+        this.minLimit = Math.max(1, settings.getMinLimit());
+        this.maxLimit = Math.max(minLimit, settings.getMaxLimit());
+        this.latencyThresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.backoffRatio = Math.clamp(settings.getBackoffRatio(), 0.1, 1.0);
+        this.limit = Math.clamp(settings.getInitialLimit(), minLimit, maxLimit);
+        this.permits = (int) limit;
+    }
+
+    /**
+     * Asks to start a lookup. Never blocks.
+     *
+     * @return true if the lookup may proceed, false if the limit is reached
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= permits) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Finishes a lookup and adjusts the limit from its duration.
+     *
+     * @param nanos How long the lookup took
+     */
+    public void onComplete(long nanos) {
+        int active = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (nanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (active * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            permits = (int) limit;
+        }
+    }
+
+    /**
+     * Finishes a lookup that was interrupted before it completed. Does not
+     * change the limit.
+     */
+    public void onCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    /** Returns the current limit */
+    public int limit() {
+        return permits;
+    }
+
+    /** Returns the number of lookups in flight */
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,514 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.NumberInput;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts streams of amounts between currencies for bulk jobs such as
+ * settlement runs. Rows of (amount, from, to) are read as NDJSON or CSV in
+ * fixed-size columnar chunks. The rate of each distinct pair is resolved once
+ * per stream through {@link ExchangeService}, with the new pairs of a chunk in
+ * one batch lookup; the chunk's amounts are then multiplied by their rates with
+ * {@link AmountKernel}, and the converted rows are written and flushed before
+ * the next chunk is read. Memory use depends on the chunk size and the number
+ * of distinct pairs, not on the number of rows.
+ *
+ * Rows are answered in input order. A row that cannot be read, names an
+ * unknown currency or has no available rate is answered with an error instead
+ * of ending the stream.
+ *
+ * Example NDJSON row: {"amount": 100.0, "from": "EUR", "to": "USD"}
+ * Answer: {"amount":100.0,"from":"EUR","to":"USD","rate":1.0856,"converted":108.56}
+ * Example CSV row: 100.0,EUR,USD
+ * Answer: 100.0,EUR,USD,1.0856,108.56,
+ */
+@Service
+public class ConversionService {
+    static final String CSV_HEADER = "amount,from,to,rate,converted,error";
+    private static final String NO_RATE = "No exchange rate available";
+    private static final String OVERLOADED = "Exchange rate APIs are overloaded; retry later";
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final ExchangeService exchangeService;
+    private final CurrencyRegistry currencies;
+    private final int chunkRows;
+
+    /**
+     * Row formats of the conversion stream.
+     */
+    public enum Format {
+        /** One JSON object per line */
+        NDJSON,
+        /** Comma-separated amount,from,to per line, with an optional header */
+        CSV
+    }
+
+    /**
+     * @param exchangeService Service the rates are resolved through
+     * @param currencies      Registry row currency codes are validated against
+     * @param properties      Exchange settings (rows per chunk)
+     */
+    public ConversionService(ExchangeService exchangeService, CurrencyRegistry currencies,
+            ExchangeProperties properties) {
+        this.exchangeService = exchangeService;
+        this.currencies = currencies;
+        this.chunkRows = Math.max(1, properties.getConversion().getChunkRows());
+    }
+
+    /**
+     * Converts every row of the input and writes the answers in the same
+     * format, flushing after each chunk. Neither stream is closed.
+     *
+     * @param format Row format of both streams
+     * @param in     Rows to convert, typically the HTTP request body
+     * @param out    Destination, typically the HTTP response body
+     * @return Number of rows answered
+     */
+    public long convert(Format format, InputStream in, OutputStream out) throws IOException {
+        Chunk chunk = new Chunk(chunkRows);
+        PairRates pairs = new PairRates();
+        RowReader reader = format == Format.CSV ? new CsvReader(in) : new NdjsonReader(in);
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+
+        long rows = 0;
+        while (reader.read(chunk)) {
+            resolve(chunk, pairs);
+            AmountKernel.multiply(chunk.amounts, chunk.rates, chunk.converted, chunk.size);
+            writer.write(chunk);
+            writer.flush();
+            rows += chunk.size;
+        }
+        if (reader.failure() != null) {
+            writer.writeFailure(reader.failure());
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Fills the rate column of a chunk. Pairs not seen before in this stream
+     * are looked up together, one batch lookup per chunk at most. If the
+     * lookup is shed, the chunk's new pairs are answered with an error and
+     * looked up again for the next chunk.
+     */
+    private void resolve(Chunk chunk, PairRates pairs) {
+        Map<String, Set<String>> wanted = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size; i++) {
+            if (chunk.errors[i] == null && chunk.from[i] != chunk.to[i] && !pairs.isResolved(chunk.from[i], chunk.to[i])) {
+                wanted.computeIfAbsent(chunk.fromCodes[i], _ -> new LinkedHashSet<>()).add(chunk.toCodes[i]);
+            }
+        }
+
+        boolean overloaded = false;
+        if (!wanted.isEmpty()) {
+            try {
+                Map<String, Map<String, Double>> found = exchangeService.getRatesBatch(wanted);
+                for (Map.Entry<String, Set<String>> entry : wanted.entrySet()) {
+                    Map<String, Double> rates = found.getOrDefault(entry.getKey(), Map.of());
+                    int from = CurrencyIndex.of(entry.getKey());
+                    for (String symbol : entry.getValue()) {
+                        Double rate = rates.get(symbol);
+                        pairs.put(from, CurrencyIndex.of(symbol), rate != null ? rate : Double.NaN);
+                    }
+                }
+            } catch (OverloadedException error) {
+                // The pairs stay unresolved, so the next chunk asks for them again
+                overloaded = true;
+            }
+        }
+
+        for (int i = 0; i < chunk.size; i++) {
+            if (chunk.errors[i] != null) {
+                chunk.rates[i] = Double.NaN;
+            } else if (chunk.from[i] == chunk.to[i]) {
+                chunk.rates[i] = 1.0;
+            } else {
+                chunk.rates[i] = pairs.get(chunk.from[i], chunk.to[i]);
+                if (Double.isNaN(chunk.rates[i])) {
+                    chunk.errors[i] = overloaded && !pairs.isResolved(chunk.from[i], chunk.to[i]) ? OVERLOADED : NO_RATE;
+                }
+            }
+        }
+    }
+
+    /**
+     * One chunk of rows as columns. Allocated once per stream and reused.
+     */
+    private final class Chunk {
+        private final double[] amounts;
+        private final String[] fromCodes;
+        private final String[] toCodes;
+        private final int[] from;
+        private final int[] to;
+        private final String[] errors;
+        private final double[] rates;
+        private final double[] converted;
+        private int size;
+
+        private Chunk(int capacity) {
+            this.amounts = new double[capacity];
+            this.fromCodes = new String[capacity];
+            this.toCodes = new String[capacity];
+            this.from = new int[capacity];
+            this.to = new int[capacity];
+            this.errors = new String[capacity];
+            this.rates = new double[capacity];
+            this.converted = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return size == amounts.length;
+        }
+
+        private void clear() {
+            Arrays.fill(fromCodes, 0, size, null);
+            Arrays.fill(toCodes, 0, size, null);
+            Arrays.fill(errors, 0, size, null);
+            size = 0;
+        }
+
+        /**
+         * Adds a row, validating its amount and currency codes. An invalid row
+         * is kept with an error so that answers stay in input order.
+         */
+        private void add(double amount, String fromCode, String toCode) {
+            int i = size++;
+            amounts[i] = amount;
+            fromCodes[i] = fromCode;
+            toCodes[i] = toCode;
+            if (fromCode == null || toCode == null) {
+                errors[i] = "Row needs an amount and both currency codes";
+            } else if (!Double.isFinite(amount)) {
+                errors[i] = "Invalid amount";
+            } else if (!currencies.isKnown(fromCode) || !currencies.isKnown(toCode)) {
+                errors[i] = "Unknown currency code: " + (currencies.isKnown(fromCode) ? toCode : fromCode);
+            } else {
+                fromCodes[i] = currencies.normalize(fromCode);
+                toCodes[i] = currencies.normalize(toCode);
+                from[i] = CurrencyIndex.of(fromCodes[i]);
+                to[i] = CurrencyIndex.of(toCodes[i]);
+            }
+        }
+
+        private void addError(String error) {
+            int i = size++;
+            amounts[i] = Double.NaN;
+            errors[i] = error;
+        }
+    }
+
+    /**
+     * Rates of the pairs resolved so far in a stream, as one lazily allocated
+     * row per base currency index. Looked up per row without boxing.
+     */
+    private static final class PairRates {
+        /** Marks a pair that was looked up without finding a rate; rates are positive */
+        private static final double UNAVAILABLE = -1;
+        private double[][] byBase = new double[0][];
+
+        private boolean isResolved(int from, int to) {
+            double[] row = from < byBase.length ? byBase[from] : null;
+            return row != null && to < row.length && !Double.isNaN(row[to]);
+        }
+
+        /** Returns the rate of a resolved pair, or NaN if it has none */
+        private double get(int from, int to) {
+            double rate = isResolved(from, to) ? byBase[from][to] : Double.NaN;
+            return rate == UNAVAILABLE ? Double.NaN : rate;
+        }
+
+        private void put(int from, int to, double rate) {
+            if (from >= byBase.length) {
+                byBase = Arrays.copyOf(byBase, Math.max(from + 1, CurrencyIndex.size()));
+            }
+            double[] row = byBase[from];
+            if (row == null || to >= row.length) {
+                int previous = row == null ? 0 : row.length;
+                row = row == null ? new double[Math.max(to + 1, CurrencyIndex.size())]
+                        : Arrays.copyOf(row, Math.max(to + 1, CurrencyIndex.size()));
+                Arrays.fill(row, previous, row.length, Double.NaN);
+                byBase[from] = row;
+            }
+            row[to] = Double.isNaN(rate) ? UNAVAILABLE : rate;
+        }
+    }
+
+    /**
+     * Reads rows into a chunk.
+     */
+    private interface RowReader {
+        /**
+         * Clears the chunk and fills it with the next rows.
+         *
+         * @return Whether any row was read
+         */
+        boolean read(Chunk chunk) throws IOException;
+
+        /** Returns why reading stopped before the end of the input, if it did */
+        default String failure() {
+            return null;
+        }
+    }
+
+    /**
+     * Reads NDJSON rows with one streaming parser over the whole input, so rows
+     * are not materialized as lines or trees first. Unknown fields are skipped.
+     * Malformed JSON cannot be resynchronized, so it ends the stream.
+     */
+    private static final class NdjsonReader implements RowReader {
+        private final JsonParser parser;
+        private String failure;
+
+        private NdjsonReader(InputStream in) throws IOException {
+            this.parser = JSON.createParser(in);
+        }
+
+        @Override
+        public boolean read(Chunk chunk) throws IOException {
+            chunk.clear();
+            if (failure != null) {
+                return false;
+            }
+            try {
+                JsonToken token;
+                while (!chunk.isFull() && (token = parser.nextToken()) != null) {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        chunk.addError("Expected a JSON object");
+                        continue;
+                    }
+                    readRow(chunk);
+                }
+            } catch (JsonProcessingException error) {
+                failure = "Malformed JSON: " + error.getOriginalMessage();
+            }
+            return chunk.size > 0;
+        }
+
+        private void readRow(Chunk chunk) throws IOException {
+            double amount = Double.NaN;
+            String from = null;
+            String to = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "amount" -> amount = value.isNumeric() ? parser.getDoubleValue()
+                            : value == JsonToken.VALUE_STRING ? parseAmount(parser.getText()) : Double.NaN;
+                    case "from" -> from = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "to" -> to = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    default -> parser.skipChildren();
+                }
+            }
+            chunk.add(amount, from, to);
+        }
+
+        @Override
+        public String failure() {
+            return failure;
+        }
+    }
+
+    /**
+     * Reads CSV rows of amount,from,to line by line. A first line starting with
+     * "amount" is taken as a header and skipped, as are blank lines. Values are
+     * not quoted.
+     */
+    private static final class CsvReader implements RowReader {
+        private final BufferedReader lines;
+        private boolean first = true;
+
+        private CsvReader(InputStream in) {
+            this.lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean read(Chunk chunk) throws IOException {
+            chunk.clear();
+            String line;
+            while (!chunk.isFull() && (line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (first && line.stripLeading().regionMatches(true, 0, "amount", 0, 6)) {
+                    first = false;
+                    continue;
+                }
+                first = false;
+                readRow(chunk, line);
+            }
+            return chunk.size > 0;
+        }
+
+        private static void readRow(Chunk chunk, String line) {
+            int firstComma = line.indexOf(',');
+            int secondComma = firstComma < 0 ? -1 : line.indexOf(',', firstComma + 1);
+            if (secondComma < 0 || line.indexOf(',', secondComma + 1) >= 0) {
+                chunk.addError("Expected 3 fields per row");
+                return;
+            }
+            chunk.add(parseAmount(line.substring(0, firstComma)),
+                    line.substring(firstComma + 1, secondComma).trim(),
+                    line.substring(secondComma + 1).trim());
+        }
+    }
+
+    /**
+     * Parses an amount with Jackson's fast double parser.
+     *
+     * @return The amount, or NaN if the text is not a number
+     */
+    private static double parseAmount(String text) {
+        try {
+            return NumberInput.parseDouble(text.trim(), true);
+        } catch (NumberFormatException error) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Writes the answers for a chunk.
+     */
+    private interface RowWriter {
+        void write(Chunk chunk) throws IOException;
+
+        /** Writes a last line saying why the stream ended early */
+        void writeFailure(String failure) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    /**
+     * Writes one JSON object per row and line, with the rate and converted
+     * amount, or the error of the row.
+     */
+    private static final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(OutputStream out) throws IOException {
+            this.generator = JSON.createGenerator(out);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Chunk chunk) throws IOException {
+            for (int i = 0; i < chunk.size; i++) {
+                generator.writeStartObject();
+                if (!Double.isNaN(chunk.amounts[i])) {
+                    generator.writeNumberField("amount", chunk.amounts[i]);
+                }
+                if (chunk.fromCodes[i] != null) {
+                    generator.writeStringField("from", chunk.fromCodes[i]);
+                }
+                if (chunk.toCodes[i] != null) {
+                    generator.writeStringField("to", chunk.toCodes[i]);
+                }
+                if (chunk.errors[i] == null) {
+                    generator.writeNumberField("rate", chunk.rates[i]);
+                    generator.writeNumberField("converted", chunk.converted[i]);
+                } else {
+                    generator.writeStringField("error", chunk.errors[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void writeFailure(String failure) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("error", failure);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Writes CSV lines of amount,from,to,rate,converted,error after a header
+     * line. Rows with an error leave the rate and converted amount empty.
+     */
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(Chunk chunk) throws IOException {
+            for (int i = 0; i < chunk.size; i++) {
+                if (!Double.isNaN(chunk.amounts[i])) {
+                    writer.write(Double.toString(chunk.amounts[i]));
+                }
+                writer.write(',');
+                writeField(chunk.fromCodes[i]);
+                writer.write(',');
+                writeField(chunk.toCodes[i]);
+                writer.write(',');
+                if (chunk.errors[i] == null) {
+                    writer.write(Double.toString(chunk.rates[i]));
+                    writer.write(',');
+                    writer.write(Double.toString(chunk.converted[i]));
+                    writer.write(',');
+                } else {
+                    writer.write(",,");
+                    writeField(chunk.errors[i]);
+                }
+                writer.write('\n');
+            }
+        }
+
+        /** Writes a field without the characters that would break the row */
+        private void writeField(String field) throws IOException {
+            if (field != null) {
+                writer.write(field.replace(",", "").replace('\n', ' ').replace('\r', ' '));
+            }
+        }
+
+        @Override
+        public void writeFailure(String failure) throws IOException {
+            writer.write(",,,,,");
+            writeField(failure);
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+}
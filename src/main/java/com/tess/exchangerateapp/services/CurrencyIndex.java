@@ -0,0 +1,96 @@
+package com.tess.exchangerateapp.services;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns currency codes to small, dense integer indices so rate tables can be
+ * stored in primitive arrays. Indices are assigned on first use and never
+ * change for the lifetime of the application.
+ *
+ * The lower-case spelling of each code is registered as an alias, so codes as
+ * providers publish them (e.g., "usd") are looked up without upper-casing.
+ */
+public final class CurrencyIndex {
+    private static final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    private static volatile String[] codes = new String[0];
+
+    private CurrencyIndex() {
+    }
+
+    /**
+     * Returns the index of a currency code, assigning a new one if needed.
+     *
+     * @param code Currency code in any case (e.g., "usd")
+     * @return Index of the upper-cased code
+     */
+    public static int of(String code) {
+        Integer index = indices.get(code);
+        if (index != null) {
+            return index;
+        }
+        String upper = code.toUpperCase();
+        index = indices.get(upper);
+        return index != null ? index : register(upper);
+    }
+
+    /**
+     * Returns the index of an already interned code without assigning one.
+     *
+     * @return The index, or -1 if the code has never been seen
+     */
+    public static int find(String code) {
+        Integer index = indices.get(code);
+        if (index == null) {
+            index = indices.get(code.toUpperCase());
+        }
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns whether a currency code is well formed (three ASCII letters in
+     * any case). Only such codes are interned for lookups and stored in the
+     * rate archive.
+     */
+    public static boolean isWellFormed(String code) {
+        if (code == null || code.length() != 3) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            char c = Character.toUpperCase(code.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the currency code for an index.
+     */
+    public static String code(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Returns the number of interned codes, which is one past the highest index.
+     */
+    public static int size() {
+        return codes.length;
+    }
+
+    private static synchronized int register(String code) {
+        Integer existing = indices.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        int index = codes.length;
+        String[] grown = Arrays.copyOf(codes, index + 1);
+        grown[index] = code;
+        codes = grown;
+        indices.put(code, index);
+        indices.putIfAbsent(code.toLowerCase(), index);
+        return index;
+    }
+}
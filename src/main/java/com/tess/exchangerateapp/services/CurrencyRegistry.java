@@ -0,0 +1,168 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of the currency codes requests may use: every code the
+ * providers list as supported (e.g. crypto currencies quoted by Fawaz).
+ * Request symbols are normalized and checked against it before any cache
+ * lookup or upstream call, so junk codes are rejected without I/O instead of
+ * being fetched from every provider on every request.
+ *
+ * The providers' lists are fetched at startup and then on the configured
+ * refresh interval. Until the first list has loaded, the ISO 4217 codes known
+ * to the JDK are used instead; they include withdrawn currencies (e.g. DEM),
+ * so they are only a fallback. A provider that cannot be reached keeps the
+ * list it last returned.
+ */
+@Component
+public class CurrencyRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyRegistry.class);
+    /** ISO 4217 codes for "no currency" and testing, never quoted by a provider */
+    private static final Set<String> EXCLUDED = Set.of("XXX", "XTS");
+    private static final Set<String> ISO_CODES = isoCodes();
+
+    private final List<ExchangeApiService> apis;
+    private final boolean refreshEnabled;
+    private final Map<String, Set<String>> listed = new ConcurrentHashMap<>();
+    private volatile Set<String> known = ISO_CODES;
+
+    /**
+     * @param apis       Exchange rate APIs whose currency lists to load
+     * @param properties Configuration for whether the lists are loaded
+     */
+    @Autowired
+    public CurrencyRegistry(ObjectProvider<ExchangeApiService> apis, ExchangeProperties properties) {
+        this(apis.orderedStream().toList(), properties.getCurrencies().isRefreshEnabled());
+    }
+
+    /** @param apis Exchange rate APIs whose currency lists to load */
+    public CurrencyRegistry(List<ExchangeApiService> apis) {
+        this(apis, true);
+    }
+
+    private CurrencyRegistry(List<ExchangeApiService> apis, boolean refreshEnabled) {
+        this.apis = apis;
+        this.refreshEnabled = refreshEnabled;
+    }
+
+    /**
+     * Returns whether a currency code is known.
+     *
+     * @param code Currency code in any case (e.g., "usd")
+     */
+    public boolean isKnown(String code) {
+        return code != null && known.contains(code.trim().toUpperCase());
+    }
+
+    /**
+     * Returns the canonical spelling of a currency code. The code is interned
+     * in {@link CurrencyIndex}, so rate vectors can select it even before any
+     * rate table quoting it has been read; listed codes such as "1INCH" are
+     * not interned on lookup otherwise.
+     *
+     * @param code Currency code in any case (e.g., " usd")
+     * @return The trimmed, upper-cased code (e.g., "USD")
+     * @throws IllegalArgumentException If the code is not known
+     */
+    public String normalize(String code) {
+        String upper = code == null ? "" : code.trim().toUpperCase();
+        if (!known.contains(upper)) {
+            throw new IllegalArgumentException("Unknown currency code: " + code);
+        }
+        CurrencyIndex.of(upper);
+        return upper;
+    }
+
+    /**
+     * Normalizes a list of requested symbols: codes are trimmed and
+     * upper-cased, blanks and repeats are dropped, and the first occurrence
+     * keeps its position.
+     *
+     * @param symbols Requested currency codes (e.g., ["usd", "NZD", "USD"])
+     * @return The distinct canonical codes (e.g., ["USD", "NZD"])
+     * @throws IllegalArgumentException If no symbol is given or any is unknown
+     */
+    public List<String> normalize(List<String> symbols) {
+        Set<String> normalized = new LinkedHashSet<>();
+        if (symbols != null) {
+            for (String symbol : symbols) {
+                if (symbol != null && !symbol.isBlank()) {
+                    normalized.add(normalize(symbol));
+                }
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Symbols parameter cannot be empty");
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    /**
+     * Returns the number of known codes.
+     */
+    public int size() {
+        return known.size();
+    }
+
+    /**
+     * Loads the codes each provider lists as supported. A provider that cannot
+     * be reached keeps its previous list; if no provider has ever listed its
+     * codes, the ISO codes stay in use. Does nothing if loading the lists is
+     * disabled (exchange.currencies.refresh-enabled=false).
+     *
+     * @return The number of known codes afterwards
+     */
+    @Scheduled(fixedDelayString = "${exchange.currencies.refresh-interval:24h}")
+    public int refresh() {
+        if (!refreshEnabled) {
+            return known.size();
+        }
+        for (ExchangeApiService api : apis) {
+            try {
+                Set<String> supported = api.getCurrencies();
+                if (supported != null) {
+                    Set<String> codes = new HashSet<>();
+                    supported.forEach(code -> codes.add(code.toUpperCase()));
+                    listed.put(api.getName(), codes);
+                }
+            } catch (RuntimeException error) {
+                logger.warn("Could not load the currency list of {}: {}", api.getName(), error.getMessage());
+            }
+        }
+        if (listed.isEmpty()) {
+            logger.debug("No provider listed its currencies, using {} ISO codes", ISO_CODES.size());
+            return known.size();
+        }
+
+        Set<String> codes = new HashSet<>();
+        listed.values().forEach(codes::addAll);
+        codes.removeAll(EXCLUDED);
+        known = Set.copyOf(codes);
+        logger.debug("Currency registry holds {} codes", known.size());
+        return known.size();
+    }
+
+    private static Set<String> isoCodes() {
+        Set<String> codes = new HashSet<>();
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            codes.add(currency.getCurrencyCode());
+        }
+        codes.removeAll(EXCLUDED);
+        return Set.copyOf(codes);
+    }
+}
@@ -1,7 +1,9 @@
 package com.tess.exchangerateapp.services;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface ExchangeApiService {
     /**
@@ -16,7 +18,92 @@ public interface ExchangeApiService {
      * @param symbols list of target currency codes to get rates for (e.g. ["USD",
      *                "NZD"])
      * @return a map of currency codes to their exchange rates relative to the base
-     *         currency
+     *         currency; empty if the API answered without quoting any of them
+     * @throws UpstreamException if the API could not be reached, timed out or
+     *                           failed with a server error
      */
     Map<String, Double> getRates(String base, List<String> symbols);
-}
\ No newline at end of file
+
+    /**
+     * Fetches exchange rates like {@link #getRates(String, List)}, as a compact
+     * rate vector. Implementations that hold rates in primitive form should
+     * override this to avoid boxing every rate.
+     *
+     * @param base    the base currency code (e.g. "EUR")
+     * @param symbols list of target currency codes to get rates for (e.g. ["USD",
+     *                "NZD"])
+     * @return the rates found, or an empty vector
+     * @throws UpstreamException if the API could not be reached, timed out or
+     *                           failed with a server error
+     */
+    default RateVector getRateVector(String base, List<String> symbols) {
+        return RateVector.of(getRates(base, symbols));
+    }
+
+    /**
+     * Fetches the codes of every currency the API quotes, to be added to the
+     * {@link CurrencyRegistry}.
+     *
+     * @return the currency codes in any case, or null if they could not be
+     *         fetched or the API does not list them
+     */
+    default Set<String> getCurrencies() {
+        return null;
+    }
+
+    /**
+     * Returns whether the API can download the full rate table for a base
+     * currency through {@link #getSnapshot(String)}
+     */
+    default boolean supportsSnapshots() {
+        return false;
+    }
+
+    /**
+     * Fetches the full rate table published for a base currency. Tables are kept
+     * in the {@link RateSnapshotStore} and used to answer later requests for any
+     * pair they cover without network I/O.
+     *
+     * @param base the base currency code (e.g. "EUR")
+     * @return the full table, or null if the API has no table for the base or
+     *         does not support full tables
+     * @throws UpstreamException if the API could not be reached, timed out or
+     *                           failed with a server error
+     */
+    default RateSnapshot getSnapshot(String base) {
+        return null;
+    }
+
+    /**
+     * Returns when the API publishes new rates. Snapshots stamped with their
+     * publication date stay valid until the next publication instead of for a
+     * fixed TTL.
+     *
+     * @return the schedule, or null if the API publishes at no fixed time
+     */
+    default PublishSchedule publishSchedule() {
+        return null;
+    }
+
+    /**
+     * Returns whether the API publishes historical daily rates through
+     * {@link #getHistory(String, LocalDate, LocalDate)}
+     */
+    default boolean supportsHistory() {
+        return false;
+    }
+
+    /**
+     * Fetches the daily rates published for a base currency over a date range.
+     * Days without publication (weekends, holidays) are simply absent.
+     *
+     * @param base the base currency code (e.g. "EUR")
+     * @param from first date of the range (inclusive)
+     * @param to   last date of the range (inclusive)
+     * @return a map of dates to currency codes and rates, or null if the range
+     *         could not be fetched or the API has no history
+     */
+    default Map<LocalDate, Map<String, Double>> getHistory(String base, LocalDate from, LocalDate to) {
+        return null;
+    }
+}
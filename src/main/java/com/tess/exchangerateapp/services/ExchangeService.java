@@ -3,87 +3,628 @@ package com.tess.exchangerateapp.services;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.HashMap;
 
 /**
  * Service that orchestrates exchange rate fetching from multiple APIs.
  * Aggregates results, handles caching, and records metrics for API usage.
+ * APIs are queried concurrently on virtual threads under a single deadline, and
+ * concurrent misses for the same base are micro-batched into one fetch for all
+ * of their symbols. In adaptive routing mode only the fastest healthy APIs are
+ * queried, with a hedged request to the next API when one is slower than its
+ * usual p95. Lookups that miss the cache are admitted under an adaptive
+ * concurrency limit, so when the APIs slow down excess misses are shed at once
+ * while cache hits keep being answered.
  */
 @Service
 public class ExchangeService {
     private static final Logger logger = LoggerFactory.getLogger(ExchangeService.class);
     private final List<ExchangeApiService> apis;
-    private final Map<String, Map<String, Double>> cache = new ConcurrentHashMap<>();
+    private final RateCache cache;
+    private final RateSnapshotStore snapshots;
     private final MetricsService metrics;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MissBatcher batcher;
+    private final Duration deadline;
+    private final Duration cacheTtl;
+    private final ExchangeProperties.Routing.Mode routingMode;
+    private final int quorum;
+    private final ProviderScoreboard scoreboard;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ExchangeProperties.Breaker breakerSettings;
+    private final ConcurrencyLimiter limiter;
+    private final Duration retryAfter;
 
     /**
      * Constructs the exchange service with available APIs and metrics service.
-     * 
-     * @param apis    List of exchange rate API implementations
-     * @param metrics Service for recording API usage metrics
+     *
+     * @param apis       List of exchange rate API implementations
+     * @param metrics    Service for recording API usage metrics
+     * @param cache      Per currency pair cache of averaged rates
+     * @param snapshots  Full rate tables per API, used to derive rates locally
+     * @param properties Exchange settings (upstream deadline, routing and miss limit)
      */
-    public ExchangeService(List<ExchangeApiService> apis, MetricsService metrics) {
+    public ExchangeService(List<ExchangeApiService> apis, MetricsService metrics, RateCache cache,
+            RateSnapshotStore snapshots, ExchangeProperties properties) {
         this.apis = apis;
         this.metrics = metrics;
+        this.cache = cache;
+        this.snapshots = snapshots;
+        this.deadline = properties.getUpstream().getDeadline();
+        this.cacheTtl = properties.getCache().getTtl();
+        this.routingMode = properties.getRouting().getMode();
+        this.quorum = Math.max(1, properties.getRouting().getQuorum());
+        this.scoreboard = new ProviderScoreboard(properties.getRouting());
+        this.breakerSettings = properties.getBreaker();
+        this.batcher = new MissBatcher(properties.getBatch(), this::fetchAndCache);
+        this.limiter = metrics.registerMissLimiter(
+                properties.getLimiter().isEnabled() ? new ConcurrencyLimiter(properties.getLimiter()) : null);
+        this.retryAfter = properties.getLimiter().getRetryAfter();
     }
 
     /**
      * Gets exchange rates for the specified currencies.
-     * Attempts to fetch from cache first, then queries all APIs if needed.
-     * Results are averaged across successful API responses.
+     * Each currency pair is looked up in the cache first, and only the symbols
+     * that are missing are fetched from the APIs in parallel. Fetched results are
+     * averaged across the API responses that arrived before the deadline. If no
+     * API could provide a symbol, its last known rate is used.
      *
      * @param base    Base currency code (e.g., "EUR")
      * @param symbols List of target currency codes (e.g., ["USD", "NZD"])
      * @return Map of currency codes to their exchange rates, or empty map if no
      *         results
+     * @throws OverloadedException If a symbol is missing from the cache, the
+     *                             miss limit is reached and the symbol has no
+     *                             last known rate
      */
     public Map<String, Double> getRates(String base, List<String> symbols) {
-        String key = base + ":" + String.join(",", symbols);
-        if (cache.containsKey(key)) {
-            return cache.get(key);
+        return lookup(base, symbols).rates();
+    }
+
+    /**
+     * Gets exchange rates like {@link #getRates(String, List)}, and also reports
+     * which of them are last known rates served because no API could be
+     * reached, together with their age.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols List of target currency codes (e.g., ["USD", "NZD"])
+     * @return The rates and the ages of the stale ones
+     * @throws OverloadedException If a symbol is missing from the cache, the
+     *                             miss limit is reached and the symbol has no
+     *                             last known rate
+     */
+    public RateLookup lookup(String base, List<String> symbols) {
+        RateVector.Builder rates = RateVector.builder(symbols.size());
+        List<String> missing = readCached(base, symbols, rates);
+        metrics.recordCacheHits(rates.size());
+        metrics.recordCacheMisses(missing.size());
+
+        if (missing.isEmpty()) {
+            return new RateLookup(rates.build(), Map.of());
+        }
+
+        rates.putAll(fetchLimited(base, missing));
+
+        Map<String, Duration> stale = new HashMap<>();
+        for (String quote : missing) {
+            int currency = RateVector.index(quote);
+            RateCache.KnownRate known = currency < 0 || rates.contains(currency) ? null
+                    : cache.getLastKnown(base, quote);
+            if (known != null) {
+                rates.put(currency, known.rate());
+                stale.put(quote, known.age());
+            }
+        }
+        if (!stale.isEmpty()) {
+            logger.warn("Serving last known rates for base={}, symbols={}", base, stale.keySet());
+        }
+        return new RateLookup(rates.build(), stale.isEmpty() ? Map.of() : stale);
+    }
+
+    /**
+     * Fetches symbols that missed the cache under the adaptive miss limit.
+     * Above the limit nothing is fetched: if every symbol has a last known
+     * rate the caller serves those as stale, otherwise the lookup is shed.
+     *
+     * @return The fetched rates, or an empty vector if the lookup was not
+     *         admitted
+     * @throws OverloadedException If the lookup was not admitted and a symbol
+     *                             has no last known rate
+     */
+    private RateVector fetchLimited(String base, List<String> missing) {
+        if (limiter == null) {
+            return batcher.fetch(base, missing);
         }
+        if (!limiter.tryAcquire()) {
+            boolean servedStale = missing.stream().allMatch(quote -> cache.getLastKnown(base, quote) != null);
+            metrics.recordMissRejected(servedStale);
+            if (!servedStale) {
+                throw new OverloadedException("Too many lookups are waiting on the exchange rate APIs", retryAfter);
+            }
+            return RateVector.empty();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return batcher.fetch(base, missing);
+        } finally {
+            if (Thread.currentThread().isInterrupted()) {
+                limiter.onCancelled();
+            } else {
+                limiter.onComplete(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Gets exchange rates for several base currencies in one pass.
+     * Each base is resolved once for the union of its requested symbols, and
+     * bases are resolved concurrently, sharing the cache, in-flight fetches and
+     * stored rate tables.
+     *
+     * @param symbolsByBase Map of base currency codes to the symbols wanted for
+     *                      them (e.g., {"EUR": ["USD"], "USD": ["JPY"]})
+     * @return Map of base currency codes to their rates; a base with no results
+     *         maps to an empty map
+     * @throws OverloadedException If the lookup of any base was shed
+     */
+    public Map<String, Map<String, Double>> getRatesBatch(Map<String, ? extends Collection<String>> symbolsByBase) {
+        List<String> bases = List.copyOf(symbolsByBase.keySet());
+        List<Callable<Map<String, Double>>> lookups = bases.stream()
+                .<Callable<Map<String, Double>>>map(base -> () -> getRates(base, List.copyOf(symbolsByBase.get(base))))
+                .toList();
 
-        List<Map<String, Double>> results = apis.stream().map(api -> {
-            try {
-                metrics.recordRequest(api.getName());
-                Map<String, Double> response = api.getRates(base, symbols);
+        Map<String, Map<String, Double>> results = new LinkedHashMap<>();
+        try {
+            List<Future<Map<String, Double>>> futures = executor.invokeAll(lookups);
+            for (int i = 0; i < bases.size(); i++) {
+                Future<Map<String, Double>> future = futures.get(i);
+                if (future.state() == Future.State.SUCCESS) {
+                    results.put(bases.get(i), future.resultNow());
+                } else if (future.exceptionNow() instanceof OverloadedException overloaded) {
+                    throw overloaded;
+                } else {
+                    logger.error("Batch lookup failed for base={}: {}", bases.get(i), future.exceptionNow().getMessage());
+                    results.put(bases.get(i), Map.of());
+                }
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+        return results;
+    }
+
+    /**
+     * Queries the APIs for the given symbols, averages the results and stores
+     * them in the cache. Symbols a previous flight cached in the meantime are
+     * served from the cache instead. With a shared cache, the fill lock makes
+     * other instances wait for these rates instead of fetching them too.
+     */
+    private RateVector fetchAndCache(String base, List<String> symbols) {
+        RateVector.Builder rates = RateVector.builder(symbols.size());
+        List<String> missing = readCached(base, symbols, rates);
+        if (missing.isEmpty()) {
+            return rates.build();
+        }
 
+        try (RateCache.FillLock fill = cache.lockFill(base, missing, deadline)) {
+            if (fill.contended()) {
+                missing = readCached(base, missing, rates);
+                if (missing.isEmpty()) {
+                    return rates.build();
+                }
+            }
+
+            int[] quotes = RateVector.indices(missing);
+            List<RateVector> results = fetchAll(base, missing, quotes, true);
+
+            if (results.isEmpty()) {
+                logger.warn("No results obtained from any API for base={}, symbols={}", base, missing);
+                return rates.build();
+            }
+
+            RateVector averaged = RateVector.average(results, quotes);
+            store(base, averaged);
+            return rates.putAll(averaged).build();
+        }
+    }
+
+    /**
+     * Fetches fresh rates from the APIs and replaces the cached values.
+     * Stored rate tables are bypassed, and the previous cached values keep being
+     * served until the new ones are stored. With a shared cache, symbols
+     * another instance is already fetching are skipped; its rates reach this
+     * instance through the shared cache.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Target currency codes to refresh (e.g., ["USD", "NZD"])
+     * @return true if at least one API answered
+     */
+    public boolean refresh(String base, List<String> symbols) {
+        try (RateCache.FillLock fill = cache.lockFill(base, symbols, Duration.ZERO)) {
+            if (!fill.acquired()) {
+                logger.debug("Skipping refresh of base={}, symbols={}: another instance is fetching them", base,
+                        symbols);
+                return false;
+            }
+
+            int[] quotes = RateVector.indices(symbols);
+            List<RateVector> results = fetchAll(base, symbols, quotes, false);
+            if (results.isEmpty()) {
+                logger.warn("Refresh obtained no results for base={}, symbols={}", base, symbols);
+                return false;
+            }
+            store(base, RateVector.average(results, quotes));
+            return true;
+        }
+    }
+
+    /**
+     * Copies the cached rates for the given symbols into {@code rates}.
+     * Symbols are upper-cased and deduplicated.
+     *
+     * @return The symbols that are not in the cache, except those no API
+     *         quoted when last asked
+     */
+    private List<String> readCached(String base, List<String> symbols, RateVector.Builder rates) {
+        List<String> missing = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            String quote = symbol.toUpperCase();
+            int currency = RateVector.index(quote);
+            double cached = currency < 0 ? Double.NaN : cache.getRate(base, quote);
+            if (!Double.isNaN(cached)) {
+                rates.put(currency, cached);
+            } else if (!missing.contains(quote) && !notQuotedByAny(base, quote)) {
+                missing.add(quote);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Returns whether every API recently answered for a base without quoting a
+     * currency, so asking again would only cost upstream calls.
+     */
+    private boolean notQuotedByAny(String base, String quote) {
+        if (apis.isEmpty()) {
+            return false;
+        }
+        for (ExchangeApiService api : apis) {
+            if (!cache.isNotQuoted(api.getName(), base, quote)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether an API recently answered for a base without quoting any
+     * of the symbols.
+     */
+    private boolean notQuotedByApi(ExchangeApiService api, String base, List<String> symbols) {
+        for (String symbol : symbols) {
+            if (!cache.isNotQuoted(api.getName(), base, symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remembers the requested symbols an API answered for without quoting.
+     */
+    private void markNotQuoted(ExchangeApiService api, String base, List<String> symbols, RateVector response) {
+        for (String symbol : symbols) {
+            int currency = RateVector.index(symbol);
+            if (currency < 0 || Double.isNaN(response.rateOf(currency))) {
+                cache.markNotQuoted(api.getName(), base, symbol);
+            }
+        }
+    }
+
+    /**
+     * Writes averaged rates to the cache, valid for as long as the rate tables
+     * they were averaged from.
+     */
+    private void store(String base, RateVector rates) {
+        Duration ttl = ttlFor(base);
+        for (int i = 0; i < rates.size(); i++) {
+            cache.put(base, rates.code(i), rates.rate(i), ttl);
+        }
+    }
+
+    /**
+     * Returns how long rates for a base stay current. If every API publishes
+     * on a schedule and has a valid dated table for the base, that is until
+     * the earliest end of those tables' validity, e.g. the next ECB
+     * publication; otherwise it is the configured cache TTL.
+     */
+    private Duration ttlFor(String base) {
+        Instant validUntil = null;
+        for (ExchangeApiService api : apis) {
+            Instant until = api.publishSchedule() != null ? snapshots.validUntil(api.getName(), base) : null;
+            if (until == null) {
+                return cacheTtl;
+            }
+            if (validUntil == null || until.isBefore(validUntil)) {
+                validUntil = until;
+            }
+        }
+        if (validUntil == null) {
+            return cacheTtl;
+        }
+        Duration ttl = Duration.between(Instant.now(), validUntil);
+        return ttl.isNegative() ? Duration.ZERO : ttl;
+    }
+
+    /**
+     * Queries the APIs according to the routing mode and waits at most the
+     * configured deadline. APIs that have not answered by then are cancelled
+     * and left out.
+     *
+     * @param base         Base currency code
+     * @param symbols      List of target currency codes
+     * @param quotes       Currency indices of the symbols
+     * @param useSnapshots Whether rates may be derived from stored rate tables
+     * @return Non-empty rate vectors from the APIs that answered in time
+     */
+    private List<RateVector> fetchAll(String base, List<String> symbols, int[] quotes, boolean useSnapshots) {
+        if (routingMode == ExchangeProperties.Routing.Mode.ADAPTIVE) {
+            return fetchAdaptive(base, symbols, quotes, useSnapshots);
+        }
+
+        List<Callable<RateVector>> calls = apis.stream()
+                .<Callable<RateVector>>map(api -> () -> fetch(api, base, symbols, quotes, useSnapshots))
+                .toList();
+
+        List<Future<RateVector>> futures;
+        try {
+            futures = executor.invokeAll(calls, deadline.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+
+        List<RateVector> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            Future<RateVector> future = futures.get(i);
+            if (future.state() == Future.State.SUCCESS) {
+                if (!future.resultNow().isEmpty()) {
+                    results.add(future.resultNow());
+                }
+            } else if (future.isCancelled()) {
+                logger.warn("{} did not respond within {} for base={}, symbols={}", apis.get(i).getName(),
+                        deadline, base, symbols);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Queries the APIs in order of their recent latency and health until a
+     * quorum of them has answered. The first {@code quorum} APIs are called
+     * right away; if one fails the next API is called at once, and if the
+     * latest call has not answered within that API's observed p95 a hedged
+     * request goes to the next API. Calls still running once the quorum is
+     * reached or the deadline passes are cancelled.
+     *
+     * @return Non-empty rate vectors from the first APIs to answer
+     */
+    private List<RateVector> fetchAdaptive(String base, List<String> symbols, int[] quotes,
+            boolean useSnapshots) {
+        List<ExchangeApiService> ranked = scoreboard.rank(apis);
+        int needed = Math.min(quorum, ranked.size());
+        CompletionService<RateVector> calls = new ExecutorCompletionService<>(executor);
+        List<Future<RateVector>> started = new ArrayList<>();
+        List<RateVector> results = new ArrayList<>();
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        long hedgeAtNanos = 0;
+        int next = 0;
+
+        try {
+            for (; next < needed; next++) {
+                hedgeAtNanos = start(calls, started, ranked.get(next), base, symbols, quotes, useSnapshots);
+            }
+            int pending = next;
+            while (results.size() < needed && pending > 0) {
+                long now = System.nanoTime();
+                if (now >= deadlineNanos) {
+                    logger.warn("Only {} of {} APIs answered within {} for base={}, symbols={}", results.size(),
+                            needed, deadline, base, symbols);
+                    break;
+                }
+                long waitUntil = next < ranked.size() ? Math.min(hedgeAtNanos, deadlineNanos) : deadlineNanos;
+                Future<RateVector> done = calls.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (next < ranked.size() && System.nanoTime() >= hedgeAtNanos) {
+                        hedgeAtNanos = start(calls, started, ranked.get(next++), base, symbols, quotes, useSnapshots);
+                        pending++;
+                    }
+                    continue;
+                }
+
+                pending--;
+                RateVector response = done.state() == Future.State.SUCCESS ? done.resultNow() : RateVector.empty();
                 if (!response.isEmpty()) {
-                    metrics.recordResponse(api.getName());
+                    results.add(response);
+                } else if (next < ranked.size()) {
+                    hedgeAtNanos = start(calls, started, ranked.get(next++), base, symbols, quotes, useSnapshots);
+                    pending++;
+                }
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        } finally {
+            started.forEach(call -> call.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Starts one API call for adaptive routing.
+     *
+     * @return When to hedge if the call has not answered yet, in
+     *         {@link System#nanoTime()} units
+     */
+    private long start(CompletionService<RateVector> calls, List<Future<RateVector>> started, ExchangeApiService api,
+            String base, List<String> symbols, int[] quotes, boolean useSnapshots) {
+        started.add(calls.submit(() -> fetch(api, base, symbols, quotes, useSnapshots)));
+        return System.nanoTime() + scoreboard.hedgeDelay(api.getName()).toNanos();
+    }
+
+    /**
+     * Gets rates from a single API. Rates are derived from the API's stored rate
+     * tables when allowed and possible; otherwise the API is called, preferring
+     * a full table for the base so later requests can be answered locally. An
+     * API that recently answered without quoting any of the symbols is not
+     * called, and symbols an answer leaves out, or a base it has no table for,
+     * are remembered as not quoted. Network calls go through the API's circuit
+     * breaker, so an API that keeps failing is not called at all until its
+     * circuit half-opens. Request/response metrics, failures, rejections and
+     * latency are recorded for the network calls.
+     *
+     * @return The API's rates in the order of {@code quotes}, or an empty
+     *         vector if the call failed or was rejected
+     */
+    private RateVector fetch(ExchangeApiService api, String base, List<String> symbols, int[] quotes,
+            boolean useSnapshots) {
+        RateVector derived = useSnapshots ? snapshots.derive(api.getName(), base, quotes) : null;
+        if (derived != null) {
+            return derived;
+        }
+        if (notQuotedByApi(api, base, symbols)) {
+            return RateVector.empty();
+        }
+
+        CircuitBreaker breaker = breakerFor(api.getName());
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (!permit.granted()) {
+            metrics.recordRejected(api.getName());
+            return RateVector.empty();
+        }
+
+        long start = System.nanoTime();
+        try {
+            metrics.recordRequest(api.getName());
+            // A call cut short by a hedge or the deadline did not answer
+            RateVector response = RateVector.empty();
+            if (api.supportsSnapshots()) {
+                RateSnapshot snapshot = api.getSnapshot(base);
+                if (snapshot != null) {
+                    snapshots.put(api.getName(), snapshot, api.publishSchedule());
+                    response = snapshot.select(quotes);
+                    markNotQuoted(api, base, symbols, response);
+                } else if (!Thread.currentThread().isInterrupted()) {
+                    cache.markNotQuoted(api.getName(), base);
+                }
+            } else {
+                response = api.getRateVector(base, symbols);
+                if (!Thread.currentThread().isInterrupted()) {
+                    markNotQuoted(api, base, symbols, response);
                 }
+            }
 
-                return response;
-            } catch (Exception error) {
-                logger.error("Error calling {}: {}", api.getName(), error.getMessage(), error);
-                return Map.<String, Double>of();
+            // An API that answered without quoting the symbols is still healthy
+            if (!response.isEmpty()) {
+                metrics.recordResponse(api.getName());
             }
-        }).filter(rates -> !rates.isEmpty()).toList();
 
-        if (results.isEmpty()) {
-            logger.warn("No results obtained from any API for base={}, symbols={}", base, symbols);
-            return Map.of();
+            finish(api, breaker, permit, start, true);
+            return response;
+        } catch (Exception error) {
+            metrics.recordFailure(api.getName());
+            finish(api, breaker, permit, start, false);
+            logger.warn("Error calling {}: {}", api.getName(), error.getMessage());
+            return RateVector.empty();
+        } finally {
+            metrics.recordLatency(api.getName(), System.nanoTime() - start);
         }
+    }
 
-        Map<String, Double> averaged = averageRates(results);
-        cache.put(key, averaged);
-        return averaged;
+    /**
+     * Feeds the outcome of a network call into the API's circuit breaker and
+     * the routing scoreboard. Calls interrupted by a hedge or the deadline
+     * count as neither success nor failure, only towards latency.
+     */
+    private void finish(ExchangeApiService api, CircuitBreaker breaker, CircuitBreaker.Permit permit, long start,
+            boolean success) {
+        long nanos = System.nanoTime() - start;
+        if (Thread.currentThread().isInterrupted()) {
+            breaker.onCancelled(permit);
+            scoreboard.recordCancelled(api.getName(), nanos);
+        } else {
+            if (success) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+            scoreboard.record(api.getName(), nanos, success);
+        }
+    }
+
+    private CircuitBreaker breakerFor(String api) {
+        CircuitBreaker breaker = breakers.get(api);
+        return breaker != null ? breaker : breakers.computeIfAbsent(api, _ -> new CircuitBreaker(breakerSettings));
     }
 
     /**
-     * Averages exchange rates from multiple API responses.
-     * 
+     * Averages exchange rates from multiple API responses given as maps, e.g.
+     * daily historical rates. Live rates are averaged as vectors with
+     * {@link RateVector#average(List, int[])}.
+     * Each symbol is averaged over the responses that contain it.
+     *
      * @param results List of rate maps from different APIs
      * @return Map of currency codes to averaged exchange rates
      */
-    private Map<String, Double> averageRates(List<Map<String, Double>> results) {
-        Map<String, Double> average = new HashMap<>();
-        for (String symbol : results.get(0).keySet()) {
-            double sum = results.stream().mapToDouble(result -> result.get(symbol)).sum();
-            average.put(symbol, sum / results.size());
+    static Map<String, Double> averageRates(List<Map<String, Double>> results) {
+        Map<String, Double> sums = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map<String, Double> result : results) {
+            result.forEach((symbol, rate) -> {
+                sums.merge(symbol, rate, Double::sum);
+                counts.merge(symbol, 1, Integer::sum);
+            });
         }
+
+        Map<String, Double> average = new HashMap<>();
+        sums.forEach((symbol, sum) -> average.put(symbol, sum / counts.get(symbol)));
         return average;
     }
+
+    /**
+     * Result of a rate lookup.
+     *
+     * @param rates Map of currency codes to their exchange rates, a
+     *              {@link RateVector} when built by this service
+     * @param stale Ages of the rates that are last known rates rather than
+     *              fresh or cached ones
+     */
+    public record RateLookup(Map<String, Double> rates, Map<String, Duration> stale) {
+    }
+
+    /**
+     * Stops the virtual thread executor when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 }
@@ -1,38 +1,42 @@
 package com.tess.exchangerateapp.services;
 
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.*;
-import com.fasterxml.jackson.annotation.JsonAnySetter;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * Service implementation for fetching exchange rates from the Fawaz API.
  * Primary: cdn.jsdelivr.net
  * Fallback: currency-api.pages.dev
+ *
+ * Responses are read with {@link FawazTableParser} straight from the response
+ * stream, without mapping the payload to objects first. Full tables are
+ * fetched conditionally, so an unchanged table costs a 304 without a payload.
+ * Tables are published daily at midnight UTC.
  */
 @Service
 public class FawazApiService implements ExchangeApiService {
     private static final Logger logger = LoggerFactory.getLogger(FawazApiService.class);
-    private final RestTemplate restTemplate = new RestTemplate();
-    private static final String PRIMARY_URL = "https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@latest/v1/currencies/%s.json";
-    private static final String FALLBACK_URL = "https://currency-api.pages.dev/v1/currencies/%s.json";
+    static final String PRIMARY_URL = "https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@latest/v1/currencies/%s.json";
+    static final String FALLBACK_URL = "https://currency-api.pages.dev/v1/currencies/%s.json";
+    static final String PRIMARY_CURRENCIES_URL = "https://cdn.jsdelivr.net/npm/@fawazahmed0/currency-api@latest/v1/currencies.json";
+    static final String FALLBACK_CURRENCIES_URL = "https://currency-api.pages.dev/v1/currencies.json";
+    private static final TypeReference<Map<String, String>> CURRENCY_NAMES = new TypeReference<>() {
+    };
+    private final MetricsService metrics;
+    private final UpstreamHttpClient client;
 
     /**
-     * Data transfer object that matches the Fawaz API response structure.
-     * Example response: {"date": "2025-06-14", "eur": {"usd": 1.15493719, "nzd":
-     * 1.92122917}}
-     * 
-     * @param date  The date of the exchange rates
-     * @param rates Map where the key is the base currency (e.g., "eur") and the
-     *              value is a map of currency pairs to rates
+     * @param metrics Service for recording fallback usage
+     * @param client  Shared HTTP client for upstream calls
      */
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private record FawazResponse(String date, @JsonAnySetter Map<String, Map<String, Double>> rates) {
+    public FawazApiService(MetricsService metrics, UpstreamHttpClient client) {
+        this.metrics = metrics;
+        this.client = client;
     }
 
     @Override
@@ -40,69 +44,113 @@ public class FawazApiService implements ExchangeApiService {
         return "fawazApi";
     }
 
+    @Override
+    public boolean supportsSnapshots() {
+        return true;
+    }
+
+    @Override
+    public PublishSchedule publishSchedule() {
+        return PublishSchedule.DAILY_UTC;
+    }
+
     /**
      * Fetches exchange rates for the specified base currency and target symbols.
-     * Attempts to fetch from primary URL first, falls back to alternative URL if
-     * primary fails.
+     * Downloads the table for the base and keeps only the requested symbols
+     * while reading it.
      * 
      * @param base    The base currency code (e.g., "EUR")
      * @param symbols List of target currency codes to get rates for (e.g., ["USD",
      *                "NZD"])
      * @return Map of currency codes to their exchange rates relative to the base
-     *         currency
+     *         currency; empty if Fawaz does not quote the base
+     * @throws UpstreamException If both URLs failed for another reason
      */
     @Override
     public Map<String, Double> getRates(String base, List<String> symbols) {
-        Map<String, Double> rates = new HashMap<>();
-        String baseLower = base.toLowerCase();
+        int[] quotes = RateVector.indices(symbols);
+        RateVector rates = fetch(base, url -> client.get(url, body -> FawazTableParser.parseRates(body, base, quotes)));
+        return rates != null ? rates : new HashMap<>();
+    }
 
-        // Try primary URL first
-        try {
-            rates = fetchRates(String.format(PRIMARY_URL, baseLower), base, symbols);
-            if (!rates.isEmpty()) {
-                return rates;
+    /**
+     * Fetches the codes of the currencies Fawaz quotes, including crypto
+     * currencies and metals. Falls back to the alternative URL if the primary
+     * fails.
+     * Example response: {"1inch": "1inch Network", "aave": "Aave", ...,
+     * "eur": "Euro", ...}
+     *
+     * @return The lower-case currency codes, or null if both URLs failed
+     */
+    @Override
+    public Set<String> getCurrencies() {
+        for (String url : List.of(PRIMARY_CURRENCIES_URL, FALLBACK_CURRENCIES_URL)) {
+            try {
+                Map<String, String> currencies = UpstreamHttpClient.await(client.getJson(url, CURRENCY_NAMES));
+                if (currencies != null) {
+                    return currencies.keySet();
+                }
+            } catch (Exception error) {
+                logger.warn("Fawaz API failed to list currencies from {}: {}", url, error.getMessage());
             }
-        } catch (Exception error) {
-            logger.warn("Primary Fawaz API failed, trying fallback URL. Error: {}", error.getMessage());
         }
-
-        // Try fallback URL if primary failed or returned no rates
-        try {
-            rates = fetchRates(String.format(FALLBACK_URL, baseLower), base, symbols);
-        } catch (Exception error) {
-            logger.error("Both primary and fallback Fawaz API failed for base={}, symbols={}: {}", base, symbols,
-                    error.getMessage(), error);
-        }
-
-        return rates;
+        return null;
     }
 
     /**
-     * Helper method to fetch rates from a specific URL.
+     * Fetches the full rate table for the specified base currency.
+     * Attempts to fetch from primary URL first, falls back to alternative URL if
+     * primary fails. If the table is unchanged since the last download, the
+     * stored table is returned with a new fetch time.
      * 
-     * @param url     The URL to fetch rates from
-     * @param base    The base currency code
-     * @param symbols List of target currency codes
-     * @return Map of currency codes to their exchange rates
+     * @param base The base currency code (e.g., "EUR")
+     * @return The full rate table, or null if Fawaz does not quote the base
+     * @throws UpstreamException If both URLs failed for another reason
      */
-    private Map<String, Double> fetchRates(String url, String base, List<String> symbols) {
-        Map<String, Double> rates = new HashMap<>();
-
-        FawazResponse response = restTemplate.exchange(url,
-                HttpMethod.GET, null, new ParameterizedTypeReference<FawazResponse>() {
-                }).getBody();
+    @Override
+    public RateSnapshot getSnapshot(String base) {
+        return fetch(base, url -> client.getConditional(url, body -> FawazTableParser.parseSnapshot(body, base),
+                RateSnapshot::revalidated));
+    }
 
-        if (response != null && response.rates().containsKey(base.toLowerCase())) {
-            Map<String, Double> baseRates = response.rates().get(base.toLowerCase());
+    /**
+     * Fetches the table for the specified base currency with the given request.
+     * Attempts to fetch from primary URL first, falls back to alternative URL if
+     * primary fails or has no rates for the base. If either URL answered that
+     * it has no table for the base, the base is not quoted.
+     *
+     * @param base    The base currency code (e.g., "EUR")
+     * @param request Starts the upstream call for a URL; its result is null if
+     *                the body has no rates for the base
+     * @return The parsed rates, or null if Fawaz does not quote the base
+     * @throws UpstreamException If both URLs failed for another reason
+     */
+    private <T> T fetch(String base, Function<String, CompletableFuture<T>> request) {
+        String baseLower = base.toLowerCase();
+        boolean primaryAnswered = true;
 
-            for (String symbol : symbols) {
-                Double rate = baseRates.get(symbol.toLowerCase());
-                if (rate != null) {
-                    rates.put(symbol.toUpperCase(), rate);
-                }
+        // Try primary URL first
+        try {
+            T rates = UpstreamHttpClient.await(request.apply(String.format(PRIMARY_URL, baseLower)));
+            if (rates != null) {
+                return rates;
             }
+        } catch (UpstreamException error) {
+            primaryAnswered = error.isClientError();
+            logger.warn("Primary Fawaz API failed, trying fallback URL. Error: {}", error.getMessage());
         }
 
-        return rates;
+        // Try fallback URL if primary failed or returned no rates
+        metrics.recordFallback(getName());
+        try {
+            return UpstreamHttpClient.await(request.apply(String.format(FALLBACK_URL, baseLower)));
+        } catch (UpstreamException error) {
+            if (primaryAnswered || error.isClientError()) {
+                logger.debug("Fawaz API does not quote base={}: {}", base, error.getMessage());
+                return null;
+            }
+            logger.warn("Both primary and fallback Fawaz API failed for base={}: {}", base, error.getMessage());
+            throw error;
+        }
     }
 }
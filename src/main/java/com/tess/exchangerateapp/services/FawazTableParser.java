@@ -0,0 +1,145 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for Fawaz API rate tables.
+ * Example payload: {"date": "2025-06-14", "eur": {"usd": 1.15493719, "nzd":
+ * 1.92122917, ...}}
+ *
+ * The payload is read token by token straight from the response stream. Rates
+ * of the base table go into primitive arrays as they are read, every other
+ * field is skipped without being materialized, and no intermediate map or
+ * boxed rate is built. Currency names are canonicalized by the parser's symbol
+ * table and looked up in {@link CurrencyIndex} by their published lower-case
+ * spelling, and rates are read with Jackson's fast double parser, so a table
+ * of a few hundred currencies is parsed without a string allocation per
+ * currency or rate.
+ */
+public final class FawazTableParser {
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+            .build();
+
+    private FawazTableParser() {
+    }
+
+    /**
+     * Reads the full rate table for a base currency.
+     *
+     * @param body Response body
+     * @param base The base currency code (e.g., "EUR")
+     * @return The rate table, or null if the payload has no rates for the base
+     * @throws IOException If the body cannot be read or is not a JSON object
+     */
+    public static RateSnapshot parseSnapshot(InputStream body, String base) throws IOException {
+        RateSnapshot.Builder snapshot = RateSnapshot.builder(base);
+        boolean found = readTable(body, base, snapshot::date, (currency, rate) -> {
+            snapshot.put(currency, rate);
+            return true;
+        });
+        return found ? snapshot.build() : null;
+    }
+
+    /**
+     * Reads only the rates for the requested currencies. Currencies that are
+     * not requested are skipped, and once every requested rate was found the
+     * rest of the body is drained without being tokenized.
+     *
+     * @param body   Response body
+     * @param base   The base currency code (e.g., "EUR")
+     * @param quotes Currency indices of the requested symbols
+     * @return The quoted currencies and their rates in the order of
+     *         {@code quotes}, or null if the payload has no rates for the base
+     * @throws IOException If the body cannot be read or is not a JSON object
+     */
+    public static RateVector parseRates(InputStream body, String base, int[] quotes) throws IOException {
+        double[] rates = new double[quotes.length];
+        Arrays.fill(rates, Double.NaN);
+        int[] remaining = { quotes.length };
+        boolean found = readTable(body, base, _ -> { }, (currency, rate) -> {
+            for (int i = 0; i < quotes.length; i++) {
+                if (quotes[i] == currency && Double.isNaN(rates[i])) {
+                    rates[i] = rate;
+                    remaining[0]--;
+                }
+            }
+            return remaining[0] > 0;
+        });
+        if (!found) {
+            return null;
+        }
+
+        RateVector.Builder selected = RateVector.builder(quotes.length);
+        for (int i = 0; i < quotes.length; i++) {
+            selected.put(quotes[i], rates[i]);
+        }
+        return selected.build();
+    }
+
+    /**
+     * Finds the table of the base currency and passes each numeric rate in it
+     * to the visitor. A top-level "date" field read before the table is passed
+     * to {@code date}; non-numeric rates and all other fields are skipped.
+     *
+     * @return Whether the payload has a table for the base
+     */
+    private static boolean readTable(InputStream body, String base, Consumer<LocalDate> date, RateVisitor visitor)
+            throws IOException {
+        String key = base.toLowerCase();
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                if (parser.nextToken() == JsonToken.VALUE_STRING && name.equals("date")) {
+                    try {
+                        date.accept(LocalDate.parse(parser.getText()));
+                    } catch (DateTimeParseException error) {
+                        // An unreadable date only costs the date-aware expiry
+                    }
+                    continue;
+                }
+                if (parser.currentToken() != JsonToken.START_OBJECT || !name.equals(key)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String code = parser.currentName();
+                    if (!parser.nextToken().isNumeric()) {
+                        parser.skipChildren();
+                    } else if (!visitor.visit(CurrencyIndex.of(code), parser.getDoubleValue())) {
+                        // Drain the raw bytes so the connection can be reused
+                        body.transferTo(OutputStream.nullOutputStream());
+                        break;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Receives the rates of a table as they are read.
+     */
+    @FunctionalInterface
+    private interface RateVisitor {
+        /**
+         * @return Whether to keep reading the table
+         */
+        boolean visit(int currency, double rate);
+    }
+}
@@ -1,23 +1,27 @@
 package com.tess.exchangerateapp.services;
 
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.time.LocalDate;
 import java.util.*;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
 
 /**
  * Service implementation for fetching exchange rates from the Frankfurter API.
  * Uses the free API at api.frankfurter.app to fetch exchange rates.
+ * Frankfurter serves the ECB reference rates, published on business days
+ * around 16:00 Frankfurt time; full tables are fetched conditionally.
  */
 @Service
 public class FrankfurterApiService implements ExchangeApiService {
     private static final Logger logger = LoggerFactory.getLogger(FrankfurterApiService.class);
-    private final RestTemplate restTemplate = new RestTemplate();
     private static final String API_URL = "https://api.frankfurter.app/latest?from=%s&to=%s";
+    static final String TABLE_URL = "https://api.frankfurter.app/latest?from=%s";
+    private static final String CURRENCIES_URL = "https://api.frankfurter.app/currencies";
+    private static final String HISTORY_URL = "https://api.frankfurter.app/%s..%s?from=%s";
+    private final UpstreamHttpClient client;
 
     /**
      * Data transfer object that matches the Frankfurter API response structure.
@@ -32,7 +36,26 @@ public class FrankfurterApiService implements ExchangeApiService {
      * @param rates  Map of currency codes to their exchange rates
      */
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private record FrankfurterResponse(double amount, String base, String date, Map<String, Double> rates) {
+    record FrankfurterResponse(double amount, String base, String date, Map<String, Double> rates) {
+    }
+
+    /**
+     * Data transfer object that matches the Frankfurter time series response.
+     * 
+     * Example response:
+     * {"base": "EUR", "start_date": "2025-06-02", "end_date": "2025-06-03",
+     * "rates": {"2025-06-02": {"USD": 1.1443}, "2025-06-03": {"USD": 1.1406}}}
+     * 
+     * @param base  The base currency code
+     * @param rates Map of dates to currency codes and their exchange rates
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record FrankfurterSeriesResponse(String base, Map<String, Map<String, Double>> rates) {
+    }
+
+    /** @param client Shared HTTP client for upstream calls */
+    public FrankfurterApiService(UpstreamHttpClient client) {
+        this.client = client;
     }
 
     @Override
@@ -40,6 +63,21 @@ public class FrankfurterApiService implements ExchangeApiService {
         return "frankfurterApi";
     }
 
+    @Override
+    public boolean supportsSnapshots() {
+        return true;
+    }
+
+    @Override
+    public PublishSchedule publishSchedule() {
+        return PublishSchedule.ECB;
+    }
+
+    @Override
+    public boolean supportsHistory() {
+        return true;
+    }
+
     /**
      * Fetches exchange rates for the specified base currency and target symbols.
      * 
@@ -47,7 +85,9 @@ public class FrankfurterApiService implements ExchangeApiService {
      * @param symbols List of target currency codes to get rates for (e.g., ["USD",
      *                "NZD"])
      * @return Map of currency codes to their exchange rates relative to the base
-     *         currency
+     *         currency; empty if Frankfurter does not quote the base or symbols
+     * @throws UpstreamException If the call failed for another reason than an
+     *                           unsupported currency
      */
     @Override
     public Map<String, Double> getRates(String base, List<String> symbols) {
@@ -55,18 +95,113 @@ public class FrankfurterApiService implements ExchangeApiService {
         String url = String.format(API_URL, base.toUpperCase(), joinedSymbols);
 
         try {
-            FrankfurterResponse response = restTemplate
-                    .exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<FrankfurterResponse>() {
-                    }).getBody();
+            FrankfurterResponse response = UpstreamHttpClient.await(
+                    client.getJson(url, new TypeReference<FrankfurterResponse>() {
+                    }));
 
             if (response != null && response.rates() != null) {
                 return response.rates();
             }
-        } catch (Exception error) {
-            logger.error("Frankfurter API failed for base={}, symbols={}: {}", base, symbols, error.getMessage(),
-                    error);
+        } catch (UpstreamException error) {
+            if (!error.isClientError()) {
+                throw error;
+            }
+            logger.debug("Frankfurter API does not quote base={}, symbols={}: {}", base, symbols,
+                    error.getMessage());
         }
 
         return new HashMap<>();
     }
+
+    /**
+     * Fetches the codes of the currencies Frankfurter quotes.
+     * Example response: {"AUD": "Australian Dollar", "BGN": "Bulgarian Lev", ...}
+     *
+     * @return The currency codes, or null if the request failed
+     */
+    @Override
+    public Set<String> getCurrencies() {
+        try {
+            Map<String, String> currencies = UpstreamHttpClient.await(
+                    client.getJson(CURRENCIES_URL, new TypeReference<Map<String, String>>() {
+                    }));
+            return currencies != null ? currencies.keySet() : null;
+        } catch (UpstreamException error) {
+            logger.warn("Frankfurter API failed to list currencies: {}", error.getMessage());
+        } catch (Exception error) {
+            logger.error("Frankfurter API failed to list currencies: {}", error.getMessage(), error);
+        }
+        return null;
+    }
+
+    /**
+     * Fetches every rate Frankfurter publishes for the specified base currency.
+     * If the table is unchanged since the last download, the earlier response
+     * is reused without parsing.
+     * 
+     * @param base The base currency code (e.g., "EUR")
+     * @return The full rate table, or null if Frankfurter does not quote the base
+     * @throws UpstreamException If the call failed for another reason than an
+     *                           unsupported base
+     */
+    @Override
+    public RateSnapshot getSnapshot(String base) {
+        String url = String.format(TABLE_URL, base.toUpperCase());
+
+        try {
+            FrankfurterResponse response = UpstreamHttpClient.await(
+                    client.getJsonConditional(url, new TypeReference<FrankfurterResponse>() {
+                    }));
+
+            if (response != null && response.rates() != null) {
+                RateSnapshot.Builder snapshot = RateSnapshot.builder(base);
+                response.rates().forEach(snapshot::put);
+                if (response.date() != null) {
+                    snapshot.date(LocalDate.parse(response.date()));
+                }
+                return snapshot.build();
+            }
+        } catch (UpstreamException error) {
+            if (!error.isClientError()) {
+                throw error;
+            }
+            logger.debug("Frankfurter API does not quote base={}: {}", base, error.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Fetches the daily rates Frankfurter published for the specified base
+     * currency over a date range.
+     * 
+     * @param base The base currency code (e.g., "EUR")
+     * @param from First date of the range (inclusive)
+     * @param to   Last date of the range (inclusive)
+     * @return Map of dates to their rate tables, or null if the request failed
+     */
+    @Override
+    public Map<LocalDate, Map<String, Double>> getHistory(String base, LocalDate from, LocalDate to) {
+        String url = String.format(HISTORY_URL, from, to, base.toUpperCase());
+
+        try {
+            FrankfurterSeriesResponse response = UpstreamHttpClient.await(
+                    client.getJson(url, new TypeReference<FrankfurterSeriesResponse>() {
+                    }));
+
+            if (response != null && response.rates() != null) {
+                Map<LocalDate, Map<String, Double>> history = new TreeMap<>();
+                response.rates().forEach((date, rates) -> history.put(LocalDate.parse(date), rates));
+                return history;
+            }
+        } catch (UpstreamException error) {
+            logger.warn("Frankfurter API failed for base={}, from={}, to={}: {}", base, from, to,
+                    error.getMessage());
+        } catch (Exception error) {
+            logger.error("Frankfurter API failed for base={}, from={}, to={}: {}", base, from, to,
+                    error.getMessage(), error);
+        }
+
+        return null;
+    }
 }
@@ -0,0 +1,223 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves historical daily exchange rates from the {@link RateArchive}.
+ * Dates missing from the archive are fetched once from every API that
+ * publishes history, averaged like live rates and appended, so repeated range
+ * queries are answered from disk without network I/O.
+ */
+@Service
+public class HistoryService {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryService.class);
+    private final List<ExchangeApiService> apis;
+    private final RateArchive archive;
+    private final MetricsService metrics;
+    private final Map<String, ReentrantLock> fillLocks = new ConcurrentHashMap<>();
+    private final int fetchChunkDays;
+    private final Clock clock;
+
+    /**
+     * @param apis       List of exchange rate API implementations
+     * @param archive    On-disk archive of daily rates
+     * @param metrics    Service for recording API usage metrics
+     * @param properties Exchange settings (history fetch chunk size)
+     */
+    @Autowired
+    public HistoryService(List<ExchangeApiService> apis, RateArchive archive, MetricsService metrics,
+            ExchangeProperties properties) {
+        this(apis, archive, metrics, properties, Clock.systemUTC());
+    }
+
+    HistoryService(List<ExchangeApiService> apis, RateArchive archive, MetricsService metrics,
+            ExchangeProperties properties, Clock clock) {
+        this.apis = apis.stream().filter(ExchangeApiService::supportsHistory).toList();
+        this.archive = archive;
+        this.metrics = metrics;
+        this.fetchChunkDays = Math.max(1, properties.getHistory().getFetchChunkDays());
+        this.clock = clock;
+    }
+
+    /**
+     * Makes sure every completed day in a range is archived for a base,
+     * fetching the missing days from the APIs. Today is left out because its
+     * rates may still change.
+     *
+     * @param base Base currency code (e.g., "EUR")
+     * @param from First date (inclusive)
+     * @param to   Last date (inclusive)
+     * @throws RuntimeException If days are missing and no API could provide them
+     */
+    public void prepare(String base, LocalDate from, LocalDate to) {
+        LocalDate last = lastCompletedDay(to);
+        if (from.isAfter(last)) {
+            return;
+        }
+
+        ReentrantLock lock = fillLocks.computeIfAbsent(base, _ -> new ReentrantLock());
+        lock.lock();
+        try {
+            for (LocalDate[] range : archive.missingRanges(base, from, last)) {
+                for (LocalDate start = range[0]; !start.isAfter(range[1]); start = start.plusDays(fetchChunkDays)) {
+                    LocalDate end = start.plusDays(fetchChunkDays - 1);
+                    fill(base, start, end.isAfter(range[1]) ? range[1] : end);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes archived rates for a base as newline-delimited JSON, one line per
+     * date in date order. Dates without any of the requested rates are skipped.
+     *
+     * Example line: {"date":"2025-06-02","rates":{"USD":1.1443,"NZD":1.8959}}
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
+     * @param from    First date (inclusive)
+     * @param to      Last date (inclusive)
+     * @param out     Destination, typically the HTTP response body
+     * @return Number of lines written
+     */
+    public long writeNdjson(String base, List<String> symbols, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        DayWriter days = new DayWriter(writer, symbols);
+        try {
+            archive.scan(base, from, to, symbols, days);
+        } catch (UncheckedIOException error) {
+            throw error.getCause();
+        }
+        days.flushDay();
+        writer.flush();
+        return days.lines;
+    }
+
+    private void fill(String base, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<Map<String, Double>>> responses = new HashMap<>();
+        boolean answered = false;
+        for (ExchangeApiService api : apis) {
+            Map<LocalDate, Map<String, Double>> history = fetch(api, base, from, to);
+            if (history == null) {
+                continue;
+            }
+            answered = true;
+            history.forEach((date, rates) -> responses.computeIfAbsent(date, _ -> new ArrayList<>()).add(rates));
+        }
+        if (!answered) {
+            throw new RuntimeException("No historical rates available for " + base + " from " + from + " to " + to);
+        }
+
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            List<Map<String, Double>> rates = responses.get(date);
+            archive.append(base, date, rates == null ? Map.of() : ExchangeService.averageRates(rates));
+        }
+        logger.info("Archived {} rates from {} to {}", base, from, to);
+    }
+
+    private Map<LocalDate, Map<String, Double>> fetch(ExchangeApiService api, String base, LocalDate from,
+            LocalDate to) {
+        String name = api.getName();
+        metrics.recordRequest(name);
+        long start = System.nanoTime();
+        try {
+            Map<LocalDate, Map<String, Double>> history = api.getHistory(base, from, to);
+            if (history == null) {
+                metrics.recordFailure(name);
+                return null;
+            }
+            metrics.recordResponse(name);
+            return history;
+        } catch (Exception error) {
+            logger.warn("API {} failed to return history: {}", name, error.getMessage());
+            metrics.recordFailure(name);
+            return null;
+        } finally {
+            metrics.recordLatency(name, System.nanoTime() - start);
+        }
+    }
+
+    private LocalDate lastCompletedDay(LocalDate to) {
+        LocalDate yesterday = LocalDate.now(clock).minusDays(1);
+        return to.isAfter(yesterday) ? yesterday : to;
+    }
+
+    /**
+     * Collects the scanned rates of one day and writes them as a JSON line when
+     * the scan moves on to the next day.
+     */
+    private static final class DayWriter implements RateArchive.RecordVisitor {
+        private final Writer writer;
+        private final List<String> symbols;
+        private final double[] rates;
+        private int day = Integer.MIN_VALUE;
+        private long lines;
+
+        DayWriter(Writer writer, List<String> symbols) {
+            this.writer = writer;
+            this.symbols = symbols;
+            this.rates = new double[symbols.size()];
+            Arrays.fill(rates, Double.NaN);
+        }
+
+        @Override
+        public void visit(int epochDay, int quoteIndex, double rate) {
+            if (epochDay != day) {
+                flushDay();
+                day = epochDay;
+            }
+            rates[quoteIndex] = rate;
+        }
+
+        void flushDay() {
+            if (day == Integer.MIN_VALUE) {
+                return;
+            }
+            try {
+                boolean first = true;
+                for (int i = 0; i < rates.length; i++) {
+                    if (Double.isNaN(rates[i])) {
+                        continue;
+                    }
+                    writer.write(first ? "{\"date\":\"" + LocalDate.ofEpochDay(day) + "\",\"rates\":{" : ",");
+                    writer.write('"');
+                    writer.write(symbols.get(i));
+                    writer.write("\":");
+                    writer.write(Double.toString(rates[i]));
+                    first = false;
+                }
+                if (!first) {
+                    writer.write("}}\n");
+                    lines++;
+                }
+            } catch (IOException error) {
+                throw new UncheckedIOException(error);
+            }
+            Arrays.fill(rates, Double.NaN);
+            day = Integer.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for a shared second-level rate cache, holding the shared
+ * state in this process. Instances created in one JVM (e.g. several
+ * {@link ExchangeService}s in a test) share rates, versions, fill locks and
+ * update notifications exactly as separate processes would through a real
+ * backend. Enabled with exchange.cache.shared-enabled=true.
+ */
+@Component
+@ConditionalOnProperty(prefix = "exchange.cache", name = "shared-enabled", havingValue = "true")
+public class InMemorySharedRateCache implements SharedRateCache {
+    private final Cache<RateCache.CurrencyPair, SharedRate> rates;
+    private final Map<String, Long> locks = new ConcurrentHashMap<>();
+    private final List<UpdateListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /** @param properties Exchange settings (cache maximum size) */
+    public InMemorySharedRateCache(ExchangeProperties properties) {
+        this.rates = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .build();
+    }
+
+    @Override
+    public SharedRate get(String base, String quote) {
+        return rates.getIfPresent(new RateCache.CurrencyPair(base, quote));
+    }
+
+    @Override
+    public long put(String base, String quote, double rate, long writtenAtMillis, long expiresAtMillis) {
+        SharedRate shared = new SharedRate(rate, writtenAtMillis, expiresAtMillis, versions.incrementAndGet());
+        rates.asMap().merge(new RateCache.CurrencyPair(base, quote), shared,
+                (previous, next) -> previous.version() > next.version() ? previous : next);
+        for (UpdateListener listener : listeners) {
+            listener.updated(base, quote, shared);
+        }
+        return shared.version();
+    }
+
+    @Override
+    public boolean tryLock(String key, Duration lease) {
+        long now = System.nanoTime();
+        long expiresAt = now + lease.toNanos();
+        boolean[] taken = { false };
+        locks.compute(key, (_, held) -> {
+            if (held != null && held - now > 0) {
+                return held;
+            }
+            taken[0] = true;
+            return expiresAt;
+        });
+        return taken[0];
+    }
+
+    @Override
+    public void unlock(String key) {
+        locks.remove(key);
+    }
+
+    @Override
+    public void subscribe(UpdateListener listener) {
+        listeners.add(listener);
+    }
+}
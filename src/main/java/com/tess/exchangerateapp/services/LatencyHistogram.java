@@ -0,0 +1,119 @@
+package com.tess.exchangerateapp.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, fixed-memory latency histogram with log-linear buckets, in the
+ * style of HdrHistogram. Values are recorded in microseconds; each power of two
+ * is split into 16 linear sub-buckets, so percentiles are accurate to about 6%.
+ * Values up to 2^36 microseconds (about 19 hours) are tracked, larger ones are
+ * clamped into the top bucket.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 36;
+    private static final long MAX_MICROS = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKETS = bucketIndex(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Records one latency sample.
+     *
+     * @param nanos Duration in nanoseconds; negative values are treated as zero
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_MICROS);
+        counts.incrementAndGet(bucketIndex(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    /** Returns the number of recorded samples */
+    public long count() {
+        return count.sum();
+    }
+
+    /** Returns the sum of all recorded samples in microseconds */
+    public long sumMicros() {
+        return sum.sum();
+    }
+
+    /** Returns the largest recorded sample in microseconds */
+    public long maxMicros() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value at a percentile, as the upper bound of its bucket.
+     *
+     * @param percentile Percentile between 0 and 100 (e.g., 99.0)
+     * @return The value in microseconds, or 0 if nothing was recorded
+     */
+    public long percentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), maxMicros());
+            }
+        }
+        return maxMicros();
+    }
+
+    /**
+     * Counts the samples at or below each bound, for cumulative bucket formats
+     * such as Prometheus histograms. A bucket is counted against a bound once
+     * its whole range is at or below it.
+     *
+     * @param boundsMicros Ascending inclusive upper bounds in microseconds
+     * @param counts       Receives the cumulative count for each bound
+     */
+    public void cumulativeCounts(long[] boundsMicros, long[] counts) {
+        long seen = 0;
+        int bucket = 0;
+        for (int i = 0; i < boundsMicros.length; i++) {
+            while (bucket < BUCKETS && upperBound(bucket) <= boundsMicros[i]) {
+                seen += this.counts.get(bucket++);
+            }
+            counts[i] = seen;
+        }
+    }
+
+    private static int bucketIndex(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+    }
+
+    private static long upperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -1,27 +1,44 @@
 package com.tess.exchangerateapp.services;
 
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.LinkedHashMap;
 import java.util.List;
 
 /**
- * Tracks API usage metrics including request counts, response counts, and total
- * successful queries.
+ * Tracks API usage metrics including request counts, response counts, failures,
+ * fallbacks, calls rejected by a circuit breaker, upstream latency, cache
+ * hits/misses, the adaptive limit on cache-miss lookups with its rejections,
+ * and total successful queries.
+ * Counters are striped {@link LongAdder}s and latencies go into lock-free
+ * {@link LatencyHistogram}s, so recording never blocks request threads.
  */
 @Service
 public class MetricsService {
+    /** Latency histogram bucket bounds exposed to Prometheus, in seconds */
+    private static final String[] LATENCY_BUCKET_LABELS = { "0.005", "0.01", "0.025", "0.05", "0.1", "0.25",
+            "0.5", "1", "2.5", "5", "10" };
+    private static final long[] LATENCY_BUCKET_MICROS = { 5_000, 10_000, 25_000, 50_000, 100_000, 250_000,
+            500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000 };
+
     private final Map<String, ApiStats> stats = new ConcurrentHashMap<>();
-    private final AtomicInteger totalQueries = new AtomicInteger();
+    private final LongAdder totalQueries = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder missRejected = new LongAdder();
+    private final LongAdder missServedStale = new LongAdder();
+    private volatile ConcurrencyLimiter missLimiter;
 
     /**
      * Records an API request attempt.
      * Creates new stats entry if API hasn't been called before.
      */
     public void recordRequest(String api) {
-        stats.computeIfAbsent(api, _ -> new ApiStats()).totalRequests++;
+        statsFor(api).totalRequests.increment();
     }
 
     /**
@@ -29,30 +46,135 @@ public class MetricsService {
      * Increments both API-specific and total response counters.
      */
     public void recordResponse(String api) {
-        stats.get(api).totalResponses++;
-        totalQueries.incrementAndGet();
+        statsFor(api).totalResponses.increment();
+        totalQueries.increment();
+    }
+
+    /**
+     * Records a failed API call (a transport or server error).
+     */
+    public void recordFailure(String api) {
+        statsFor(api).failures.increment();
+    }
+
+    /**
+     * Records that an API had to use its fallback endpoint.
+     */
+    public void recordFallback(String api) {
+        statsFor(api).fallbacks.increment();
+    }
+
+    /**
+     * Records a call that was not made because the API's circuit breaker was
+     * open or its bulkhead was full.
+     */
+    public void recordRejected(String api) {
+        statsFor(api).rejected.increment();
+    }
+
+    /**
+     * Records how long an upstream call to an API took.
+     *
+     * @param nanos Call duration in nanoseconds
+     */
+    public void recordLatency(String api, long nanos) {
+        statsFor(api).latency.record(nanos);
+    }
+
+    /**
+     * Records currency pairs served from the cache.
+     */
+    public void recordCacheHits(long pairs) {
+        cacheHits.add(pairs);
+    }
+
+    /**
+     * Records currency pairs that were not in the cache and had to be fetched.
+     */
+    public void recordCacheMisses(long pairs) {
+        cacheMisses.add(pairs);
+    }
+
+    /**
+     * Registers the limiter on cache-miss lookups, whose current limit and
+     * in-flight count are reported with the metrics. If a limiter is already
+     * registered, e.g. by the blocking service when the reactive one starts,
+     * it is kept, so both stacks share one limit.
+     *
+     * @param limiter The limiter, or null if misses are not limited
+     * @return The registered limiter to use, or null if misses are not limited
+     */
+    public synchronized ConcurrencyLimiter registerMissLimiter(ConcurrencyLimiter limiter) {
+        if (missLimiter == null) {
+            missLimiter = limiter;
+        }
+        return missLimiter;
+    }
+
+    /**
+     * Records a cache-miss lookup rejected at the concurrency limit.
+     *
+     * @param servedStale Whether last known rates were served instead, rather
+     *                    than the request being shed
+     */
+    public void recordMissRejected(boolean servedStale) {
+        missRejected.increment();
+        if (servedStale) {
+            missServedStale.increment();
+        }
     }
 
     /**
      * Returns current metrics for all APIs.
-     * 
-     * @return Map with total queries and per-API metrics
+     *
+     * @return Map with total queries, cache counts and per-API metrics
      *         Example: {
-     *         "totalQueries": 30, "apis": [{ "name": "fawazApi", "metrics": {
-     *         "totalRequests": 30, "totalResponses": 30}}]}
+     *         "totalQueries": 30, "cache": {"hits": 12, "misses": 30, "hitRatio":
+     *         0.29}, "missLimiter": {"limit": 50, "inFlight": 0, "rejected": 3,
+     *         "servedStale": 1}, "apis": [{ "name": "fawazApi", "metrics": {
+     *         "totalRequests": 30, "totalResponses": 30, "failures": 0,
+     *         "fallbacks": 0, "rejected": 0, "latencyMs": {"count": 30, "p50": 41.9, "p90":
+     *         88.0, "p99": 120.8, "max": 121.3}}}]}
      */
     public Map<String, Object> getMetrics() {
         Map<String, Object> result = new LinkedHashMap<>();
-        result.put("totalQueries", totalQueries.get());
+        result.put("totalQueries", totalQueries.sum());
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("hits", cacheHits.sum());
+        cache.put("misses", cacheMisses.sum());
+        cache.put("hitRatio", getCacheHitRatio());
+        result.put("cache", cache);
+
+        ConcurrencyLimiter limiter = missLimiter;
+        Map<String, Object> limits = new LinkedHashMap<>();
+        limits.put("limit", limiter != null ? limiter.limit() : null);
+        limits.put("inFlight", limiter != null ? limiter.inFlight() : 0);
+        limits.put("rejected", missRejected.sum());
+        limits.put("servedStale", missServedStale.sum());
+        result.put("missLimiter", limits);
 
         List<Map<String, Object>> apiList = stats.entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> apiMap = new LinkedHashMap<>();
                     apiMap.put("name", entry.getKey());
 
-                    Map<String, Integer> metricsMap = new LinkedHashMap<>();
-                    metricsMap.put("totalRequests", entry.getValue().totalRequests);
-                    metricsMap.put("totalResponses", entry.getValue().totalResponses);
+                    ApiStats apiStats = entry.getValue();
+                    Map<String, Object> metricsMap = new LinkedHashMap<>();
+                    metricsMap.put("totalRequests", apiStats.getTotalRequests());
+                    metricsMap.put("totalResponses", apiStats.getTotalResponses());
+                    metricsMap.put("failures", apiStats.getFailures());
+                    metricsMap.put("fallbacks", apiStats.getFallbacks());
+                    metricsMap.put("rejected", apiStats.getRejected());
+
+                    LatencyHistogram latency = apiStats.getLatency();
+                    Map<String, Object> latencyMap = new LinkedHashMap<>();
+                    latencyMap.put("count", latency.count());
+                    latencyMap.put("p50", toMillis(latency.percentileMicros(50)));
+                    latencyMap.put("p90", toMillis(latency.percentileMicros(90)));
+                    latencyMap.put("p99", toMillis(latency.percentileMicros(99)));
+                    latencyMap.put("max", toMillis(latency.maxMicros()));
+                    metricsMap.put("latencyMs", latencyMap);
 
                     apiMap.put("metrics", metricsMap);
                     return apiMap;
@@ -64,18 +186,192 @@ public class MetricsService {
     }
 
     /**
-     * Holds request and response counts for a single API.
+     * Writes current metrics in the OpenMetrics text format, straight from the
+     * counters without building intermediate maps.
+     *
+     * Example output:
+     * exchange_api_requests_total{api="fawazApi"} 30
+     * exchange_api_latency_seconds_bucket{api="fawazApi",le="0.05"} 27
+     *
+     * @param writer Destination, typically the HTTP response writer
+     * @throws IOException If writing fails
+     */
+    public void writeOpenMetrics(Writer writer) throws IOException {
+        writeHeader(writer, "exchange_queries", "counter", "Successful upstream API responses");
+        writeSample(writer, "exchange_queries_total", null, totalQueries.sum());
+        writeHeader(writer, "exchange_cache_hits", "counter", "Currency pairs served from the cache");
+        writeSample(writer, "exchange_cache_hits_total", null, cacheHits.sum());
+        writeHeader(writer, "exchange_cache_misses", "counter", "Currency pairs fetched from the APIs");
+        writeSample(writer, "exchange_cache_misses_total", null, cacheMisses.sum());
+        writeHeader(writer, "exchange_cache_hit_ratio", "gauge", "Share of currency pairs served from the cache");
+        writer.write("exchange_cache_hit_ratio ");
+        writer.write(Double.toString(getCacheHitRatio()));
+        writer.write('\n');
+
+        ConcurrencyLimiter limiter = missLimiter;
+        if (limiter != null) {
+            writeHeader(writer, "exchange_miss_limit", "gauge", "Concurrent cache-miss lookups currently allowed");
+            writeSample(writer, "exchange_miss_limit", null, limiter.limit());
+            writeHeader(writer, "exchange_miss_in_flight", "gauge", "Cache-miss lookups in flight");
+            writeSample(writer, "exchange_miss_in_flight", null, limiter.inFlight());
+        }
+        writeHeader(writer, "exchange_miss_rejected", "counter", "Cache-miss lookups rejected at the concurrency limit");
+        writeSample(writer, "exchange_miss_rejected_total", null, missRejected.sum());
+        writeHeader(writer, "exchange_miss_served_stale", "counter",
+                "Rejected cache-miss lookups answered with last known rates");
+        writeSample(writer, "exchange_miss_served_stale_total", null, missServedStale.sum());
+
+        writeHeader(writer, "exchange_api_requests", "counter", "Upstream API requests");
+        for (Map.Entry<String, ApiStats> entry : stats.entrySet()) {
+            writeSample(writer, "exchange_api_requests_total", entry.getKey(), entry.getValue().getTotalRequests());
+        }
+        writeHeader(writer, "exchange_api_responses", "counter", "Upstream API responses with rates");
+        for (Map.Entry<String, ApiStats> entry : stats.entrySet()) {
+            writeSample(writer, "exchange_api_responses_total", entry.getKey(), entry.getValue().getTotalResponses());
+        }
+        writeHeader(writer, "exchange_api_errors", "counter", "Upstream API calls that failed with a transport or server error");
+        for (Map.Entry<String, ApiStats> entry : stats.entrySet()) {
+            writeSample(writer, "exchange_api_errors_total", entry.getKey(), entry.getValue().getFailures());
+        }
+        writeHeader(writer, "exchange_api_fallbacks", "counter", "Upstream API calls that used a fallback URL");
+        for (Map.Entry<String, ApiStats> entry : stats.entrySet()) {
+            writeSample(writer, "exchange_api_fallbacks_total", entry.getKey(), entry.getValue().getFallbacks());
+        }
+        writeHeader(writer, "exchange_api_rejected", "counter", "Upstream API calls rejected by the circuit breaker");
+        for (Map.Entry<String, ApiStats> entry : stats.entrySet()) {
+            writeSample(writer, "exchange_api_rejected_total", entry.getKey(), entry.getValue().getRejected());
+        }
+
+        writeHeader(writer, "exchange_api_latency_seconds", "histogram", "Upstream API call duration");
+        writer.write("# UNIT exchange_api_latency_seconds seconds\n");
+        long[] cumulative = new long[LATENCY_BUCKET_MICROS.length];
+        for (Map.Entry<String, ApiStats> entry : stats.entrySet()) {
+            LatencyHistogram latency = entry.getValue().getLatency();
+            long count = latency.count();
+            long sumMicros = latency.sumMicros();
+            latency.cumulativeCounts(LATENCY_BUCKET_MICROS, cumulative);
+            for (int i = 0; i < cumulative.length; i++) {
+                writeBucket(writer, entry.getKey(), LATENCY_BUCKET_LABELS[i], Math.min(cumulative[i], count));
+            }
+            writeBucket(writer, entry.getKey(), "+Inf", count);
+            writeSample(writer, "exchange_api_latency_seconds_count", entry.getKey(), count);
+            writer.write("exchange_api_latency_seconds_sum{api=\"");
+            writeLabelValue(writer, entry.getKey());
+            writer.write("\"} ");
+            writer.write(Double.toString(sumMicros / 1_000_000.0));
+            writer.write('\n');
+        }
+        writer.write("# EOF\n");
+        writer.flush();
+    }
+
+    /**
+     * Returns the share of currency pair lookups served from the cache.
+     *
+     * @return Ratio between 0 and 1, or 0 if nothing was looked up yet
+     */
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns the stats for a single API, or null if it was never called.
+     */
+    public ApiStats getStats(String api) {
+        return stats.get(api);
+    }
+
+    private ApiStats statsFor(String api) {
+        ApiStats apiStats = stats.get(api);
+        return apiStats != null ? apiStats : stats.computeIfAbsent(api, _ -> new ApiStats());
+    }
+
+    private static void writeHeader(Writer writer, String name, String type, String help) throws IOException {
+        writer.write("# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write("\n# HELP ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(help);
+        writer.write('\n');
+    }
+
+    private static void writeSample(Writer writer, String name, String api, long value) throws IOException {
+        writer.write(name);
+        if (api != null) {
+            writer.write("{api=\"");
+            writeLabelValue(writer, api);
+            writer.write("\"}");
+        }
+        writer.write(' ');
+        writer.write(Long.toString(value));
+        writer.write('\n');
+    }
+
+    private static void writeBucket(Writer writer, String api, String le, long value) throws IOException {
+        writer.write("exchange_api_latency_seconds_bucket{api=\"");
+        writeLabelValue(writer, api);
+        writer.write("\",le=\"");
+        writer.write(le);
+        writer.write("\"} ");
+        writer.write(Long.toString(value));
+        writer.write('\n');
+    }
+
+    private static void writeLabelValue(Writer writer, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '"' -> writer.write("\\\"");
+                case '\n' -> writer.write("\\n");
+                default -> writer.write(c);
+            }
+        }
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Holds request, response, failure, fallback and rejection counts and the
+     * latency histogram for a single API.
      */
     public static class ApiStats {
-        private int totalRequests = 0;
-        private int totalResponses = 0;
+        private final LongAdder totalRequests = new LongAdder();
+        private final LongAdder totalResponses = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        public long getTotalRequests() {
+            return totalRequests.sum();
+        }
+
+        public long getTotalResponses() {
+            return totalResponses.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getFallbacks() {
+            return fallbacks.sum();
+        }
 
-        public int getTotalRequests() {
-            return totalRequests;
+        public long getRejected() {
+            return rejected.sum();
         }
 
-        public int getTotalResponses() {
-            return totalResponses;
+        public LatencyHistogram getLatency() {
+            return latency;
         }
     }
 }
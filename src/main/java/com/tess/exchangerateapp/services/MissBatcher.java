@@ -0,0 +1,154 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Micro-batches cache misses per base currency, so concurrent requests for
+ * different symbols of the same base share one upstream fetch. The first miss
+ * for a base opens a batch and waits a short window, or until the batch holds
+ * the maximum number of symbols; misses arriving meanwhile add their symbols
+ * to it. The batch is then fetched once for the union of its symbols and each
+ * waiting caller takes its own symbols from the result.
+ *
+ * A miss whose symbols are all part of a batch already being fetched waits for
+ * that batch instead of starting another, so concurrent identical misses are
+ * coalesced even with a zero window.
+ */
+public final class MissBatcher {
+    private final Map<String, BaseBatches> batches = new ConcurrentHashMap<>();
+    private final BiFunction<String, List<String>, RateVector> fetcher;
+    private final long windowNanos;
+    private final int maxSymbols;
+
+    /**
+     * @param settings Batch settings (window and maximum batch size)
+     * @param fetcher  Fetches and caches the rates for a base and symbols
+     */
+    public MissBatcher(ExchangeProperties.Batch settings, BiFunction<String, List<String>, RateVector> fetcher) {
+        this.fetcher = fetcher;
+        this.windowNanos = settings.getWindow().toNanos();
+        this.maxSymbols = Math.max(1, settings.getMaxSymbols());
+    }
+
+    /**
+     * Fetches missing symbols for a base as part of a batch.
+     *
+     * @param base    Base currency code
+     * @param symbols Upper-cased target currency codes missing from the cache
+     * @return The fetched rates for {@code symbols}; symbols no API could
+     *         provide are left out
+     */
+    public RateVector fetch(String base, List<String> symbols) {
+        Batch[] joined = new Batch[1];
+        boolean[] leader = new boolean[1];
+        batches.compute(base, (_, state) -> {
+            BaseBatches current = state != null ? state : new BaseBatches();
+            for (Batch running : current.running) {
+                if (running.symbols.containsAll(symbols)) {
+                    joined[0] = running;
+                    return current;
+                }
+            }
+            if (current.open == null) {
+                current.open = new Batch();
+                leader[0] = true;
+            }
+            joined[0] = current.open;
+            joined[0].symbols.addAll(symbols);
+            if (joined[0].symbols.size() >= maxSymbols) {
+                current.close();
+            }
+            return current;
+        });
+
+        Batch batch = joined[0];
+        if (leader[0]) {
+            run(base, batch);
+        }
+        return select(batch.result.join(), symbols);
+    }
+
+    /**
+     * Waits for the batch window to pass or the batch to fill up, then fetches
+     * the batch and hands the result to every caller waiting on it.
+     */
+    private void run(String base, Batch batch) {
+        try {
+            if (windowNanos > 0) {
+                batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<List<String>> union = new ArrayList<>(1);
+        batches.compute(base, (_, state) -> {
+            if (state.open == batch) {
+                state.close();
+            }
+            union.add(List.copyOf(batch.symbols));
+            return state;
+        });
+
+        try {
+            batch.result.complete(fetcher.apply(base, union.get(0)));
+        } catch (Throwable error) {
+            // Errors too, or every caller waiting on the batch would hang
+            batch.result.completeExceptionally(error);
+        } finally {
+            if (!batch.result.isDone()) {
+                batch.result.completeExceptionally(new IllegalStateException("Batch fetch did not complete"));
+            }
+            batches.computeIfPresent(base, (_, state) -> {
+                state.running.remove(batch);
+                return state.open == null && state.running.isEmpty() ? null : state;
+            });
+        }
+    }
+
+    private static RateVector select(RateVector fetched, List<String> symbols) {
+        RateVector.Builder selected = RateVector.builder(symbols.size());
+        for (int quote : RateVector.indices(symbols)) {
+            if (quote >= 0) {
+                selected.put(quote, fetched.rateOf(quote));
+            }
+        }
+        return selected.build();
+    }
+
+    /**
+     * The open batch of a base, if any, and its batches being fetched. Only
+     * accessed inside {@link ConcurrentHashMap#compute}, which serializes
+     * access per base.
+     */
+    private static final class BaseBatches {
+        private Batch open;
+        private final List<Batch> running = new ArrayList<>(2);
+
+        /** Stops the open batch from taking more symbols and wakes its leader */
+        private void close() {
+            running.add(open);
+            open.full.countDown();
+            open = null;
+        }
+    }
+
+    /**
+     * Symbols collected for one upstream fetch and its eventual result.
+     */
+    private static final class Batch {
+        private final Set<String> symbols = new LinkedHashSet<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final CompletableFuture<RateVector> result = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,25 @@
+package com.tess.exchangerateapp.services;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed because too many lookups are already waiting
+ * on the upstream APIs. The client should try again after the given delay.
+ */
+public class OverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    /**
+     * @param message    Description of the rejection
+     * @param retryAfter How long the client should wait before retrying
+     */
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /** Returns how long the client should wait before retrying */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,147 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a moving estimate of latency and error rate per upstream API, used to
+ * rank APIs for adaptive routing and to decide when to hedge a request.
+ * Latency and errors are exponentially weighted moving averages, so recent
+ * calls count most; a latency histogram per API gives the p95 used as the
+ * hedge delay. All updates are lock-free.
+ */
+public final class ProviderScoreboard {
+    private static final double ALPHA = 0.2;
+    private static final long MIN_SAMPLES_FOR_P95 = 20;
+    private static final Duration DEFAULT_HEDGE_DELAY = Duration.ofMillis(250);
+    private static final Duration PROBE_AFTER = Duration.ofSeconds(30);
+
+    private final Map<String, Score> scores = new ConcurrentHashMap<>();
+    private final double unhealthyErrorRate;
+    private final long hedgeMinDelayNanos;
+
+    /** @param routing Routing settings (health threshold and minimum hedge delay) */
+    public ProviderScoreboard(ExchangeProperties.Routing routing) {
+        this.unhealthyErrorRate = routing.getUnhealthyErrorRate();
+        this.hedgeMinDelayNanos = routing.getHedgeMinDelay().toNanos();
+    }
+
+    /**
+     * Records the outcome of one upstream call.
+     *
+     * @param api     API name
+     * @param nanos   Call duration in nanoseconds
+     * @param success Whether the call ended without a transport or server error
+     */
+    public void record(String api, long nanos, boolean success) {
+        Score score = scoreFor(api);
+        score.latencyNanos.update(nanos);
+        score.errorRate.update(success ? 0 : 1);
+        score.latency.record(nanos);
+        score.lastSampleNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a call that was cancelled because another API answered first or
+     * the deadline passed. Its duration is a lower bound of the API's latency,
+     * so it raises the latency estimate without counting as an error.
+     */
+    public void recordCancelled(String api, long nanos) {
+        Score score = scoreFor(api);
+        score.latencyNanos.update(Math.max(nanos, (long) score.latencyNanos.get()));
+        score.lastSampleNanos = System.nanoTime();
+    }
+
+    /**
+     * Orders APIs for a request: healthy APIs by ascending moving latency, then
+     * unhealthy ones. APIs without samples come first so they get measured, and
+     * an unhealthy API that has not been called for a while is probed again as
+     * if it were healthy.
+     */
+    public List<ExchangeApiService> rank(List<ExchangeApiService> apis) {
+        long now = System.nanoTime();
+        List<ExchangeApiService> ranked = new ArrayList<>(apis);
+        ranked.sort(Comparator.comparing((ExchangeApiService api) -> !isHealthy(api.getName(), now))
+                .thenComparingDouble(api -> latencyNanos(api.getName())));
+        return ranked;
+    }
+
+    /**
+     * Returns how long to wait for an API before hedging: its observed p95,
+     * but at least the configured minimum. Until enough calls were seen a fixed
+     * default is used.
+     */
+    public Duration hedgeDelay(String api) {
+        Score score = scores.get(api);
+        if (score == null || score.latency.count() < MIN_SAMPLES_FOR_P95) {
+            return DEFAULT_HEDGE_DELAY;
+        }
+        long p95Nanos = TimeUnit.MICROSECONDS.toNanos(score.latency.percentileMicros(95));
+        return Duration.ofNanos(Math.max(p95Nanos, hedgeMinDelayNanos));
+    }
+
+    /** Returns the moving average latency of an API in nanoseconds, or 0 if unknown */
+    public double latencyNanos(String api) {
+        Score score = scores.get(api);
+        return score == null ? 0 : score.latencyNanos.get();
+    }
+
+    /** Returns the moving error rate of an API between 0 and 1, or 0 if unknown */
+    public double errorRate(String api) {
+        Score score = scores.get(api);
+        return score == null ? 0 : score.errorRate.get();
+    }
+
+    private boolean isHealthy(String api, long now) {
+        Score score = scores.get(api);
+        return score == null || score.errorRate.get() <= unhealthyErrorRate
+                || now - score.lastSampleNanos >= PROBE_AFTER.toNanos();
+    }
+
+    private Score scoreFor(String api) {
+        Score score = scores.get(api);
+        return score != null ? score : scores.computeIfAbsent(api, _ -> new Score());
+    }
+
+    /**
+     * Moving estimates for one API.
+     */
+    private static final class Score {
+        private final Ewma latencyNanos = new Ewma();
+        private final Ewma errorRate = new Ewma();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile long lastSampleNanos;
+    }
+
+    /**
+     * Exponentially weighted moving average updated with compare-and-set. The
+     * first sample initialises the average.
+     */
+    private static final class Ewma {
+        private static final long EMPTY = Double.doubleToRawLongBits(Double.NaN);
+        private final AtomicLong bits = new AtomicLong(EMPTY);
+
+        void update(double sample) {
+            long current;
+            long next;
+            do {
+                current = bits.get();
+                double average = Double.longBitsToDouble(current);
+                next = Double.doubleToRawLongBits(
+                        Double.isNaN(average) ? sample : average + ALPHA * (sample - average));
+            } while (!bits.compareAndSet(current, next));
+        }
+
+        double get() {
+            double average = Double.longBitsToDouble(bits.get());
+            return Double.isNaN(average) ? 0 : average;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tess.exchangerateapp.services;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * When a provider publishes new rates: once a day at a fixed local time,
+ * optionally on business days only. Rates published for a date stay current
+ * until the next publication, so they can be cached until then instead of for
+ * a fixed TTL.
+ *
+ * Example: the ECB reference rates behind Frankfurter are published on
+ * business days around 16:00 Frankfurt time.
+ */
+public final class PublishSchedule {
+    /** ECB reference rates: business days, around 16:00 CET/CEST */
+    public static final PublishSchedule ECB = new PublishSchedule(LocalTime.of(16, 0), ZoneId.of("Europe/Berlin"), true);
+    /** Daily tables published at midnight UTC */
+    public static final PublishSchedule DAILY_UTC = new PublishSchedule(LocalTime.MIDNIGHT, ZoneOffset.UTC, false);
+
+    private final LocalTime time;
+    private final ZoneId zone;
+    private final boolean businessDaysOnly;
+
+    /**
+     * @param time             Local time of day rates are published at
+     * @param zone             Time zone of {@code time}
+     * @param businessDaysOnly Whether nothing is published on weekends
+     */
+    public PublishSchedule(LocalTime time, ZoneId zone, boolean businessDaysOnly) {
+        this.time = time;
+        this.zone = zone;
+        this.businessDaysOnly = businessDaysOnly;
+    }
+
+    /**
+     * Returns when rates newer than those published for a date are expected.
+     * Example: for ECB rates of Friday 2025-06-13 that is Monday 2025-06-16,
+     * 16:00 Frankfurt time.
+     *
+     * @param published Date the provider published the current rates for
+     * @return The next publication after that date
+     */
+    public Instant nextAfter(LocalDate published) {
+        LocalDate next = published.plusDays(1);
+        while (businessDaysOnly && isWeekend(next)) {
+            next = next.plusDays(1);
+        }
+        return next.atTime(time).atZone(zone).toInstant();
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        return date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
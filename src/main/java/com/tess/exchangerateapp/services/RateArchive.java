@@ -0,0 +1,283 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Append-only, memory-mapped archive of daily exchange rates.
+ * Every (date, base, quote) rate is one fixed-width 16 byte record:
+ * epoch day (int), base code (short), quote code (short), rate (double).
+ * Records for one date and base are appended together, and an in-memory date
+ * index maps each (base, date) to its block of records, so a range query only
+ * touches the pages holding that range. The index is rebuilt from the file on
+ * startup. Dates that were fetched but had no rates (weekends, holidays) are
+ * stored as a single marker record so they are not fetched again.
+ */
+@Component
+public class RateArchive {
+    private static final Logger logger = LoggerFactory.getLogger(RateArchive.class);
+    private static final int RECORD_BYTES = 16;
+    private static final int MAGIC = 0x52415445;
+    private static final int VERSION = 1;
+    private static final long GROWTH_RECORDS = 65_536;
+    private static final short NO_QUOTE = Short.MAX_VALUE;
+
+    private final Path path;
+    private final ConcurrentSkipListMap<Long, Block> index = new ConcurrentSkipListMap<>();
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private long records;
+
+    /** @param properties Exchange settings (archive path) */
+    public RateArchive(ExchangeProperties properties) {
+        this.path = Path.of(properties.getHistory().getArchivePath());
+    }
+
+    /**
+     * Appends the rates of one base currency for one date. An empty map records
+     * that the date was fetched but has no rates. Currency codes that are not
+     * three letters are skipped.
+     *
+     * @param base  Base currency code (e.g., "EUR")
+     * @param date  Date the rates were published for
+     * @param rates Map of quote currency codes to rates
+     */
+    public synchronized void append(String base, LocalDate date, Map<String, Double> rates) {
+        open();
+        short baseCode = encode(base);
+        int day = (int) date.toEpochDay();
+        long first = records;
+
+        ensureCapacity(records + Math.max(rates.size(), 1));
+        for (Map.Entry<String, Double> rate : rates.entrySet()) {
+            if (CurrencyIndex.isWellFormed(rate.getKey()) && rate.getValue() != null) {
+                write(records++, day, baseCode, encode(rate.getKey()), rate.getValue());
+            }
+        }
+        if (records == first) {
+            write(records++, day, baseCode, NO_QUOTE, Double.NaN);
+        }
+        buffer.putLong(8, records);
+        index.put(key(baseCode, day), new Block(first, (int) (records - first)));
+    }
+
+    /**
+     * Returns whether a date has been archived for a base, with or without rates.
+     */
+    public boolean contains(String base, LocalDate date) {
+        open();
+        return index.containsKey(key(encode(base), (int) date.toEpochDay()));
+    }
+
+    /**
+     * Finds the parts of a date range that have not been archived for a base.
+     *
+     * @return Inclusive [from, to] ranges in date order
+     */
+    public List<LocalDate[]> missingRanges(String base, LocalDate from, LocalDate to) {
+        List<LocalDate[]> missing = new ArrayList<>();
+        LocalDate start = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!contains(base, date)) {
+                start = start == null ? date : start;
+            } else if (start != null) {
+                missing.add(new LocalDate[] { start, date.minusDays(1) });
+                start = null;
+            }
+        }
+        if (start != null) {
+            missing.add(new LocalDate[] { start, to });
+        }
+        return missing;
+    }
+
+    /**
+     * Streams archived rates for a base over a date range, in date order, to a
+     * visitor. Only the requested quotes are visited; nothing is collected in
+     * memory.
+     *
+     * @param base    Base currency code
+     * @param from    First date (inclusive)
+     * @param to      Last date (inclusive)
+     * @param quotes  Quote currency codes to visit
+     * @param visitor Receives each matching record
+     * @return Number of records visited
+     */
+    public long scan(String base, LocalDate from, LocalDate to, List<String> quotes, RecordVisitor visitor) {
+        open();
+        short baseCode = encode(base);
+        short[] quoteCodes = new short[quotes.size()];
+        for (int i = 0; i < quoteCodes.length; i++) {
+            quoteCodes[i] = encode(quotes.get(i));
+        }
+
+        long visited = 0;
+        Map<Long, Block> blocks = index.subMap(key(baseCode, (int) from.toEpochDay()), true,
+                key(baseCode, (int) to.toEpochDay()), true);
+        for (Block block : blocks.values()) {
+            MappedByteBuffer view = buffer;
+            for (long record = block.first(); record < block.first() + block.count(); record++) {
+                int offset = offset(record);
+                short quote = view.getShort(offset + 6);
+                for (int i = 0; i < quoteCodes.length; i++) {
+                    if (quoteCodes[i] == quote) {
+                        visitor.visit(view.getInt(offset), i, view.getDouble(offset + 8));
+                        visited++;
+                        break;
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static short encode(String code) {
+        if (!CurrencyIndex.isWellFormed(code)) {
+            throw new IllegalArgumentException("Invalid currency code: " + code);
+        }
+        String upper = code.toUpperCase();
+        return (short) ((upper.charAt(0) - 'A') * 676 + (upper.charAt(1) - 'A') * 26 + (upper.charAt(2) - 'A'));
+    }
+
+    private static long key(short base, int day) {
+        return ((long) base << 32) | (day & 0xFFFFFFFFL);
+    }
+
+    private static int offset(long record) {
+        return (int) ((record + 1) * RECORD_BYTES);
+    }
+
+    private void write(long record, int day, short base, short quote, double rate) {
+        int offset = offset(record);
+        buffer.putInt(offset, day);
+        buffer.putShort(offset + 4, base);
+        buffer.putShort(offset + 6, quote);
+        buffer.putDouble(offset + 8, rate);
+    }
+
+    private void ensureCapacity(long needed) {
+        if (offset(needed) <= buffer.capacity()) {
+            return;
+        }
+        long capacity = ((needed / GROWTH_RECORDS) + 1) * GROWTH_RECORDS;
+        buffer = map(offset(capacity));
+    }
+
+    private MappedByteBuffer map(long size) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException error) {
+            throw new UncheckedIOException("Failed to map rate archive " + path, error);
+        }
+    }
+
+    /**
+     * Opens the archive file on first use and rebuilds the date index from it.
+     */
+    private synchronized void open() {
+        if (channel != null) {
+            return;
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException error) {
+            throw new UncheckedIOException("Failed to open rate archive " + path, error);
+        }
+
+        boolean fresh = channelSize() < RECORD_BYTES;
+        buffer = map(Math.max(channelSize(), offset(GROWTH_RECORDS)));
+        if (fresh) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, 0);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unsupported rate archive format in " + path);
+        }
+        records = buffer.getLong(8);
+        rebuildIndex();
+        logger.info("Opened rate archive {} with {} records", path, records);
+    }
+
+    private void rebuildIndex() {
+        long blockStart = 0;
+        long blockKey = -1;
+        for (long record = 0; record < records; record++) {
+            int offset = offset(record);
+            long recordKey = key(buffer.getShort(offset + 4), buffer.getInt(offset));
+            if (recordKey != blockKey) {
+                if (blockKey != -1) {
+                    index.put(blockKey, new Block(blockStart, (int) (record - blockStart)));
+                }
+                blockKey = recordKey;
+                blockStart = record;
+            }
+        }
+        if (blockKey != -1) {
+            index.put(blockKey, new Block(blockStart, (int) (records - blockStart)));
+        }
+    }
+
+    private long channelSize() {
+        try {
+            return channel.size();
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    /**
+     * Flushes the mapped records to disk and closes the file on shutdown.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException error) {
+            logger.warn("Failed to close rate archive {}: {}", path, error.getMessage());
+        }
+        channel = null;
+        index.clear();
+    }
+
+    /**
+     * Receives archived rates during a scan.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param epochDay   Date of the rate as days since 1970-01-01
+         * @param quoteIndex Position of the quote in the requested quotes list
+         * @param rate       The archived rate
+         */
+        void visit(int epochDay, int quoteIndex, double rate);
+    }
+
+    /**
+     * Location of the records for one (base, date) in the file.
+     */
+    private record Block(long first, int count) {
+    }
+}
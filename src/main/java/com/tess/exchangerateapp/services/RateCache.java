@@ -0,0 +1,439 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of averaged exchange rates, keyed by base/quote currency pair.
+ * Entries expire after the configured TTL, or a TTL given when they are stored
+ * (e.g. until the provider's next publication), and the least valuable pairs are
+ * evicted (W-TinyLFU) once the maximum size is reached. Each entry remembers
+ * when it was written and last read so hot pairs can be refreshed ahead of
+ * expiry, and so entries restored from a checkpoint keep only the rest of
+ * their TTL. The last known good rate of each pair is kept beyond its TTL, as
+ * a fallback for when no API can be reached.
+ *
+ * With a {@link SharedRateCache} configured, the in-process cache is the first
+ * level of two: a miss is looked up in the shared cache before it counts as a
+ * miss, every stored rate is also written there with its expiry, and rates
+ * other instances store replace older local copies by version. Fill locks on
+ * the shared cache let one instance fetch a missing key while the others wait
+ * for its result.
+ *
+ * Pairs a provider answered for without quoting them are remembered per
+ * provider for a short negative TTL, so they are not asked for again on every
+ * request.
+ */
+@Component
+public class RateCache {
+    private static final long FILL_POLL_MILLIS = 5;
+    private final Cache<CurrencyPair, CachedRate> rates;
+    private final Cache<CurrencyPair, KnownRate> lastKnown;
+    private final Cache<ProviderPair, Boolean> notQuoted;
+    private final long ttlNanos;
+    private final SharedRateCache shared;
+    private final Duration fillLease;
+
+    /**
+     * @param properties Exchange settings (cache TTL and maximum size)
+     * @param shared     Shared second-level cache, if one is configured
+     */
+    @Autowired
+    public RateCache(ExchangeProperties properties, ObjectProvider<SharedRateCache> shared) {
+        this(properties, shared.getIfAvailable());
+    }
+
+    /** @param properties Exchange settings (cache TTL and maximum size) */
+    public RateCache(ExchangeProperties properties) {
+        this(properties, (SharedRateCache) null);
+    }
+
+    RateCache(ExchangeProperties properties, SharedRateCache shared) {
+        this.ttlNanos = properties.getCache().getTtl().toNanos();
+        this.shared = shared;
+        this.fillLease = properties.getUpstream().getDeadline().multipliedBy(2);
+        this.rates = Caffeine.newBuilder()
+                .expireAfter(new Expiry<CurrencyPair, CachedRate>() {
+                    @Override
+                    public long expireAfterCreate(CurrencyPair pair, CachedRate cached, long currentTime) {
+                        return Math.max(0, cached.ttlNanos - (currentTime - cached.writtenNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CurrencyPair pair, CachedRate cached, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(pair, cached, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(CurrencyPair pair, CachedRate cached, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(properties.getCache().getMaximumSize())
+                .build();
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .build();
+        this.notQuoted = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getCache().getNegativeTtl())
+                .maximumSize(properties.getCache().getMaximumSize())
+                .build();
+        if (shared != null) {
+            shared.subscribe(this::onSharedUpdate);
+        }
+    }
+
+    /**
+     * Looks up a cached rate.
+     *
+     * @param base  Base currency code (e.g., "EUR")
+     * @param quote Target currency code (e.g., "USD")
+     * @return The cached rate, or null if absent or expired
+     */
+    public Double get(String base, String quote) {
+        double rate = getRate(base, quote);
+        return Double.isNaN(rate) ? null : rate;
+    }
+
+    /**
+     * Looks up a cached rate without boxing it.
+     *
+     * @param base  Base currency code (e.g., "EUR")
+     * @param quote Target currency code (e.g., "USD")
+     * @return The cached rate, or NaN if absent or expired
+     */
+    public double getRate(String base, String quote) {
+        CurrencyPair pair = new CurrencyPair(base, quote);
+        CachedRate cached = rates.getIfPresent(pair);
+        if (cached == null) {
+            return shared != null ? readShared(pair) : Double.NaN;
+        }
+        cached.lastAccessNanos = System.nanoTime();
+        return cached.rate;
+    }
+
+    /**
+     * Looks up a pair in the shared cache and keeps an unexpired rate locally,
+     * with the write time, expiry and version it has there.
+     *
+     * @return The shared rate, or NaN if absent or expired
+     */
+    private double readShared(CurrencyPair pair) {
+        SharedRateCache.SharedRate found = shared.get(pair.base(), pair.quote());
+        if (found == null) {
+            return Double.NaN;
+        }
+        rememberKnown(pair, found);
+        long now = System.nanoTime();
+        CachedRate cached = fromShared(found, now, now);
+        if (now - cached.writtenNanos >= cached.ttlNanos) {
+            return Double.NaN;
+        }
+        rates.asMap().merge(pair, cached, (previous, next) -> previous.version >= next.version ? previous : next);
+        return found.rate();
+    }
+
+    /**
+     * Replaces a local copy of a pair another instance (or this one) wrote to
+     * the shared cache, if the local copy is older. Pairs not cached locally
+     * are left to be read on demand.
+     */
+    private void onSharedUpdate(String base, String quote, SharedRateCache.SharedRate update) {
+        CurrencyPair pair = new CurrencyPair(base, quote);
+        rates.asMap().computeIfPresent(pair, (_, previous) -> previous.version >= update.version() ? previous
+                : fromShared(update, System.nanoTime(), previous.lastAccessNanos));
+        rememberKnown(pair, update);
+    }
+
+    private void rememberKnown(CurrencyPair pair, SharedRateCache.SharedRate found) {
+        KnownRate known = new KnownRate(found.rate(), Instant.ofEpochMilli(found.writtenAtMillis()));
+        lastKnown.asMap().merge(pair, known,
+                (previous, next) -> previous.fetchedAt().isAfter(next.fetchedAt()) ? previous : next);
+    }
+
+    private CachedRate fromShared(SharedRateCache.SharedRate found, long now, long lastAccessNanos) {
+        long ageNanos = Math.max(0, Duration.ofMillis(System.currentTimeMillis() - found.writtenAtMillis()).toNanos());
+        long ttl = Duration.ofMillis(Math.max(0, found.expiresAtMillis() - found.writtenAtMillis())).toNanos();
+        return new CachedRate(found.rate(), now - ageNanos, lastAccessNanos, found.version(), ttl);
+    }
+
+    /**
+     * Stores a rate for a currency pair for the configured TTL, like
+     * {@link #put(String, String, double, Duration)}.
+     */
+    public void put(String base, String quote, double rate) {
+        put(base, quote, rate, Duration.ofNanos(ttlNanos));
+    }
+
+    /**
+     * Stores a rate for a currency pair, replacing any previous value, and
+     * publishes it to the shared cache if there is one.
+     * The last read time carries over so a refresh does not make a pair hot.
+     * Other instances reading the rate from the shared cache keep it until the
+     * same expiry.
+     *
+     * @param ttl How long the rate is served before it expires
+     */
+    public void put(String base, String quote, double rate, Duration ttl) {
+        long writtenAt = System.currentTimeMillis();
+        long version = shared != null ? shared.put(base, quote, rate, writtenAt, writtenAt + ttl.toMillis()) : 0;
+        long now = System.nanoTime();
+        CurrencyPair pair = new CurrencyPair(base, quote);
+        rates.asMap().compute(pair, (_, previous) -> previous != null && previous.version > version ? previous
+                : new CachedRate(rate, now, previous != null ? previous.lastAccessNanos : now, version,
+                        ttl.toNanos()));
+        lastKnown.put(pair, new KnownRate(rate, Instant.now()));
+    }
+
+    /**
+     * Remembers that a provider answered for a base without quoting a currency,
+     * for the negative TTL.
+     *
+     * @param provider Name of the API
+     * @param base     Base currency code (e.g., "EUR")
+     * @param quote    Target currency code the API did not quote
+     */
+    public void markNotQuoted(String provider, String base, String quote) {
+        notQuoted.put(new ProviderPair(provider, base, quote), Boolean.TRUE);
+    }
+
+    /**
+     * Remembers that a provider answered it has no rates at all for a base,
+     * for the negative TTL. Every currency counts as not quoted for the base.
+     *
+     * @param provider Name of the API
+     * @param base     Base currency code (e.g., "EUR")
+     */
+    public void markNotQuoted(String provider, String base) {
+        notQuoted.put(new ProviderPair(provider, base, null), Boolean.TRUE);
+    }
+
+    /**
+     * Returns whether a provider recently answered for a base without quoting
+     * a currency, or without any rates for the base.
+     */
+    public boolean isNotQuoted(String provider, String base, String quote) {
+        return notQuoted.getIfPresent(new ProviderPair(provider, base, quote)) != null
+                || notQuoted.getIfPresent(new ProviderPair(provider, base, null)) != null;
+    }
+
+    /**
+     * Takes the fill lock for a base and symbols before they are fetched, so
+     * that only one instance sharing the cache fetches them. Waits while
+     * another instance holds the lock; the caller should read the cache again
+     * if it had to wait, since the other instance has stored its rates by then.
+     * Without a shared cache the lock is granted at once.
+     *
+     * @param wait How long to wait for another instance's fill at most
+     * @return The lock, to be closed once the fetched rates are stored;
+     *         {@link FillLock#acquired()} is false if the wait timed out
+     */
+    public FillLock lockFill(String base, Collection<String> symbols, Duration wait) {
+        if (shared == null) {
+            return new FillLock(null, true, false);
+        }
+
+        String key = base + ":" + String.join(",", symbols.stream().sorted().toList());
+        long deadline = System.nanoTime() + wait.toNanos();
+        boolean contended = false;
+        while (!shared.tryLock(key, fillLease)) {
+            contended = true;
+            if (System.nanoTime() - deadline >= 0) {
+                return new FillLock(null, false, true);
+            }
+            try {
+                Thread.sleep(FILL_POLL_MILLIS);
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                return new FillLock(null, false, true);
+            }
+        }
+        return new FillLock(key, true, contended);
+    }
+
+    /**
+     * Looks up the last rate stored for a currency pair, even if it has
+     * expired from the cache.
+     *
+     * @return The last known rate with the time it was fetched, or null if the
+     *         pair was never cached
+     */
+    public KnownRate getLastKnown(String base, String quote) {
+        return lastKnown.getIfPresent(new CurrencyPair(base, quote));
+    }
+
+    /**
+     * Restores a rate stored for the configured TTL, like
+     * {@link #restore(String, String, double, Duration, Duration, Duration)}.
+     */
+    public boolean restore(String base, String quote, double rate, Duration age, Duration idle) {
+        return restore(base, quote, rate, age, idle, Duration.ofNanos(ttlNanos));
+    }
+
+    /**
+     * Restores a rate from a checkpoint without replacing a fresher value.
+     * The entry keeps its original write and read ages and its TTL, so it
+     * expires and is refreshed as if the process had never restarted.
+     *
+     * @param age  Time since the rate was written
+     * @param idle Time since the rate was last read
+     * @param ttl  How long the rate was to be served when it was written
+     * @return Whether the rate was restored (false if expired or already cached)
+     */
+    public boolean restore(String base, String quote, double rate, Duration age, Duration idle, Duration ttl) {
+        CurrencyPair pair = new CurrencyPair(base, quote);
+        lastKnown.asMap().putIfAbsent(pair, new KnownRate(rate, Instant.now().minus(age)));
+        if (age.compareTo(ttl) >= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        CachedRate cached = new CachedRate(rate, now - age.toNanos(), now - idle.toNanos(), 0, ttl.toNanos());
+        return rates.asMap().putIfAbsent(pair, cached) == null;
+    }
+
+    /**
+     * Visits every cached rate with its write and read ages and its TTL, e.g.
+     * to write a checkpoint.
+     */
+    public void forEach(EntryVisitor visitor) {
+        long now = System.nanoTime();
+        rates.asMap().forEach((pair, cached) -> visitor.visit(pair.base(), pair.quote(), cached.rate,
+                Duration.ofNanos(now - cached.writtenNanos), Duration.ofNanos(now - cached.lastAccessNanos),
+                Duration.ofNanos(cached.ttlNanos)));
+    }
+
+    /**
+     * Returns the approximate number of cached pairs.
+     */
+    public long size() {
+        return rates.estimatedSize();
+    }
+
+    /**
+     * Finds hot pairs that are due for a refresh, grouped by base currency.
+     * A pair is hot if it was read within {@code hotWindow}, and due if it was
+     * written more than {@code refreshAfter} ago. A pair stored with a longer
+     * TTL than the configured one becomes due as long before its expiry as a
+     * pair with the configured TTL.
+     *
+     * @param refreshAfter Age after which a pair with the configured TTL should
+     *                     be fetched again
+     * @param hotWindow    How recently a pair must have been read to be kept warm
+     * @return Map of base currency codes to the quotes to refresh
+     */
+    public Map<String, List<String>> dueForRefresh(Duration refreshAfter, Duration hotWindow) {
+        long now = System.nanoTime();
+        Map<String, List<String>> due = new LinkedHashMap<>();
+        rates.asMap().forEach((pair, cached) -> {
+            long dueAfter = refreshAfter.toNanos() + Math.max(0, cached.ttlNanos - ttlNanos);
+            if (now - cached.writtenNanos >= dueAfter
+                    && now - cached.lastAccessNanos <= hotWindow.toNanos()) {
+                due.computeIfAbsent(pair.base(), _ -> new ArrayList<>()).add(pair.quote());
+            }
+        });
+        return due;
+    }
+
+    /**
+     * Receives cached rates from {@link #forEach(EntryVisitor)}.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        /**
+         * @param age  Time since the rate was written
+         * @param idle Time since the rate was last read
+         * @param ttl  How long the rate is served after it was written
+         */
+        void visit(String base, String quote, double rate, Duration age, Duration idle, Duration ttl);
+    }
+
+    /**
+     * Cache key for a single exchange rate (e.g., EUR to USD).
+     */
+    public record CurrencyPair(String base, String quote) {
+    }
+
+    /**
+     * Negative cache key: a currency pair as quoted by one provider, or a whole
+     * base if the quote is null.
+     */
+    private record ProviderPair(String provider, String base, String quote) {
+    }
+
+    /**
+     * A rate together with the time it was fetched.
+     */
+    public record KnownRate(double rate, Instant fetchedAt) {
+        /** Returns how long ago the rate was fetched */
+        public Duration age() {
+            return Duration.between(fetchedAt, Instant.now());
+        }
+    }
+
+    /**
+     * Fill lock taken with {@link #lockFill(String, Collection, Duration)}.
+     */
+    public final class FillLock implements AutoCloseable {
+        private final String key;
+        private final boolean acquired;
+        private final boolean contended;
+
+        private FillLock(String key, boolean acquired, boolean contended) {
+            this.key = key;
+            this.acquired = acquired;
+            this.contended = contended;
+        }
+
+        /** Returns whether this instance holds the lock */
+        public boolean acquired() {
+            return acquired;
+        }
+
+        /** Returns whether another instance held the lock while waiting for it */
+        public boolean contended() {
+            return contended;
+        }
+
+        /** Releases the lock if it was taken */
+        @Override
+        public void close() {
+            if (key != null) {
+                shared.unlock(key);
+            }
+        }
+    }
+
+    /**
+     * Cached rate with its write and last read times, the version of the
+     * shared cache write it came from (0 if it was not shared) and its TTL.
+     */
+    private static final class CachedRate {
+        private final double rate;
+        private final long writtenNanos;
+        private volatile long lastAccessNanos;
+        private final long version;
+        private final long ttlNanos;
+
+        private CachedRate(double rate, long writtenNanos, long lastAccessNanos, long version, long ttlNanos) {
+            this.rate = rate;
+            this.writtenNanos = writtenNanos;
+            this.lastAccessNanos = lastAccessNanos;
+            this.version = version;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Periodically writes the {@link RateCache} to a compact binary file and
+ * restores it on startup, so a new instance serves cache hits from its first
+ * request instead of sending all traffic upstream.
+ *
+ * The file is written to a temporary sibling and atomically renamed, so a
+ * crash never leaves a half-written checkpoint. Layout (big-endian):
+ * magic (int), version (int), saved-at epoch millis (long), entry count (int),
+ * then per entry: base and quote (length-prefixed UTF-8), rate (double),
+ * written-at, last-read-at and expires-at epoch millis (long), and finally a
+ * CRC32 of everything before it (long). Files with another magic, version or
+ * checksum are ignored.
+ *
+ * Each entry keeps its own expiry, so rates cached until the provider's next
+ * publication stay valid across a restart for as long as they were meant to.
+ */
+@Component
+@ConditionalOnProperty(prefix = "exchange.checkpoint", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateCacheCheckpoint {
+    private static final Logger logger = LoggerFactory.getLogger(RateCacheCheckpoint.class);
+    private static final int MAGIC = 0x52434350;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 20;
+    private static final int ENTRY_FIXED_BYTES = 36;
+
+    private final RateCache cache;
+    private final Path path;
+
+    /**
+     * @param cache      Cache to checkpoint and restore
+     * @param properties Exchange settings (checkpoint file)
+     */
+    public RateCacheCheckpoint(RateCache cache, ExchangeProperties properties) {
+        this.cache = cache;
+        this.path = Path.of(properties.getCheckpoint().getPath());
+    }
+
+    /**
+     * Restores the last checkpoint into the cache. Runs while the application
+     * context starts, before the web server accepts requests. Expired entries
+     * are skipped and a missing or unreadable file leaves the cache empty.
+     *
+     * @return Number of restored rates
+     */
+    @PostConstruct
+    public int restore() {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+        } catch (NoSuchFileException error) {
+            return 0;
+        } catch (IOException error) {
+            logger.warn("Failed to read cache checkpoint {}: {}", path, error.getMessage());
+            return 0;
+        }
+
+        try {
+            int restored = read(buffer);
+            logger.info("Restored {} cached rates from {}", restored, path);
+            return restored;
+        } catch (RuntimeException error) {
+            logger.warn("Ignoring unreadable cache checkpoint {}: {}", path, error.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Writes the current cache contents to the checkpoint file.
+     *
+     * @return Number of written rates, or -1 if the write failed
+     */
+    @Scheduled(fixedDelayString = "${exchange.checkpoint.interval:1m}",
+            initialDelayString = "${exchange.checkpoint.interval:1m}")
+    public int checkpoint() {
+        List<Entry> entries = new ArrayList<>();
+        long savedAt = System.currentTimeMillis();
+        cache.forEach((base, quote, rate, age, idle, ttl) -> entries.add(new Entry(
+                base.getBytes(StandardCharsets.UTF_8), quote.getBytes(StandardCharsets.UTF_8), rate,
+                savedAt - age.toMillis(), savedAt - idle.toMillis(), savedAt - age.toMillis() + ttl.toMillis())));
+
+        int size = HEADER_BYTES + Long.BYTES;
+        for (Entry entry : entries) {
+            size += ENTRY_FIXED_BYTES + entry.base().length + entry.quote().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(savedAt).putInt(entries.size());
+        for (Entry entry : entries) {
+            buffer.putShort((short) entry.base().length).put(entry.base());
+            buffer.putShort((short) entry.quote().length).put(entry.quote());
+            buffer.putDouble(entry.rate()).putLong(entry.writtenAt()).putLong(entry.readAt())
+                    .putLong(entry.expiresAt());
+        }
+        buffer.putLong(checksum(buffer.array(), buffer.position()));
+        buffer.flip();
+
+        try {
+            write(buffer);
+            logger.debug("Checkpointed {} cached rates to {}", entries.size(), path);
+            return entries.size();
+        } catch (IOException error) {
+            logger.warn("Failed to write cache checkpoint {}: {}", path, error.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Writes a final checkpoint on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private int read(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES + Long.BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not a cache checkpoint");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported version " + version);
+        }
+        int checksumOffset = buffer.limit() - Long.BYTES;
+        if (buffer.getLong(checksumOffset) != checksum(buffer.array(), checksumOffset)) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+
+        buffer.getLong();
+        int count = buffer.getInt();
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        for (int i = 0; i < count; i++) {
+            String base = readString(buffer);
+            String quote = readString(buffer);
+            double rate = buffer.getDouble();
+            long writtenAt = buffer.getLong();
+            Duration age = Duration.ofMillis(Math.max(0, now - writtenAt));
+            Duration idle = Duration.ofMillis(Math.max(0, now - buffer.getLong()));
+            Duration ttl = Duration.ofMillis(Math.max(0, buffer.getLong() - writtenAt));
+            if (cache.restore(base, quote, rate, age, idle, ttl)) {
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+
+    /**
+     * One cached rate as written to the checkpoint file.
+     */
+    private record Entry(byte[] base, byte[] quote, double rate, long writtenAt, long readAt, long expiresAt) {
+    }
+}
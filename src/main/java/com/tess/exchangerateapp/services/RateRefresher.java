@@ -0,0 +1,106 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Refreshes hot cached rates in the background before they expire, so steady
+ * traffic is always served from the cache. Cached values keep being served
+ * while their refresh is in flight.
+ */
+@Component
+@ConditionalOnProperty(prefix = "exchange.refresh", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateRefresher {
+    private static final Logger logger = LoggerFactory.getLogger(RateRefresher.class);
+    private final ExchangeService exchangeService;
+    private final RateCache cache;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final Duration refreshAfter;
+    private final Duration hotWindow;
+    private final Duration jitter;
+
+    /**
+     * @param exchangeService Service used to fetch fresh rates into the cache
+     * @param cache           Cache whose hot pairs are refreshed
+     * @param properties      Exchange settings (refresh timing and concurrency)
+     */
+    public RateRefresher(ExchangeService exchangeService, RateCache cache, ExchangeProperties properties) {
+        this.exchangeService = exchangeService;
+        this.cache = cache;
+        this.permits = new Semaphore(properties.getRefresh().getConcurrency());
+        this.refreshAfter = properties.getRefresh().getAfter();
+        this.hotWindow = properties.getRefresh().getHotWindow();
+        this.jitter = properties.getRefresh().getJitter();
+    }
+
+    /**
+     * Runs one refresh cycle: every hot base with pairs due for a refresh is
+     * fetched again, after a random jitter and with bounded concurrency. The
+     * cycle waits for all of its refreshes before the next one is scheduled.
+     *
+     * @return Number of bases that were refreshed successfully
+     */
+    @Scheduled(fixedDelayString = "${exchange.refresh.interval:30s}",
+            initialDelayString = "${exchange.refresh.interval:30s}")
+    public int refreshHot() {
+        Map<String, List<String>> due = cache.dueForRefresh(refreshAfter, hotWindow);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        logger.debug("Refreshing {} hot base currencies: {}", due.size(), due.keySet());
+
+        List<Callable<Boolean>> refreshes = due.entrySet().stream()
+                .<Callable<Boolean>>map(entry -> () -> refresh(entry.getKey(), entry.getValue()))
+                .toList();
+
+        int refreshed = 0;
+        try {
+            for (Future<Boolean> result : executor.invokeAll(refreshes)) {
+                if (result.state() == Future.State.SUCCESS && result.resultNow()) {
+                    refreshed++;
+                }
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+        return refreshed;
+    }
+
+    /**
+     * Waits a random jitter, then refreshes one base within the concurrency limit.
+     */
+    private boolean refresh(String base, List<String> symbols) throws InterruptedException {
+        if (!jitter.isZero()) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1));
+        }
+        permits.acquire();
+        try {
+            return exchangeService.refresh(base, symbols);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Stops in-flight refreshes when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,196 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes /exchangeRates response bodies to UTF-8 JSON once and keeps them per
+ * base and symbol list, together with an ETag derived from the bytes. As long
+ * as the rates for a request are unchanged, the cached bytes are served as
+ * they are, so a repeated request costs one buffer write instead of a JSON
+ * serialization, and a client holding the ETag can be answered with 304 Not
+ * Modified.
+ *
+ * Entries are validated against the current rates on every use rather than
+ * invalidated, so a refreshed rate is never served from an old body. Bodies
+ * with last known (stale) rates change every second and are not cached.
+ */
+@Component
+public class RateResponseCache {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Cache<String, EncodedResponse> responses;
+
+    /** @param properties Exchange settings (maximum number of cached bodies) */
+    public RateResponseCache(ExchangeProperties properties) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getResponseMaximumSize())
+                .build();
+    }
+
+    /**
+     * Returns the encoded response for a rate lookup, reusing the cached bytes
+     * when the rates are the same as when they were encoded. Rates are written
+     * in the order of the requested symbols.
+     *
+     * Example body: {"base":"EUR","rates":{"USD":1.078588,"NZD":1.599893}}
+     * Stale body: {"base":"EUR","rates":{"USD":1.078588},"staleAgeSeconds":{"USD":1260}}
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols Requested currency codes in any case, possibly repeated
+     * @param lookup  The rates found for the request
+     * @return The UTF-8 body and its ETag
+     */
+    public EncodedResponse encode(String base, List<String> symbols, ExchangeService.RateLookup lookup) {
+        RateVector rates = RateVector.of(lookup.rates());
+        String[] quotes = new String[symbols.size()];
+        double[] values = new double[quotes.length];
+        int count = 0;
+        StringBuilder key = new StringBuilder(base.length() + quotes.length * 4).append(base).append(':');
+        for (String symbol : symbols) {
+            String quote = symbol.toUpperCase();
+            if (indexOf(quotes, count, quote) >= 0) {
+                continue;
+            }
+            int currency = RateVector.index(quote);
+            quotes[count] = quote;
+            values[count] = currency < 0 ? Double.NaN : rates.rateOf(currency);
+            key.append(quote).append(',');
+            count++;
+        }
+
+        if (!lookup.stale().isEmpty()) {
+            return encode(base, quotes, values, count, lookup.stale());
+        }
+
+        EncodedResponse cached = responses.getIfPresent(key.toString());
+        if (cached != null && cached.matches(values, count)) {
+            return cached;
+        }
+        EncodedResponse encoded = encode(base, quotes, values, count, Map.of());
+        responses.put(key.toString(), encoded);
+        return encoded;
+    }
+
+    private static EncodedResponse encode(String base, String[] quotes, double[] values, int count,
+            Map<String, Duration> stale) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + count * 24);
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("base", base);
+            generator.writeObjectFieldStart("rates");
+            for (int i = 0; i < count; i++) {
+                if (!Double.isNaN(values[i])) {
+                    generator.writeNumberField(quotes[i], values[i]);
+                }
+            }
+            generator.writeEndObject();
+            if (!stale.isEmpty()) {
+                generator.writeObjectFieldStart("staleAgeSeconds");
+                for (int i = 0; i < count; i++) {
+                    Duration age = stale.get(quotes[i]);
+                    if (age != null) {
+                        generator.writeNumberField(quotes[i], age.toSeconds());
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+
+        byte[] body = out.toByteArray();
+        return new EncodedResponse(body, etag(body), Arrays.copyOf(values, count));
+    }
+
+    private static int indexOf(String[] quotes, int count, String quote) {
+        for (int i = 0; i < count; i++) {
+            if (quotes[i].equals(quote)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a strong ETag for a body: a quoted 64-bit FNV-1a hash of its bytes.
+     */
+    private static String etag(byte[] body) {
+        long hash = FNV_OFFSET;
+        for (byte b : body) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * An encoded response body.
+     */
+    public static final class EncodedResponse {
+        private final byte[] body;
+        private final String etag;
+        private final double[] rates;
+
+        private EncodedResponse(byte[] body, String etag, double[] rates) {
+            this.body = body;
+            this.etag = etag;
+            this.rates = rates;
+        }
+
+        /** Returns the UTF-8 JSON body. The array is shared and must not be modified. */
+        public byte[] body() {
+            return body;
+        }
+
+        /** Returns the quoted ETag of the body */
+        public String etag() {
+            return etag;
+        }
+
+        /**
+         * Returns whether an If-None-Match header value names this body.
+         * Accepts a list of tags, weak tags and "*".
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.startsWith("W/")) {
+                    trimmed = trimmed.substring(2);
+                }
+                if (trimmed.equals("*") || trimmed.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matches(double[] values, int count) {
+            if (count != rates.length) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (Double.compare(values[i], rates[i]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
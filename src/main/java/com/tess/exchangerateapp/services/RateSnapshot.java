@@ -0,0 +1,159 @@
+package com.tess.exchangerateapp.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable full rate table for one base currency, as published by a provider.
+ * Rates are held in a primitive array indexed by {@link CurrencyIndex}, with
+ * NaN marking currencies the provider did not quote. A snapshot carries the
+ * date the provider published the rates for, when the payload states it.
+ */
+public final class RateSnapshot {
+    private final int base;
+    private final double[] rates;
+    private final Instant fetchedAt;
+    private final LocalDate date;
+
+    private RateSnapshot(int base, double[] rates, Instant fetchedAt, LocalDate date) {
+        this.base = base;
+        this.rates = rates;
+        this.fetchedAt = fetchedAt;
+        this.date = date;
+    }
+
+    /**
+     * Starts building a snapshot for the given base currency.
+     */
+    public static Builder builder(String base) {
+        return new Builder(CurrencyIndex.of(base));
+    }
+
+    /** Returns the base currency code (e.g., "EUR") */
+    public String base() {
+        return CurrencyIndex.code(base);
+    }
+
+    /** Returns the index of the base currency */
+    public int baseIndex() {
+        return base;
+    }
+
+    /** Returns when the table was downloaded */
+    public Instant fetchedAt() {
+        return fetchedAt;
+    }
+
+    /** Returns the date the rates were published for, or null if unknown */
+    public LocalDate date() {
+        return date;
+    }
+
+    /**
+     * Returns the same table as fetched now, e.g. after the provider confirmed
+     * with 304 Not Modified that it is unchanged. The rates are shared.
+     */
+    public RateSnapshot revalidated() {
+        return new RateSnapshot(base, rates, Instant.now(), date);
+    }
+
+    /**
+     * Returns the rate from the base currency to the given currency index.
+     *
+     * @return The rate, or NaN if the provider did not quote it
+     */
+    public double rate(int quote) {
+        if (quote == base) {
+            return 1.0;
+        }
+        return quote >= 0 && quote < rates.length ? rates[quote] : Double.NaN;
+    }
+
+    /**
+     * Returns the rate from the base currency to the given currency code.
+     *
+     * @return The rate, or NaN if the provider did not quote it
+     */
+    public double rate(String quote) {
+        return rate(CurrencyIndex.find(quote));
+    }
+
+    /**
+     * Extracts the requested symbols from the table.
+     *
+     * @param symbols Target currency codes (e.g., ["USD", "NZD"])
+     * @return The quoted symbols and their rates; unquoted symbols are left out
+     */
+    public RateVector select(List<String> symbols) {
+        return select(RateVector.indices(symbols));
+    }
+
+    /**
+     * Extracts the requested currency indices from the table without boxing.
+     *
+     * @param quotes Currency indices of the target currencies
+     * @return The quoted currencies and their rates in the order of
+     *         {@code quotes}; unquoted currencies are left out
+     */
+    public RateVector select(int[] quotes) {
+        RateVector.Builder selected = RateVector.builder(quotes.length);
+        for (int quote : quotes) {
+            selected.put(quote, rate(quote));
+        }
+        return selected.build();
+    }
+
+    /**
+     * Collects rates into a primitive table for a snapshot.
+     */
+    public static final class Builder {
+        private final int base;
+        private double[] rates;
+        private LocalDate date;
+
+        private Builder(int base) {
+            this.base = base;
+            this.rates = newTable(Math.max(CurrencyIndex.size(), base + 1));
+        }
+
+        /**
+         * Adds the rate from the base currency to a currency code.
+         */
+        public Builder put(String quote, double rate) {
+            return put(CurrencyIndex.of(quote), rate);
+        }
+
+        /**
+         * Adds the rate from the base currency to a currency index.
+         */
+        public Builder put(int index, double rate) {
+            if (index >= rates.length) {
+                int previous = rates.length;
+                rates = Arrays.copyOf(rates, Math.max(index + 1, previous * 2));
+                Arrays.fill(rates, previous, rates.length, Double.NaN);
+            }
+            rates[index] = rate;
+            return this;
+        }
+
+        /**
+         * Sets the date the provider published the rates for.
+         */
+        public Builder date(LocalDate date) {
+            this.date = date;
+            return this;
+        }
+
+        public RateSnapshot build() {
+            return new RateSnapshot(base, rates, Instant.now(), date);
+        }
+
+        private static double[] newTable(int size) {
+            double[] table = new double[size];
+            Arrays.fill(table, Double.NaN);
+            return table;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.stereotype.Component;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the latest full rate table per provider and base currency, so any
+ * currency pair can be answered without network I/O once a table covering it
+ * has been downloaded. Pairs for a base that has not been loaded are derived
+ * through cross rates, e.g. USD to NZD = (EUR to NZD) / (EUR to USD).
+ *
+ * A table stamped with its publication date by a provider with a known
+ * {@link PublishSchedule} stays valid until the provider's next publication,
+ * and a provider that is late with it is rechecked at a short interval. Other
+ * tables are valid for the configured TTL.
+ */
+@Component
+public class RateSnapshotStore {
+    private final Map<String, Map<String, Stored>> snapshots = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration recheckInterval;
+
+    /** @param properties Exchange settings (snapshot TTL and recheck interval) */
+    public RateSnapshotStore(ExchangeProperties properties) {
+        this.ttl = properties.getSnapshot().getTtl();
+        this.recheckInterval = properties.getSnapshot().getRecheckInterval();
+    }
+
+    /**
+     * Stores a provider's table for the configured TTL, replacing the previous
+     * one for the same base.
+     *
+     * @param provider Name of the API that published the table
+     * @param snapshot Full rate table for one base currency
+     */
+    public void put(String provider, RateSnapshot snapshot) {
+        put(provider, snapshot, null);
+    }
+
+    /**
+     * Stores a provider's table, replacing the previous one for the same base.
+     * If the table has a publication date and the provider a schedule, the
+     * table is valid until the next publication, or for the recheck interval
+     * if that publication is already due.
+     *
+     * @param provider Name of the API that published the table
+     * @param snapshot Full rate table for one base currency
+     * @param schedule When the provider publishes new rates, or null if unknown
+     */
+    public void put(String provider, RateSnapshot snapshot, PublishSchedule schedule) {
+        Instant validUntil = snapshot.fetchedAt().plus(ttl);
+        if (schedule != null && snapshot.date() != null) {
+            Instant next = schedule.nextAfter(snapshot.date());
+            Instant recheck = snapshot.fetchedAt().plus(recheckInterval);
+            validUntil = next.isAfter(recheck) ? next : recheck;
+        }
+        snapshots.computeIfAbsent(provider, _ -> new ConcurrentHashMap<>())
+                .put(snapshot.base(), new Stored(snapshot, validUntil));
+    }
+
+    /**
+     * Returns until when a provider's table for a base answers requests.
+     *
+     * @return The end of the table's validity, or null if no valid table for
+     *         the base is stored
+     */
+    public Instant validUntil(String provider, String base) {
+        Map<String, Stored> tables = snapshots.get(provider);
+        Stored stored = tables != null ? tables.get(base) : null;
+        return stored != null && stored.isValid(Instant.now()) ? stored.validUntil() : null;
+    }
+
+    /**
+     * Answers a request from a provider's fresh tables.
+     * A table for the base itself is used directly; otherwise any table quoting
+     * both the base and every symbol is used to derive cross rates.
+     *
+     * @param provider Name of the API whose tables to use
+     * @param base     Base currency code (e.g., "USD")
+     * @param symbols  Target currency codes (e.g., ["NZD"])
+     * @return The rates, or null if no fresh table can answer the request
+     */
+    public RateVector derive(String provider, String base, List<String> symbols) {
+        return derive(provider, base, RateVector.indices(symbols));
+    }
+
+    /**
+     * Answers a request for currency indices from a provider's fresh tables,
+     * like {@link #derive(String, String, List)}.
+     *
+     * @param provider Name of the API whose tables to use
+     * @param base     Base currency code (e.g., "USD")
+     * @param quotes   Currency indices of the target currencies
+     * @return The rates in the order of {@code quotes}, or null if no fresh
+     *         table can answer the request
+     */
+    public RateVector derive(String provider, String base, int[] quotes) {
+        Map<String, Stored> tables = snapshots.get(provider);
+        if (tables == null) {
+            return null;
+        }
+
+        Instant now = Instant.now();
+        Stored direct = tables.get(base);
+        if (direct != null && direct.isValid(now)) {
+            return direct.snapshot().select(quotes);
+        }
+
+        int baseIndex = CurrencyIndex.find(base);
+        if (baseIndex < 0) {
+            return null;
+        }
+
+        for (Stored table : tables.values()) {
+            if (table.isValid(now)) {
+                RateVector derived = crossRates(table.snapshot(), baseIndex, quotes);
+                if (derived != null) {
+                    return derived;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derives base to quote rates from a table with a different base.
+     *
+     * @return The cross rates, or null if the table lacks the base or a quote
+     */
+    private static RateVector crossRates(RateSnapshot table, int base, int[] quotes) {
+        double baseRate = table.rate(base);
+        if (Double.isNaN(baseRate) || baseRate == 0) {
+            return null;
+        }
+        RateVector.Builder derived = RateVector.builder(quotes.length);
+        for (int quote : quotes) {
+            double quoteRate = table.rate(quote);
+            if (Double.isNaN(quoteRate)) {
+                return null;
+            }
+            derived.put(quote, quoteRate / baseRate);
+        }
+        return derived.build();
+    }
+
+    /**
+     * A stored table and the end of its validity.
+     */
+    private record Stored(RateSnapshot snapshot, Instant validUntil) {
+        private boolean isValid(Instant now) {
+            return now.isBefore(validUntil);
+        }
+    }
+}
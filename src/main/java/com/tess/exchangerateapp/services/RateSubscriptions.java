@@ -0,0 +1,235 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Pushes rate changes to subscribed clients, so dashboards can stream rates
+ * instead of polling /exchangeRates. Once per cycle, every base with open
+ * subscriptions is looked up once for the union of its subscribed symbols,
+ * and each subscriber is sent the rates that changed since its last event.
+ * The load per cycle therefore grows with the number of distinct bases, not
+ * with the number of subscribers.
+ *
+ * A rate counts as changed when it moved by more than the configured relative
+ * epsilon. The first event of a subscription carries all of its rates.
+ */
+@Service
+public class RateSubscriptions {
+    private static final Logger logger = LoggerFactory.getLogger(RateSubscriptions.class);
+    private final ExchangeService exchangeService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final double epsilon;
+    private final int maxSubscribers;
+    private final Duration timeout;
+
+    /**
+     * @param exchangeService Service used to look up the subscribed rates
+     * @param properties      Exchange settings (change epsilon, stream timeout
+     *                        and subscriber limit)
+     */
+    public RateSubscriptions(ExchangeService exchangeService, ExchangeProperties properties) {
+        this.exchangeService = exchangeService;
+        this.epsilon = properties.getSubscriptions().getEpsilon();
+        this.maxSubscribers = properties.getSubscriptions().getMaxSubscribers();
+        this.timeout = properties.getSubscriptions().getTimeout();
+    }
+
+    /**
+     * Subscribes to changes of rates. The listener is called from the publish
+     * cycle, one event at a time, and should not block for long. A listener
+     * that throws is unsubscribed.
+     *
+     * @param base     Base currency code (e.g., "EUR")
+     * @param symbols  Target currency codes in any case, possibly repeated
+     * @param listener Receives each rate update
+     * @return The subscription, to be closed when the client goes away
+     * @throws IllegalStateException If the maximum number of subscriptions is
+     *                               open
+     */
+    public Subscription subscribe(String base, List<String> symbols, Consumer<RateUpdate> listener) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many open rate streams");
+        }
+        List<String> quotes = new ArrayList<>(new LinkedHashSet<>(symbols.stream().map(String::toUpperCase).toList()));
+        Subscription subscription = new Subscription(base.toUpperCase(), quotes, listener);
+        subscriptions.add(subscription);
+        logger.debug("Subscribed to base={}, symbols={}", subscription.base, quotes);
+        return subscription;
+    }
+
+    /** Returns the number of open subscriptions */
+    public int size() {
+        return subscriptions.size();
+    }
+
+    /** Returns how long a stream stays open before the client has to reconnect */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Runs one publish cycle: each subscribed base is looked up once, with
+     * bases in parallel, and the changes are sent to its subscribers. The
+     * cycle waits for all bases before the next one is scheduled.
+     *
+     * @return Number of events sent
+     */
+    @Scheduled(fixedDelayString = "${exchange.subscriptions.interval:1s}",
+            initialDelayString = "${exchange.subscriptions.interval:1s}")
+    public int publishChanges() {
+        if (subscriptions.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<Subscription>> byBase = new HashMap<>();
+        for (Subscription subscription : subscriptions) {
+            byBase.computeIfAbsent(subscription.base, _ -> new ArrayList<>()).add(subscription);
+        }
+
+        List<Callable<Integer>> publishes = byBase.entrySet().stream()
+                .<Callable<Integer>>map(entry -> () -> publish(entry.getKey(), entry.getValue()))
+                .toList();
+
+        int sent = 0;
+        try {
+            for (Future<Integer> result : executor.invokeAll(publishes)) {
+                if (result.state() == Future.State.SUCCESS) {
+                    sent += result.resultNow();
+                }
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+        return sent;
+    }
+
+    /**
+     * Looks up the union of the symbols subscribed for one base and offers the
+     * rates to each of its subscribers.
+     */
+    private int publish(String base, List<Subscription> subscribers) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (Subscription subscription : subscribers) {
+            symbols.addAll(subscription.symbols);
+        }
+
+        RateVector rates;
+        try {
+            rates = RateVector.of(exchangeService.lookup(base, List.copyOf(symbols)).rates());
+        } catch (RuntimeException error) {
+            logger.warn("Could not look up subscribed rates for base={}: {}", base, error.getMessage());
+            return 0;
+        }
+
+        int sent = 0;
+        for (Subscription subscription : subscribers) {
+            if (subscription.offer(rates, epsilon)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Stops running publish cycles when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A pushed set of changed rates.
+     * Example: {"base": "EUR", "rates": {"USD": 1.078588}}
+     *
+     * @param base  Base currency code
+     * @param rates The rates that changed, by currency code
+     */
+    public record RateUpdate(String base, Map<String, Double> rates) {
+    }
+
+    /**
+     * One client's subscription to a base and symbols. Remembers the rates last
+     * sent, so only changes are pushed.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final String base;
+        private final List<String> symbols;
+        private final int[] quotes;
+        private final double[] sent;
+        private final Consumer<RateUpdate> listener;
+
+        private Subscription(String base, List<String> symbols, Consumer<RateUpdate> listener) {
+            this.base = base;
+            this.symbols = symbols;
+            this.quotes = RateVector.indices(symbols);
+            this.sent = new double[quotes.length];
+            this.listener = listener;
+            Arrays.fill(sent, Double.NaN);
+        }
+
+        /**
+         * Sends the rates that moved by more than the relative epsilon since
+         * the last event. The rates count as sent only once the listener has
+         * accepted them.
+         *
+         * @return Whether an event was sent
+         */
+        private synchronized boolean offer(RateVector rates, double epsilon) {
+            RateVector.Builder builder = RateVector.builder(quotes.length);
+            for (int i = 0; i < quotes.length; i++) {
+                double rate = quotes[i] < 0 ? Double.NaN : rates.rateOf(quotes[i]);
+                if (!Double.isNaN(rate)
+                        && (Double.isNaN(sent[i]) || Math.abs(rate - sent[i]) > epsilon * Math.abs(sent[i]))) {
+                    builder.put(quotes[i], rate);
+                }
+            }
+            if (builder.size() == 0 || !subscriptions.contains(this)) {
+                return false;
+            }
+
+            RateVector changed = builder.build();
+            try {
+                listener.accept(new RateUpdate(base, changed));
+            } catch (RuntimeException error) {
+                logger.debug("Dropping subscription for base={} after failed send: {}", base, error.getMessage());
+                close();
+                return false;
+            }
+            for (int i = 0; i < quotes.length; i++) {
+                double rate = quotes[i] < 0 ? Double.NaN : changed.rateOf(quotes[i]);
+                if (!Double.isNaN(rate)) {
+                    sent[i] = rate;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ends the subscription. No further events are sent.
+         */
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
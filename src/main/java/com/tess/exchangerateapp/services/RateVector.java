@@ -0,0 +1,323 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable, compact set of exchange rates: a {@link CurrencyIndex} array and
+ * a parallel {@code double[]} of rates, in insertion order. The hot path
+ * (selecting from rate tables, averaging, caching and writing the response)
+ * works on the arrays directly, so no rate is boxed. The class is also a
+ * read-only {@code Map<String, Double>} view for callers of the map based
+ * API; only those callers pay for boxing.
+ *
+ * JSON serialization writes the arrays straight to the generator as an object
+ * of currency codes to rates, the same shape as a serialized map.
+ */
+@JsonSerialize(using = RateVector.Serializer.class)
+public final class RateVector extends AbstractMap<String, Double> {
+    private static final RateVector EMPTY = new RateVector(new int[0], new double[0], 0);
+
+    private final int[] currencies;
+    private final double[] rates;
+    private final int size;
+
+    private RateVector(int[] currencies, double[] rates, int size) {
+        this.currencies = currencies;
+        this.rates = rates;
+        this.size = size;
+    }
+
+    /** Returns a vector without rates */
+    public static RateVector empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Starts building a vector.
+     *
+     * @param capacity Expected number of rates; the builder grows if needed
+     */
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    /**
+     * Returns the rates of a map as a vector. A vector is returned as is.
+     */
+    public static RateVector of(Map<String, Double> rates) {
+        if (rates instanceof RateVector vector) {
+            return vector;
+        }
+        if (rates == null || rates.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(rates.size());
+        rates.forEach((code, rate) -> {
+            if (rate != null) {
+                builder.put(CurrencyIndex.of(code), rate);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Returns the currency indices of the given codes, e.g. the symbols of a
+     * request, to select and average vectors by. Only three-letter codes are
+     * interned, so arbitrary request input cannot grow the index without
+     * bound; other codes map to -1 and match no rate unless
+     * {@link CurrencyRegistry} or a parsed rate table has interned them.
+     */
+    public static int[] indices(List<String> codes) {
+        int[] indices = new int[codes.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = index(codes.get(i));
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the currency index of one code, like {@link #indices(List)}.
+     *
+     * @return The index, or -1 for an unknown code that is not interned
+     */
+    public static int index(String code) {
+        return CurrencyIndex.isWellFormed(code) ? CurrencyIndex.of(code) : CurrencyIndex.find(code);
+    }
+
+    /**
+     * Averages the vectors of several API responses. Each quote is averaged
+     * over the responses that contain it; quotes that no response contains are
+     * left out. Vectors selected for the same quotes line up with them, so the
+     * common case is a single pass over each array.
+     *
+     * @param vectors Rates from the different APIs
+     * @param quotes  Currency indices of the requested symbols
+     * @return The averaged rates in the order of {@code quotes}
+     */
+    public static RateVector average(List<RateVector> vectors, int[] quotes) {
+        double[] sums = new double[quotes.length];
+        int[] counts = new int[quotes.length];
+        for (RateVector vector : vectors) {
+            int position = 0;
+            for (int i = 0; i < vector.size; i++) {
+                position = indexOf(quotes, vector.currencies[i], position);
+                if (position >= 0) {
+                    sums[position] += vector.rates[i];
+                    counts[position]++;
+                    position++;
+                } else {
+                    position = 0;
+                }
+            }
+        }
+
+        Builder average = new Builder(quotes.length);
+        for (int i = 0; i < quotes.length; i++) {
+            if (counts[i] > 0) {
+                average.put(quotes[i], sums[i] / counts[i]);
+            }
+        }
+        return average.build();
+    }
+
+    /**
+     * Finds a currency index in {@code quotes}, starting at {@code from} and
+     * wrapping around, so lookups in aligned vectors take one step.
+     *
+     * @return The position, or -1 if the currency is not requested
+     */
+    private static int indexOf(int[] quotes, int currency, int from) {
+        for (int step = 0; step < quotes.length; step++) {
+            int position = from + step;
+            if (position >= quotes.length) {
+                position -= quotes.length;
+            }
+            if (quotes[position] == currency) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the number of rates */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns the currency index of the i-th rate */
+    public int currency(int i) {
+        return currencies[i];
+    }
+
+    /** Returns the currency code of the i-th rate */
+    public String code(int i) {
+        return CurrencyIndex.code(currencies[i]);
+    }
+
+    /** Returns the i-th rate */
+    public double rate(int i) {
+        return rates[i];
+    }
+
+    /**
+     * Returns the rate for a currency index.
+     *
+     * @return The rate, or NaN if the vector has no rate for the currency
+     */
+    public double rateOf(int currency) {
+        for (int i = 0; i < size; i++) {
+            if (currencies[i] == currency) {
+                return rates[i];
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public Double get(Object code) {
+        if (!(code instanceof String string)) {
+            return null;
+        }
+        int currency = CurrencyIndex.find(string);
+        double rate = currency < 0 ? Double.NaN : rateOf(currency);
+        return Double.isNaN(rate) ? null : rate;
+    }
+
+    @Override
+    public boolean containsKey(Object code) {
+        return get(code) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Double>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Double>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, Double> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int i = next++;
+                        return new SimpleImmutableEntry<>(code(i), rates[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Collects rates for a vector. A currency added twice keeps its last rate.
+     * The built vector shares the builder's arrays, so a builder must not be
+     * used after {@link #build()}.
+     */
+    public static final class Builder {
+        private int[] currencies;
+        private double[] rates;
+        private int size;
+
+        private Builder(int capacity) {
+            this.currencies = new int[Math.max(1, capacity)];
+            this.rates = new double[currencies.length];
+        }
+
+        /**
+         * Adds the rate for a currency index. NaN rates are ignored.
+         */
+        public Builder put(int currency, double rate) {
+            if (Double.isNaN(rate)) {
+                return this;
+            }
+            for (int i = 0; i < size; i++) {
+                if (currencies[i] == currency) {
+                    rates[i] = rate;
+                    return this;
+                }
+            }
+            if (size == currencies.length) {
+                currencies = Arrays.copyOf(currencies, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+            currencies[size] = currency;
+            rates[size] = rate;
+            size++;
+            return this;
+        }
+
+        /**
+         * Adds all rates of another vector.
+         */
+        public Builder putAll(RateVector vector) {
+            for (int i = 0; i < vector.size; i++) {
+                put(vector.currencies[i], vector.rates[i]);
+            }
+            return this;
+        }
+
+        /** Returns the number of rates added so far */
+        public int size() {
+            return size;
+        }
+
+        /** Returns whether the builder has a rate for a currency index */
+        public boolean contains(int currency) {
+            for (int i = 0; i < size; i++) {
+                if (currencies[i] == currency) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public RateVector build() {
+            return size == 0 ? EMPTY : new RateVector(currencies, rates, size);
+        }
+    }
+
+    /**
+     * Writes a vector as a JSON object of currency codes to rates, reading the
+     * arrays directly.
+     */
+    static final class Serializer extends StdSerializer<RateVector> {
+        Serializer() {
+            super(RateVector.class);
+        }
+
+        @Override
+        public void serialize(RateVector vector, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(vector, vector.size);
+            for (int i = 0; i < vector.size; i++) {
+                generator.writeFieldName(vector.code(i));
+                generator.writeNumber(vector.rates[i]);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
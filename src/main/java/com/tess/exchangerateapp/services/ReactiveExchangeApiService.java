@@ -0,0 +1,48 @@
+package com.tess.exchangerateapp.services;
+
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link ExchangeApiService}, used by the
+ * {@link ReactiveExchangeService} in the reactive serving mode.
+ */
+public interface ReactiveExchangeApiService {
+    /**
+     * Returns the name of the exchange rate API service
+     */
+    String getName();
+
+    /**
+     * Fetches the full rate table published for a base currency.
+     *
+     * @param base the base currency code (e.g. "EUR")
+     * @return a Mono emitting the table, completing empty if the API has no
+     *         rates for the base, or failing if the API could not be reached
+     */
+    Mono<RateSnapshot> getSnapshot(String base);
+
+    /**
+     * Returns when the API publishes new rates, like
+     * {@link ExchangeApiService#publishSchedule()}.
+     *
+     * @return the schedule, or null if the API publishes at no fixed time
+     */
+    default PublishSchedule publishSchedule() {
+        return null;
+    }
+
+    /**
+     * Fetches exchange rates for the given base currency and target symbols
+     *
+     * @param base    the base currency code (e.g. "EUR")
+     * @param symbols list of target currency codes to get rates for (e.g. ["USD",
+     *                "NZD"])
+     * @return a Mono emitting the rates found, completing empty if the API has no
+     *         rates for the base, or failing if the API could not be reached
+     */
+    default Mono<Map<String, Double>> getRates(String base, List<String> symbols) {
+        return getSnapshot(base).map(snapshot -> snapshot.select(symbols));
+    }
+}
@@ -0,0 +1,372 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reactive counterpart of {@link ExchangeService}, used in the reactive
+ * serving mode. Cached rates are answered at once; missing symbols are
+ * fetched from every API concurrently as merged {@link Mono}s under a single
+ * deadline, averaged and cached. No thread is blocked while the APIs respond.
+ * Lookups that miss the cache are admitted under the same adaptive
+ * concurrency limit as in the blocking stack, and shed once it is reached.
+ *
+ * The rate cache, stored rate tables and metrics are shared with the
+ * blocking stack, so background refresh keeps the cache warm in both modes
+ * and both report the same metrics.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveExchangeService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExchangeService.class);
+    private final List<ReactiveExchangeApiService> apis;
+    private final RateCache cache;
+    private final RateSnapshotStore snapshots;
+    private final MetricsService metrics;
+    private final Map<String, Mono<RateVector>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ExchangeProperties.Breaker breakerSettings;
+    private final Duration deadline;
+    private final Duration cacheTtl;
+    private final ConcurrencyLimiter limiter;
+    private final Duration retryAfter;
+
+    /**
+     * @param apis       List of non-blocking exchange rate API implementations
+     * @param metrics    Service for recording API usage metrics
+     * @param cache      Per currency pair cache of averaged rates
+     * @param snapshots  Full rate tables per API, used to derive rates locally
+     * @param properties Exchange settings (upstream deadline, breakers and miss
+     *                   limit)
+     */
+    public ReactiveExchangeService(List<ReactiveExchangeApiService> apis, MetricsService metrics, RateCache cache,
+            RateSnapshotStore snapshots, ExchangeProperties properties) {
+        this.apis = apis;
+        this.metrics = metrics;
+        this.cache = cache;
+        this.snapshots = snapshots;
+        this.breakerSettings = properties.getBreaker();
+        this.deadline = properties.getUpstream().getDeadline();
+        this.cacheTtl = properties.getCache().getTtl();
+        this.limiter = metrics.registerMissLimiter(
+                properties.getLimiter().isEnabled() ? new ConcurrencyLimiter(properties.getLimiter()) : null);
+        this.retryAfter = properties.getLimiter().getRetryAfter();
+    }
+
+    /**
+     * Gets exchange rates for the specified currencies, and reports which of
+     * them are last known rates served because no API could be reached.
+     * Behaves like {@link ExchangeService#lookup(String, List)}.
+     *
+     * @param base    Base currency code (e.g., "EUR")
+     * @param symbols List of target currency codes (e.g., ["USD", "NZD"])
+     * @return Mono emitting the rates and the ages of the stale ones, or
+     *         signalling {@link OverloadedException} if a symbol is missing
+     *         from the cache, the miss limit is reached and the symbol has no
+     *         last known rate
+     */
+    public Mono<ExchangeService.RateLookup> lookup(String base, List<String> symbols) {
+        RateVector.Builder rates = RateVector.builder(symbols.size());
+        List<String> missing = readCached(base, symbols, rates);
+        metrics.recordCacheHits(rates.size());
+        metrics.recordCacheMisses(missing.size());
+
+        if (missing.isEmpty()) {
+            return Mono.just(new ExchangeService.RateLookup(rates.build(), Map.of()));
+        }
+
+        return fetchLimited(base, missing).map(fetched -> {
+            rates.putAll(fetched);
+            Map<String, Duration> stale = new HashMap<>();
+            for (String quote : missing) {
+                int currency = RateVector.index(quote);
+                RateCache.KnownRate known = currency < 0 || rates.contains(currency) ? null
+                        : cache.getLastKnown(base, quote);
+                if (known != null) {
+                    rates.put(currency, known.rate());
+                    stale.put(quote, known.age());
+                }
+            }
+            if (!stale.isEmpty()) {
+                logger.warn("Serving last known rates for base={}, symbols={}", base, stale.keySet());
+            }
+            return new ExchangeService.RateLookup(rates.build(), stale.isEmpty() ? Map.of() : stale);
+        });
+    }
+
+    /**
+     * Fetches symbols that missed the cache under the adaptive miss limit,
+     * like the blocking service. The permit is taken on subscription and given
+     * back once the fetch completes, fails or is cancelled.
+     *
+     * @return Mono emitting the fetched rates, or an empty vector if the
+     *         lookup was not admitted but every symbol has a last known rate
+     */
+    private Mono<RateVector> fetchLimited(String base, List<String> missing) {
+        if (limiter == null) {
+            return fetchShared(base, missing);
+        }
+        return Mono.defer(() -> {
+            if (!limiter.tryAcquire()) {
+                boolean servedStale = missing.stream().allMatch(quote -> cache.getLastKnown(base, quote) != null);
+                metrics.recordMissRejected(servedStale);
+                if (!servedStale) {
+                    return Mono.error(new OverloadedException(
+                            "Too many lookups are waiting on the exchange rate APIs", retryAfter));
+                }
+                return Mono.just(RateVector.empty());
+            }
+
+            long start = System.nanoTime();
+            AtomicBoolean finished = new AtomicBoolean();
+            return fetchShared(base, missing)
+                    .doOnTerminate(() -> {
+                        if (finished.compareAndSet(false, true)) {
+                            limiter.onComplete(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (finished.compareAndSet(false, true)) {
+                            limiter.onCancelled();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Fetches the missing symbols, coalescing concurrent identical misses into
+     * one cached Mono that is dropped once it completes.
+     */
+    private Mono<RateVector> fetchShared(String base, List<String> missing) {
+        String key = base + ":" + String.join(",", missing.stream().sorted().toList());
+        return inFlight.computeIfAbsent(key, _ -> fetchAndCache(base, missing)
+                .doFinally(_ -> inFlight.remove(key))
+                .cache());
+    }
+
+    /**
+     * Queries the APIs for the given symbols, averages the results and stores
+     * them in the cache, valid for as long as the rate tables they were
+     * averaged from. Symbols a previous flight cached in the meantime are
+     * served from the cache instead.
+     */
+    private Mono<RateVector> fetchAndCache(String base, List<String> symbols) {
+        return Mono.defer(() -> {
+            RateVector.Builder rates = RateVector.builder(symbols.size());
+            List<String> missing = readCached(base, symbols, rates);
+            if (missing.isEmpty()) {
+                return Mono.just(rates.build());
+            }
+
+            int[] quotes = RateVector.indices(missing);
+            return fetchAll(base, missing, quotes).map(results -> {
+                if (results.isEmpty()) {
+                    logger.warn("No results obtained from any API for base={}, symbols={}", base, missing);
+                    return rates.build();
+                }
+                RateVector averaged = RateVector.average(results, quotes);
+                Duration ttl = ttlFor(base);
+                for (int i = 0; i < averaged.size(); i++) {
+                    cache.put(base, averaged.code(i), averaged.rate(i), ttl);
+                }
+                return rates.putAll(averaged).build();
+            });
+        });
+    }
+
+    /**
+     * Returns how long rates for a base stay current, like in
+     * {@link ExchangeService}: until the earliest end of the APIs' dated rate
+     * tables if every API publishes on a schedule, otherwise the configured
+     * cache TTL.
+     */
+    private Duration ttlFor(String base) {
+        Instant validUntil = null;
+        for (ReactiveExchangeApiService api : apis) {
+            Instant until = api.publishSchedule() != null ? snapshots.validUntil(api.getName(), base) : null;
+            if (until == null) {
+                return cacheTtl;
+            }
+            if (validUntil == null || until.isBefore(validUntil)) {
+                validUntil = until;
+            }
+        }
+        if (validUntil == null) {
+            return cacheTtl;
+        }
+        Duration ttl = Duration.between(Instant.now(), validUntil);
+        return ttl.isNegative() ? Duration.ZERO : ttl;
+    }
+
+    /**
+     * Queries every API at once and collects the answers that arrive before
+     * the deadline. Calls still running then are cancelled and left out.
+     *
+     * @return Mono emitting the non-empty rate vectors from the APIs that
+     *         answered in time
+     */
+    private Mono<List<RateVector>> fetchAll(String base, List<String> symbols, int[] quotes) {
+        return Flux.fromIterable(apis)
+                .flatMap(api -> fetch(api, base, symbols, quotes))
+                .filter(response -> !response.isEmpty())
+                .take(deadline)
+                .collectList();
+    }
+
+    /**
+     * Gets rates from a single API. Rates are derived from the API's stored rate
+     * tables when possible; otherwise the API's full table for the base is
+     * fetched and stored. An API that recently answered without quoting any of
+     * the symbols is not called, and symbols its table leaves out, or a base it
+     * has no table for, are remembered as not quoted. Network calls go through
+     * the API's circuit breaker, and request/response metrics, failures,
+     * rejections and latency are recorded for them.
+     *
+     * @return Mono emitting the API's rates, or an empty vector if the call
+     *         failed or was rejected
+     */
+    private Mono<RateVector> fetch(ReactiveExchangeApiService api, String base, List<String> symbols,
+            int[] quotes) {
+        return Mono.defer(() -> {
+            String name = api.getName();
+            RateVector derived = snapshots.derive(name, base, quotes);
+            if (derived != null) {
+                return Mono.just(derived);
+            }
+            if (notQuotedByApi(api, base, symbols)) {
+                return Mono.just(RateVector.empty());
+            }
+
+            CircuitBreaker breaker = breakerFor(name);
+            CircuitBreaker.Permit permit = breaker.tryAcquire();
+            if (!permit.granted()) {
+                metrics.recordRejected(name);
+                return Mono.just(RateVector.empty());
+            }
+
+            metrics.recordRequest(name);
+            long start = System.nanoTime();
+            AtomicBoolean finished = new AtomicBoolean();
+            AtomicBoolean failed = new AtomicBoolean();
+            return api.getSnapshot(base)
+                    .doOnNext(snapshot -> snapshots.put(name, snapshot, api.publishSchedule()))
+                    .map(snapshot -> {
+                        RateVector response = snapshot.select(quotes);
+                        markNotQuoted(api, base, symbols, response);
+                        return response;
+                    })
+                    .switchIfEmpty(Mono.fromRunnable(() -> cache.markNotQuoted(name, base)))
+                    .onErrorResume(error -> {
+                        logger.warn("Error calling {}: {}", name, error.getMessage());
+                        failed.set(true);
+                        return Mono.empty();
+                    })
+                    .defaultIfEmpty(RateVector.empty())
+                    .doOnSuccess(response -> {
+                        if (finished.compareAndSet(false, true)) {
+                            // An API that answered without quoting the symbols is still healthy
+                            if (failed.get()) {
+                                metrics.recordFailure(name);
+                                breaker.onFailure();
+                            } else {
+                                if (!response.isEmpty()) {
+                                    metrics.recordResponse(name);
+                                }
+                                breaker.onSuccess();
+                            }
+                            metrics.recordLatency(name, System.nanoTime() - start);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (finished.compareAndSet(false, true)) {
+                            logger.warn("{} did not respond within {} for base={}", name, deadline, base);
+                            breaker.onCancelled(permit);
+                            metrics.recordLatency(name, System.nanoTime() - start);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Copies the cached rates for the given symbols into {@code rates}.
+     * Symbols are upper-cased and deduplicated.
+     *
+     * @return The symbols that are not in the cache, except those no API
+     *         quoted when last asked
+     */
+    private List<String> readCached(String base, List<String> symbols, RateVector.Builder rates) {
+        List<String> missing = new ArrayList<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            String quote = symbol.toUpperCase();
+            int currency = RateVector.index(quote);
+            double cached = currency < 0 ? Double.NaN : cache.getRate(base, quote);
+            if (!Double.isNaN(cached)) {
+                rates.put(currency, cached);
+            } else if (!missing.contains(quote) && !notQuotedByAny(base, quote)) {
+                missing.add(quote);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Returns whether every API recently answered for a base without quoting a
+     * currency, so asking again would only cost upstream calls.
+     */
+    private boolean notQuotedByAny(String base, String quote) {
+        if (apis.isEmpty()) {
+            return false;
+        }
+        for (ReactiveExchangeApiService api : apis) {
+            if (!cache.isNotQuoted(api.getName(), base, quote)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether an API recently answered for a base without quoting any
+     * of the symbols.
+     */
+    private boolean notQuotedByApi(ReactiveExchangeApiService api, String base, List<String> symbols) {
+        for (String symbol : symbols) {
+            if (!cache.isNotQuoted(api.getName(), base, symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remembers the requested symbols an API's table did not quote.
+     */
+    private void markNotQuoted(ReactiveExchangeApiService api, String base, List<String> symbols,
+            RateVector response) {
+        for (String symbol : symbols) {
+            int currency = RateVector.index(symbol);
+            if (currency < 0 || Double.isNaN(response.rateOf(currency))) {
+                cache.markNotQuoted(api.getName(), base, symbol);
+            }
+        }
+    }
+
+    private CircuitBreaker breakerFor(String api) {
+        CircuitBreaker breaker = breakers.get(api);
+        return breaker != null ? breaker : breakers.computeIfAbsent(api, _ -> new CircuitBreaker(breakerSettings));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking implementation for fetching exchange rates from the Fawaz API,
+ * used in the reactive serving mode.
+ * Primary: cdn.jsdelivr.net
+ * Fallback: currency-api.pages.dev
+ */
+@Service
+@Profile("reactive")
+public class ReactiveFawazApiService implements ReactiveExchangeApiService {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveFawazApiService.class);
+    private final MetricsService metrics;
+    private final ReactiveUpstreamClient client;
+
+    /**
+     * @param metrics Service for recording fallback usage
+     * @param client  Shared non-blocking HTTP client for upstream calls
+     */
+    public ReactiveFawazApiService(MetricsService metrics, ReactiveUpstreamClient client) {
+        this.metrics = metrics;
+        this.client = client;
+    }
+
+    @Override
+    public String getName() {
+        return "fawazApi";
+    }
+
+    @Override
+    public PublishSchedule publishSchedule() {
+        return PublishSchedule.DAILY_UTC;
+    }
+
+    /**
+     * Fetches the full rate table for the specified base currency.
+     * Fetches from the primary URL first and switches to the fallback URL if the
+     * primary fails or has no rates for the base. If either URL answered that it
+     * has no table for the base, the base is not quoted.
+     *
+     * @param base The base currency code (e.g., "EUR")
+     * @return Mono emitting the full rate table, completing empty if Fawaz does
+     *         not quote the base
+     */
+    @Override
+    public Mono<RateSnapshot> getSnapshot(String base) {
+        String baseLower = base.toLowerCase();
+        return Mono.defer(() -> {
+            AtomicBoolean primaryAnswered = new AtomicBoolean(true);
+            Mono<RateSnapshot> fallback = Mono.defer(() -> {
+                metrics.recordFallback(getName());
+                return fetchSnapshot(String.format(FawazApiService.FALLBACK_URL, baseLower), base);
+            }).onErrorResume(error -> primaryAnswered.get() || isClientError(error), error -> Mono.empty());
+
+            return fetchSnapshot(String.format(FawazApiService.PRIMARY_URL, baseLower), base)
+                    .onErrorResume(error -> {
+                        primaryAnswered.set(isClientError(error));
+                        logger.warn("Primary Fawaz API failed, trying fallback URL. Error: {}", error.getMessage());
+                        return Mono.empty();
+                    })
+                    .switchIfEmpty(fallback);
+        });
+    }
+
+    private static boolean isClientError(Throwable error) {
+        return error instanceof UpstreamException upstream && upstream.isClientError();
+    }
+
+    private Mono<RateSnapshot> fetchSnapshot(String url, String base) {
+        return client.get(url, body -> FawazTableParser.parseSnapshot(body, base));
+    }
+}
@@ -0,0 +1,59 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+
+/**
+ * Non-blocking implementation for fetching exchange rates from the
+ * Frankfurter API, used in the reactive serving mode.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveFrankfurterApiService implements ReactiveExchangeApiService {
+    private static final ParameterizedTypeReference<FrankfurterApiService.FrankfurterResponse> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+    private final ReactiveUpstreamClient client;
+
+    /** @param client Shared non-blocking HTTP client for upstream calls */
+    public ReactiveFrankfurterApiService(ReactiveUpstreamClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public String getName() {
+        return "frankfurterApi";
+    }
+
+    @Override
+    public PublishSchedule publishSchedule() {
+        return PublishSchedule.ECB;
+    }
+
+    /**
+     * Fetches every rate Frankfurter publishes for the specified base currency.
+     *
+     * @param base The base currency code (e.g., "EUR")
+     * @return Mono emitting the full rate table, completing empty if Frankfurter
+     *         does not quote the base
+     */
+    @Override
+    public Mono<RateSnapshot> getSnapshot(String base) {
+        String url = String.format(FrankfurterApiService.TABLE_URL, base.toUpperCase());
+        return client.getJson(url, RESPONSE_TYPE)
+                .onErrorResume(error -> error instanceof UpstreamException upstream && upstream.isClientError(),
+                        error -> Mono.empty())
+                .filter(response -> response.rates() != null)
+                .map(response -> {
+                    RateSnapshot.Builder snapshot = RateSnapshot.builder(base);
+                    response.rates().forEach(snapshot::put);
+                    if (response.date() != null) {
+                        snapshot.date(LocalDate.parse(response.date()));
+                    }
+                    return snapshot.build();
+                });
+    }
+}
@@ -0,0 +1,113 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Shared non-blocking HTTP client for the upstream exchange rate APIs in the
+ * reactive serving mode. Requests run on the Netty event loops, so no thread
+ * waits for an upstream API, while rate table bodies are parsed on the
+ * parallel scheduler so that large tables do not stall the event loops. Like
+ * {@link UpstreamHttpClient}, connections are pooled per host and bounded,
+ * responses may be gzip-compressed and every call has connect, read and total
+ * timeouts.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUpstreamClient {
+    private final ConnectionProvider connections;
+    private final WebClient webClient;
+    private final Duration totalTimeout;
+
+    /**
+     * @param builder    Web client builder configured with the application's
+     *                   JSON codecs
+     * @param properties Exchange settings (HTTP timeouts and connection limit)
+     */
+    public ReactiveUpstreamClient(WebClient.Builder builder, ExchangeProperties properties) {
+        ExchangeProperties.Http http = properties.getHttp();
+        this.totalTimeout = http.getTotalTimeout();
+        this.connections = ConnectionProvider.builder("upstream")
+                .maxConnections(http.getMaxConnectionsPerHost())
+                .pendingAcquireTimeout(totalTimeout)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getReadTimeout())
+                .followRedirect(true)
+                .compress(true);
+        this.webClient = builder.clone().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    /**
+     * Fetches a URL and maps its JSON body to the given type.
+     *
+     * @param url  Absolute URL to GET
+     * @param type Target type of the JSON body
+     * @return Mono emitting the mapped body, or failing with an
+     *         {@link UpstreamException} or timeout
+     */
+    public <T> Mono<T> getJson(String url, ParameterizedTypeReference<T> type) {
+        return retrieve(url)
+                .bodyToMono(type)
+                .timeout(totalTimeout);
+    }
+
+    /**
+     * Fetches a URL and hands the complete (decompressed) response body to a
+     * parser as a stream. The body is read from the joined network buffers
+     * without copying it into an array, and parsed off the event loop.
+     *
+     * @param url    Absolute URL to GET
+     * @param parser Reads the body stream into a result, or null for no result
+     * @return Mono emitting the parsed result, empty if the parser returned
+     *         null, or failing with an {@link UpstreamException} or timeout
+     */
+    public <T> Mono<T> get(String url, UpstreamHttpClient.BodyParser<T> parser) {
+        return DataBufferUtils.join(retrieve(url).bodyToFlux(DataBuffer.class))
+                .publishOn(Schedulers.parallel())
+                .flatMap(buffer -> Mono.fromCallable(() -> {
+                    try (InputStream body = buffer.asInputStream(true)) {
+                        return parser.parse(body);
+                    }
+                }))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .timeout(totalTimeout);
+    }
+
+    private WebClient.ResponseSpec retrieve(String url) {
+        URI uri = URI.create(url);
+        return webClient.get()
+                .uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> Mono.error(new UpstreamException(
+                        uri.getHost() + " returned HTTP " + response.statusCode().value(),
+                        response.statusCode().value())));
+    }
+
+    /**
+     * Closes pooled connections on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        connections.dispose();
+    }
+}
@@ -0,0 +1,77 @@
+package com.tess.exchangerateapp.services;
+
+import java.time.Duration;
+
+/**
+ * Service provider interface for a second-level rate cache shared by all
+ * application instances, e.g. backed by Redis or Hazelcast. {@link RateCache}
+ * keeps its in-process cache as the first level and uses a shared cache, when
+ * one is configured, to:
+ * <ul>
+ * <li>read rates another instance already fetched instead of calling the
+ * upstream APIs again,</li>
+ * <li>publish the rates it fetched, stamped with a version that increases with
+ * every write, so other instances replace older copies they hold, and</li>
+ * <li>hold a lease-based fill lock, so only one instance fetches a missing key
+ * while the others wait for its result.</li>
+ * </ul>
+ *
+ * Times are wall-clock epoch milliseconds because they are compared across
+ * processes. Implementations must be thread-safe.
+ */
+public interface SharedRateCache {
+
+    /**
+     * Looks up the shared entry for a currency pair.
+     *
+     * @param base  Base currency code (e.g., "EUR")
+     * @param quote Target currency code (e.g., "USD")
+     * @return The entry, or null if no instance has stored the pair
+     */
+    SharedRate get(String base, String quote);
+
+    /**
+     * Stores a rate for a currency pair and notifies every subscribed instance.
+     *
+     * @param writtenAtMillis When the rate was fetched
+     * @param expiresAtMillis When the rate stops being served, e.g. the next
+     *                        publication of a daily table
+     * @return The version assigned to the write, higher than any earlier one
+     */
+    long put(String base, String quote, double rate, long writtenAtMillis, long expiresAtMillis);
+
+    /**
+     * Tries to take a fill lock without waiting.
+     *
+     * @param key   Lock name (e.g., "EUR:NZD,USD")
+     * @param lease How long the lock is held at most if it is never released,
+     *              e.g. because its holder died
+     * @return Whether the lock was taken
+     */
+    boolean tryLock(String key, Duration lease);
+
+    /**
+     * Releases a fill lock taken with {@link #tryLock(String, Duration)}.
+     */
+    void unlock(String key);
+
+    /**
+     * Registers a listener for writes by any instance, including this one.
+     */
+    void subscribe(UpdateListener listener);
+
+    /**
+     * A shared rate with the time it was fetched, the time it expires and its
+     * version.
+     */
+    record SharedRate(double rate, long writtenAtMillis, long expiresAtMillis, long version) {
+    }
+
+    /**
+     * Receives writes to the shared cache.
+     */
+    @FunctionalInterface
+    interface UpdateListener {
+        void updated(String base, String quote, SharedRate rate);
+    }
+}
@@ -0,0 +1,41 @@
+package com.tess.exchangerateapp.services;
+
+/**
+ * Thrown when a call to an upstream exchange rate API fails, either with an
+ * unexpected HTTP status or because it could not be completed.
+ */
+public class UpstreamException extends RuntimeException {
+    private final int statusCode;
+
+    /**
+     * @param message    Description of the failure
+     * @param statusCode HTTP status returned by the API, or 0 if there was none
+     */
+    public UpstreamException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @param message Description of the failure
+     * @param cause   The underlying error
+     */
+    public UpstreamException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+
+    /** Returns the HTTP status returned by the API, or 0 if there was none */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Returns whether the API answered that the request cannot be served, e.g.
+     * 404 for a base currency it has no table for. Such an answer means the
+     * API is healthy. Timeouts (408) and throttling (429) are not included.
+     */
+    public boolean isClientError() {
+        return statusCode / 100 == 4 && statusCode != 408 && statusCode != 429;
+    }
+}
@@ -0,0 +1,336 @@
+package com.tess.exchangerateapp.services;
+
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared non-blocking HTTP client for the upstream exchange rate APIs.
+ * Connections are kept alive and reused, HTTP/2 is used where the server
+ * offers it, responses may be gzip-compressed, and concurrent requests per host
+ * are bounded. Every call has connect, read and total timeouts.
+ *
+ * Conditional GETs remember the ETag and Last-Modified validators of each URL
+ * together with the parsed body, and send them back as If-None-Match and
+ * If-Modified-Since; a 304 Not Modified answer reuses the parsed body without
+ * reading a payload.
+ */
+@Component
+public class UpstreamHttpClient {
+    private static final int MAX_VALIDATED_URLS = 1_000;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final Cache<String, Validated> validated = Caffeine.newBuilder()
+            .maximumSize(MAX_VALIDATED_URLS)
+            .build();
+    private final int maxConnectionsPerHost;
+    private final Duration readTimeout;
+    private final Duration totalTimeout;
+
+    /**
+     * @param objectMapper JSON mapper used to read response bodies
+     * @param properties   Exchange settings (HTTP timeouts and connection limit)
+     */
+    public UpstreamHttpClient(ObjectMapper objectMapper, ExchangeProperties properties) {
+        ExchangeProperties.Http http = properties.getHttp();
+        this.objectMapper = objectMapper;
+        this.maxConnectionsPerHost = http.getMaxConnectionsPerHost();
+        this.readTimeout = http.getReadTimeout();
+        this.totalTimeout = http.getTotalTimeout();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(http.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Fetches a URL and maps its JSON body to the given type.
+     *
+     * @param url  Absolute URL to GET
+     * @param type Target type of the JSON body
+     * @return Future completing with the mapped body, or exceptionally with an
+     *         {@link UpstreamException} or timeout
+     */
+    public <T> CompletableFuture<T> getJson(String url, TypeReference<T> type) {
+        return get(url, body -> objectMapper.readValue(body, type));
+    }
+
+    /**
+     * Fetches a URL and hands the (decompressed) response body to a parser.
+     * The per-host permit is held until the parser has consumed the body.
+     *
+     * @param url    Absolute URL to GET
+     * @param parser Reads the body stream into a result
+     * @return Future completing with the parsed result, or exceptionally with an
+     *         {@link UpstreamException} or timeout
+     */
+    public <T> CompletableFuture<T> get(String url, BodyParser<T> parser) {
+        URI uri = URI.create(url);
+        return send(uri, request(uri), response -> read(uri, response, parser));
+    }
+
+    /**
+     * Fetches a URL like {@link #get(String, BodyParser)}, but conditionally:
+     * if an earlier response for the URL carried an ETag or Last-Modified
+     * header, they are sent back, and a 304 Not Modified answer is turned into
+     * the earlier parsed result without reading or parsing a body.
+     *
+     * @param url        Absolute URL to GET
+     * @param parser     Reads a changed body into a result
+     * @param revalidate Derives the result of a 304 from the earlier result,
+     *                   e.g. with a new fetch time
+     * @return Future completing with the parsed or revalidated result, or
+     *         exceptionally with an {@link UpstreamException} or timeout
+     */
+    public <T> CompletableFuture<T> getConditional(String url, BodyParser<T> parser, UnaryOperator<T> revalidate) {
+        URI uri = URI.create(url);
+        Validated previous = validated.getIfPresent(url);
+        HttpRequest.Builder request = request(uri);
+        if (previous != null) {
+            if (previous.etag() != null) {
+                request.header("If-None-Match", previous.etag());
+            }
+            if (previous.lastModified() != null) {
+                request.header("If-Modified-Since", previous.lastModified());
+            }
+        }
+
+        return send(uri, request, response -> {
+            if (response.statusCode() == 304 && previous != null) {
+                discard(response);
+                @SuppressWarnings("unchecked")
+                T unchanged = (T) previous.value();
+                return revalidate.apply(unchanged);
+            }
+            T result = read(uri, response, parser);
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+            if (result != null && (etag != null || lastModified != null)) {
+                validated.put(url, new Validated(etag, lastModified, result));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Fetches a URL conditionally like
+     * {@link #getConditional(String, BodyParser, UnaryOperator)} and maps a
+     * changed JSON body to the given type. A 304 returns the earlier object.
+     */
+    public <T> CompletableFuture<T> getJsonConditional(String url, TypeReference<T> type) {
+        return getConditional(url, body -> objectMapper.readValue(body, type), UnaryOperator.identity());
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET();
+    }
+
+    /**
+     * Sends a request once a per-host permit is free and applies the handler
+     * to the response. The returned future completes within the total
+     * timeout. The permit is held until it completes in any way, and is
+     * released exactly once. If it times out or is cancelled first, the
+     * exchange is cancelled and the response body is closed, so a stalled
+     * upstream cannot keep the permit.
+     */
+    private <T> CompletableFuture<T> send(URI uri, HttpRequest.Builder request,
+            Function<HttpResponse<InputStream>, T> handler) {
+        Semaphore permits = hostPermits.computeIfAbsent(uri.getHost() + ":" + uri.getPort(),
+                _ -> new Semaphore(maxConnectionsPerHost, true));
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean holdsPermit = new AtomicBoolean();
+        AtomicReference<CompletableFuture<HttpResponse<InputStream>>> exchange = new AtomicReference<>();
+        AtomicReference<HttpResponse<InputStream>> received = new AtomicReference<>();
+
+        result.orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((_, error) -> {
+            if (holdsPermit.compareAndSet(true, false)) {
+                permits.release();
+            }
+            if (error != null) {
+                abort(exchange.get(), received.get());
+            }
+        });
+
+        executor.execute(() -> {
+            try {
+                acquire(permits, uri);
+            } catch (UpstreamException error) {
+                result.completeExceptionally(error);
+                return;
+            }
+            holdsPermit.set(true);
+            if (result.isDone()) {
+                // Timed out or cancelled while waiting; the completion may have run before the permit was held
+                if (holdsPermit.compareAndSet(true, false)) {
+                    permits.release();
+                }
+                return;
+            }
+
+            CompletableFuture<HttpResponse<InputStream>> sent = client.sendAsync(request.build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            exchange.set(sent);
+            sent.thenApplyAsync(response -> {
+                received.set(response);
+                if (result.isDone()) {
+                    abort(null, response);
+                }
+                return handler.apply(response);
+            }, executor).whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+            if (result.isDone()) {
+                sent.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Cancels an exchange that is still waiting for response headers and
+     * closes a response body that is still being read.
+     */
+    private static void abort(CompletableFuture<?> exchange, HttpResponse<InputStream> response) {
+        if (exchange != null) {
+            exchange.cancel(true);
+        }
+        if (response != null) {
+            try {
+                response.body().close();
+            } catch (IOException ignored) {
+                // The exchange is abandoned; closing is best effort
+            }
+        }
+    }
+
+    /**
+     * Waits for an upstream call from a blocking caller. Interrupting the caller
+     * (e.g. when a request deadline passes) cancels the wait.
+     *
+     * @param call Future returned by this client
+     * @return The call's result
+     * @throws UpstreamException If the call failed, timed out or was interrupted
+     */
+    public static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException error) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted while waiting for upstream response", error);
+        } catch (ExecutionException error) {
+            if (error.getCause() instanceof UpstreamException upstream) {
+                throw upstream;
+            }
+            throw new UpstreamException("Upstream call failed: " + error.getCause(), error.getCause());
+        }
+    }
+
+    private void acquire(Semaphore permits, URI uri) {
+        try {
+            if (!permits.tryAcquire(totalTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new UpstreamException("No free connection to " + uri.getHost(), 0);
+            }
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException("Interrupted while waiting for a connection to " + uri.getHost(), error);
+        }
+    }
+
+    private <T> T read(URI uri, HttpResponse<InputStream> response, BodyParser<T> parser) {
+        if (response.statusCode() / 100 != 2) {
+            // Error bodies are drained undecoded, so a bad gzip body cannot hide the status
+            try {
+                discard(response);
+            } catch (UncheckedIOException ignored) {
+                // The status is what the caller needs; the connection is just not reused
+            }
+            throw new UpstreamException(uri.getHost() + " returned HTTP " + response.statusCode(),
+                    response.statusCode());
+        }
+        try (InputStream body = decode(response)) {
+            return parser.parse(body);
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private static void discard(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(response.body()) : response.body();
+    }
+
+    /**
+     * Closes pooled connections and stops the client's threads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        client.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validators of the last changed response for a URL, with its parsed body.
+     */
+    private record Validated(String etag, String lastModified, Object value) {
+    }
+
+    /**
+     * Reads an HTTP response body into a result.
+     */
+    @FunctionalInterface
+    public interface BodyParser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+}
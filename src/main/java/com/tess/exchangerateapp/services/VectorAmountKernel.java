@@ -0,0 +1,33 @@
+package com.tess.exchangerateapp.services;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation of {@link AmountKernel}. Only loaded when the
+ * {@code jdk.incubator.vector} module is present, since referencing it
+ * otherwise fails with a linkage error.
+ */
+final class VectorAmountKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorAmountKernel() {
+    }
+
+    /**
+     * Computes {@code out[i] = amounts[i] * rates[i]} a full vector of lanes
+     * at a time, finishing the tail that does not fill a vector one by one.
+     */
+    static void multiply(double[] amounts, double[] rates, double[] out, int length) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, amounts, i)
+                    .mul(DoubleVector.fromArray(SPECIES, rates, i))
+                    .intoArray(out, i);
+        }
+        for (; i < length; i++) {
+            out[i] = amounts[i] * rates[i];
+        }
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.boot.test.context.SpringBootTest;
  * Basic application context test.
  * Verifies that the Spring application context loads successfully.
  */
-@SpringBootTest
+@SpringBootTest(properties = "exchange.currencies.refresh-enabled=false")
 class ExchangeRateApplicationTests {
 
 	@Test
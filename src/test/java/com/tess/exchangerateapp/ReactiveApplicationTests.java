@@ -0,0 +1,39 @@
+package com.tess.exchangerateapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Application context test for the reactive serving mode.
+ * Verifies that the reactive profile starts WebFlux on Netty and serves the
+ * metrics endpoint.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "exchange.checkpoint.enabled=false", "exchange.currencies.refresh-enabled=false" })
+@ActiveProfiles("reactive")
+class ReactiveApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void contextLoads_ReactiveProfile_ServesMetrics() {
+		assertThat(context).isInstanceOf(ReactiveWebApplicationContext.class);
+
+		webTestClient.get().uri("/metrics").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.apis").exists();
+	}
+
+}
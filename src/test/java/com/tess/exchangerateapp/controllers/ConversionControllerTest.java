@@ -0,0 +1,109 @@
+package com.tess.exchangerateapp.controllers;
+
+import com.tess.exchangerateapp.services.ConversionService;
+import com.tess.exchangerateapp.services.ConversionService.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for ConversionController endpoints.
+ * Uses @WebMvcTest to test only the web layer, mocking the ConversionService.
+ *
+ * Test Structure
+ * Arrange:
+ * Set up mock behavior (e.g. doAnswer(...).when(conversionService).convert())
+ * Act:
+ * Perform the HTTP request using MockMvc (e.g. mockMvc.perform(post()))
+ * Assert:
+ * Verify response status and content (e.g. andExpect(status().isOk()))
+ */
+@WebMvcTest(ConversionController.class)
+class ConversionControllerTest {
+    @MockBean
+    private ConversionService conversionService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Test converting a CSV body
+     * Verifies the body is handed to the service as CSV and the answer streamed back
+     */
+    @Test
+    void convert_Csv_StreamsCsv() throws Exception {
+        doAnswer(invocation -> {
+            InputStream in = invocation.getArgument(1);
+            OutputStream out = invocation.getArgument(2);
+            String row = new String(in.readAllBytes(), StandardCharsets.UTF_8).strip();
+            out.write(("amount,from,to,rate,converted,error\n" + row + ",1.25,125.0,\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(conversionService).convert(eq(Format.CSV), any(), any());
+
+        MvcResult result = mockMvc.perform(post("/convert/stream")
+                .contentType("text/csv")
+                .content("100.0,EUR,USD\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("amount,from,to,rate,converted,error\n100.0,EUR,USD,1.25,125.0,\n"));
+    }
+
+    /**
+     * Test converting an NDJSON body
+     * Verifies the answer is streamed as NDJSON
+     */
+    @Test
+    void convert_Ndjson_StreamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"amount\":1.0,\"from\":\"EUR\",\"to\":\"USD\",\"rate\":1.25,\"converted\":1.25}\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(conversionService).convert(eq(Format.NDJSON), any(), any());
+
+        MvcResult result = mockMvc.perform(post("/convert/stream")
+                .contentType("application/x-ndjson")
+                .content("{\"amount\":1,\"from\":\"EUR\",\"to\":\"USD\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(jsonPath("$.converted").value(1.25));
+    }
+
+    /**
+     * Test a body in an unsupported format
+     * Verifies 415 Unsupported Media Type without calling the service
+     */
+    @Test
+    void convert_UnsupportedFormat_ReturnsUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/convert/stream")
+                .contentType("application/json")
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(conversionService);
+    }
+}
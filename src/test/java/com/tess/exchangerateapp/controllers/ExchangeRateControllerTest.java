@@ -1,36 +1,56 @@
 package com.tess.exchangerateapp.controllers;
 
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import com.tess.exchangerateapp.services.CurrencyRegistry;
 import com.tess.exchangerateapp.services.ExchangeService;
+import com.tess.exchangerateapp.services.OverloadedException;
+import com.tess.exchangerateapp.services.RateResponseCache;
+import com.tess.exchangerateapp.services.RateSubscriptions;
+import com.tess.exchangerateapp.services.ExchangeService.RateLookup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Tests for ExchangeRateController endpoints.
  * Uses @WebMvcTest to test only the web layer, mocking the ExchangeService.
+ * Scheduled publish cycles are pushed out of the test run; tests that stream
+ * rates run a cycle themselves.
  * 
  * Test Structure
  * Arrange:
- * Set up mock behavior and test data (e.g. when(exchangeService.getRates()))
+ * Set up mock behavior and test data (e.g. when(exchangeService.lookup()))
  * Act:
  * Perform the HTTP request using MockMvc (e.g. mockMvc.perform(get()))
  * Assert:
  * Verify response status and content (e.g. andExpect(status().isOk()))
  */
-@WebMvcTest(ExchangeRateController.class)
+@WebMvcTest(controllers = ExchangeRateController.class, properties = "exchange.subscriptions.interval=1h")
+@Import({ RateResponseCache.class, RateSubscriptions.class, CurrencyRegistry.class, ExchangeProperties.class })
 class ExchangeRateControllerTest {
     @MockBean
     private ExchangeService exchangeService;
@@ -38,12 +58,15 @@ class ExchangeRateControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private RateSubscriptions subscriptions;
+
     /**
      * Reset mock behavior before each test to ensure clean state
      */
     @BeforeEach
     void setUp() {
-        when(exchangeService.getRates(any(), anyList())).thenReturn(new HashMap<>());
+        when(exchangeService.lookup(any(), anyList())).thenReturn(new RateLookup(Map.of(), Map.of()));
     }
 
     /**
@@ -55,14 +78,70 @@ class ExchangeRateControllerTest {
         Map<String, Double> rates = new HashMap<>();
         rates.put("USD", 1.0856);
         rates.put("NZD", 1.7856);
-        when(exchangeService.getRates(eq("EUR"), anyList())).thenReturn(rates);
+        when(exchangeService.lookup(eq("EUR"), anyList())).thenReturn(new RateLookup(rates, Map.of()));
 
         mockMvc.perform(get("/exchangeRates/EUR")
                 .param("symbols", "USD,NZD"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.base").value("EUR"))
                 .andExpect(jsonPath("$.rates.USD").value(1.0856))
-                .andExpect(jsonPath("$.rates.NZD").value(1.7856));
+                .andExpect(jsonPath("$.rates.NZD").value(1.7856))
+                .andExpect(jsonPath("$.staleAgeSeconds").doesNotExist());
+    }
+
+    /**
+     * Test serving last known rates while the APIs are unreachable
+     * Verifies 200 OK with the age of each stale rate
+     */
+    @Test
+    void getRates_StaleRates_ReportsAge() throws Exception {
+        when(exchangeService.lookup(eq("EUR"), anyList())).thenReturn(
+                new RateLookup(Map.of("USD", 1.0856), Map.of("USD", Duration.ofMinutes(21))));
+
+        mockMvc.perform(get("/exchangeRates/EUR")
+                .param("symbols", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rates.USD").value(1.0856))
+                .andExpect(jsonPath("$.staleAgeSeconds.USD").value(1260));
+    }
+
+    /**
+     * Test conditional requests for unchanged rates
+     * Verifies the ETag is stable and a matching If-None-Match gets 304 without a body
+     */
+    @Test
+    void getRates_UnchangedRates_NotModified() throws Exception {
+        when(exchangeService.lookup(eq("EUR"), anyList())).thenReturn(new RateLookup(Map.of("USD", 1.0856), Map.of()));
+
+        String etag = mockMvc.perform(get("/exchangeRates/EUR").param("symbols", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/exchangeRates/EUR").param("symbols", "USD").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Test conditional requests after a rate changed
+     * Verifies the old ETag no longer matches and the new body is returned
+     */
+    @Test
+    void getRates_ChangedRates_NewEtag() throws Exception {
+        when(exchangeService.lookup(eq("EUR"), anyList())).thenReturn(new RateLookup(Map.of("USD", 1.0856), Map.of()));
+        String etag = mockMvc.perform(get("/exchangeRates/EUR").param("symbols", "USD"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        when(exchangeService.lookup(eq("EUR"), anyList())).thenReturn(new RateLookup(Map.of("USD", 1.0901), Map.of()));
+
+        String newEtag = mockMvc.perform(get("/exchangeRates/EUR").param("symbols", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rates.USD").value(1.0901))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
     }
 
     /**
@@ -71,7 +150,7 @@ class ExchangeRateControllerTest {
      */
     @Test
     void getRates_InvalidBaseCurrency() throws Exception {
-        when(exchangeService.getRates(eq("INVALID"), anyList()))
+        when(exchangeService.lookup(eq("INVALID"), anyList()))
                 .thenThrow(new IllegalArgumentException("Invalid base currency"));
 
         mockMvc.perform(get("/exchangeRates/INVALID")
@@ -86,7 +165,7 @@ class ExchangeRateControllerTest {
      */
     @Test
     void getRates_InvalidTargetCurrency() throws Exception {
-        when(exchangeService.getRates(eq("EUR"), anyList()))
+        when(exchangeService.lookup(eq("EUR"), anyList()))
                 .thenThrow(new IllegalArgumentException("Invalid target currency"));
 
         mockMvc.perform(get("/exchangeRates/EUR")
@@ -95,13 +174,43 @@ class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    /**
+     * Test handling of a code that is not a currency
+     * Verifies 400 Bad Request without a lookup
+     */
+    @Test
+    void getRates_UnknownSymbol_RejectedBeforeLookup() throws Exception {
+        mockMvc.perform(get("/exchangeRates/EUR")
+                .param("symbols", "USD,XXX"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown currency code: XXX"));
+
+        verify(exchangeService, never()).lookup(any(), anyList());
+    }
+
+    /**
+     * Test normalization of lower-case and repeated symbols
+     * Verifies the service is asked for each upper-cased symbol once
+     */
+    @Test
+    void getRates_RepeatedSymbols_LookedUpOnce() throws Exception {
+        when(exchangeService.lookup(eq("EUR"), anyList())).thenReturn(new RateLookup(Map.of("USD", 1.0856), Map.of()));
+
+        mockMvc.perform(get("/exchangeRates/eur")
+                .param("symbols", "usd,USD, Usd"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rates.USD").value(1.0856));
+
+        verify(exchangeService).lookup("EUR", List.of("USD"));
+    }
+
     /**
      * Test handling of service unavailability
      * Verifies 503 Service Unavailable response
      */
     @Test
     void getRates_NoApisAvailable() throws Exception {
-        when(exchangeService.getRates(eq("EUR"), anyList()))
+        when(exchangeService.lookup(eq("EUR"), anyList()))
                 .thenThrow(new RuntimeException("No APIs available"));
 
         mockMvc.perform(get("/exchangeRates/EUR")
@@ -110,6 +219,22 @@ class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    /**
+     * Test a lookup shed at the miss concurrency limit
+     * Verifies 503 Service Unavailable with a Retry-After header
+     */
+    @Test
+    void getRates_Overloaded_ReturnsRetryAfter() throws Exception {
+        when(exchangeService.lookup(eq("EUR"), anyList()))
+                .thenThrow(new OverloadedException("Too many lookups", Duration.ofMillis(1500)));
+
+        mockMvc.perform(get("/exchangeRates/EUR")
+                .param("symbols", "USD"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.error").value("Too many lookups"));
+    }
+
     /**
      * Test handling of missing required parameters
      * Verifies 400 Bad Request response
@@ -119,4 +244,99 @@ class ExchangeRateControllerTest {
         mockMvc.perform(get("/exchangeRates/EUR"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test batch retrieval with a shared base and an amount to convert
+     * Verifies groups are merged per base and results follow request order
+     */
+    @Test
+    void getRatesBatch_Success() throws Exception {
+        when(exchangeService.getRatesBatch(any())).thenReturn(Map.of(
+                "EUR", Map.of("USD", 1.5, "NZD", 2.0),
+                "USD", Map.of("JPY", 140.0)));
+
+        mockMvc.perform(post("/exchangeRates/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"queries": [
+                          {"base": "eur", "symbols": ["USD"], "amount": 10},
+                          {"base": "USD", "symbols": ["JPY"]},
+                          {"base": "EUR", "symbols": ["NZD", "USD"]}
+                        ]}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].base").value("EUR"))
+                .andExpect(jsonPath("$.results[0].rates.USD").value(1.5))
+                .andExpect(jsonPath("$.results[0].converted.USD").value(15.0))
+                .andExpect(jsonPath("$.results[1].rates.JPY").value(140.0))
+                .andExpect(jsonPath("$.results[2].rates.NZD").value(2.0))
+                .andExpect(jsonPath("$.results[2].converted").doesNotExist());
+
+        verify(exchangeService).getRatesBatch(Map.of(
+                "EUR", new LinkedHashSet<>(List.of("USD", "NZD")),
+                "USD", new LinkedHashSet<>(List.of("JPY"))));
+    }
+
+    /**
+     * Test batch request with null and padded symbols
+     * Verifies results are built from the normalized codes instead of failing
+     */
+    @Test
+    void getRatesBatch_NullSymbol_UsesNormalizedCodes() throws Exception {
+        when(exchangeService.getRatesBatch(any())).thenReturn(Map.of("EUR", Map.of("USD", 1.5)));
+
+        mockMvc.perform(post("/exchangeRates/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"queries": [{"base": " eur", "symbols": [" usd", null]}]}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].base").value("EUR"))
+                .andExpect(jsonPath("$.results[0].rates.USD").value(1.5));
+    }
+
+    /**
+     * Test batch request without queries
+     * Verifies 400 Bad Request response
+     */
+    @Test
+    void getRatesBatch_EmptyQueries() throws Exception {
+        mockMvc.perform(post("/exchangeRates/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"queries\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    /**
+     * Test batch request with a malformed body
+     * Verifies 400 Bad Request response
+     */
+    @Test
+    void getRatesBatch_MalformedBody() throws Exception {
+        mockMvc.perform(post("/exchangeRates/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{not json"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test streaming rate updates as Server-Sent Events
+     * Verifies a publish cycle sends the subscribed rates as a "rates" event
+     */
+    @Test
+    void streamRates_PublishCycle_SendsRatesEvent() throws Exception {
+        when(exchangeService.lookup(eq("EUR"), anyList()))
+                .thenReturn(new RateLookup(Map.of("USD", 1.0856, "NZD", 1.7856), Map.of()));
+
+        MvcResult result = mockMvc.perform(get("/exchangeRates/eur/stream")
+                .param("symbols", "USD"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        subscriptions.publishChanges();
+
+        assertThat(result.getResponse().getContentAsString())
+                .contains("event:rates")
+                .contains("{\"base\":\"EUR\",\"rates\":{\"USD\":1.0856}}");
+    }
+}
@@ -0,0 +1,140 @@
+package com.tess.exchangerateapp.controllers;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import com.tess.exchangerateapp.services.HistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for HistoryController endpoints.
+ * Uses @WebMvcTest to test only the web layer, mocking the HistoryService.
+ * 
+ * Test Structure
+ * Arrange:
+ * Set up mock behavior (e.g. doAnswer(...).when(historyService).writeNdjson())
+ * Act:
+ * Perform the HTTP request using MockMvc (e.g. mockMvc.perform(get()))
+ * Assert:
+ * Verify response status and content (e.g. andExpect(status().isOk()))
+ */
+@WebMvcTest(HistoryController.class)
+@Import(ExchangeProperties.class)
+class HistoryControllerTest {
+    private static final LocalDate FROM = LocalDate.of(2025, 6, 2);
+    private static final LocalDate TO = LocalDate.of(2025, 6, 3);
+
+    @MockBean
+    private HistoryService historyService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Test streaming a history range
+     * Verifies the archive is prepared first and the lines are streamed as NDJSON
+     */
+    @Test
+    void getHistory_Success_StreamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(4);
+            out.write(("{\"date\":\"2025-06-02\",\"rates\":{\"USD\":1.1443}}\n"
+                    + "{\"date\":\"2025-06-03\",\"rates\":{\"USD\":1.1406}}\n").getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(historyService).writeNdjson(eq("EUR"), eq(List.of("USD")), eq(FROM), eq(TO), any());
+
+        MvcResult result = mockMvc.perform(get("/exchangeRates/eur/history")
+                .param("symbols", "usd")
+                .param("from", "2025-06-02")
+                .param("to", "2025-06-03"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"date\":\"2025-06-02\",\"rates\":{\"USD\":1.1443}}\n"
+                        + "{\"date\":\"2025-06-03\",\"rates\":{\"USD\":1.1406}}\n"));
+        verify(historyService).prepare("EUR", FROM, TO);
+    }
+
+    /**
+     * Test a range that ends before it starts
+     * Verifies 400 Bad Request without touching the archive
+     */
+    @Test
+    void getHistory_FromAfterTo_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/exchangeRates/EUR/history")
+                .param("symbols", "USD")
+                .param("from", "2025-06-03")
+                .param("to", "2025-06-02"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("From date must not be after to date"));
+        verifyNoInteractions(historyService);
+    }
+
+    /**
+     * Test a date that is not in ISO format
+     * Verifies 400 Bad Request naming the parameter
+     */
+    @Test
+    void getHistory_MalformedDate_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/exchangeRates/EUR/history")
+                .param("symbols", "USD")
+                .param("from", "02/06/2025")
+                .param("to", "2025-06-03"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid value for from"));
+    }
+
+    /**
+     * Test a symbol that is not a currency code
+     * Verifies 400 Bad Request without touching the archive
+     */
+    @Test
+    void getHistory_InvalidSymbol_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/exchangeRates/EUR/history")
+                .param("symbols", "US1")
+                .param("from", "2025-06-02")
+                .param("to", "2025-06-03"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid currency code: US1"));
+        verifyNoInteractions(historyService);
+    }
+
+    /**
+     * Test missing history that no API can provide
+     * Verifies 503 Service Unavailable response
+     */
+    @Test
+    void getHistory_Unavailable_ReturnsServiceUnavailable() throws Exception {
+        doThrow(new RuntimeException("No historical rates available"))
+                .when(historyService).prepare("EUR", FROM, TO);
+
+        mockMvc.perform(get("/exchangeRates/EUR/history")
+                .param("symbols", "USD")
+                .param("from", "2025-06-02")
+                .param("to", "2025-06-03"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("No historical rates available"));
+    }
+}
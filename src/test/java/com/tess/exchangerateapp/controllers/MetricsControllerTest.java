@@ -8,9 +8,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -113,4 +117,23 @@ class MetricsControllerTest {
                 .andExpect(
                         jsonPath("$.error").value("Failed to retrieve metrics: Unexpected error in metrics service"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test OpenMetrics exposition for Prometheus.
+     * Verifies the text written by the service is returned with the OpenMetrics
+     * content type.
+     */
+    @Test
+    void getPrometheusMetrics_Success() throws Exception {
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(0);
+            writer.write("exchange_api_requests_total{api=\"fawazApi\"} 45\n# EOF\n");
+            return null;
+        }).when(metricsService).writeOpenMetrics(any());
+
+        mockMvc.perform(get("/metrics/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MetricsController.OPENMETRICS_CONTENT_TYPE))
+                .andExpect(content().string(containsString("exchange_api_requests_total{api=\"fawazApi\"} 45")));
+    }
+}
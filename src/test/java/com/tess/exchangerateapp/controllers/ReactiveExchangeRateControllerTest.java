@@ -0,0 +1,151 @@
+package com.tess.exchangerateapp.controllers;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import com.tess.exchangerateapp.services.CurrencyRegistry;
+import com.tess.exchangerateapp.services.ExchangeService;
+import com.tess.exchangerateapp.services.OverloadedException;
+import com.tess.exchangerateapp.services.RateResponseCache;
+import com.tess.exchangerateapp.services.RateSubscriptions;
+import com.tess.exchangerateapp.services.ReactiveExchangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for ReactiveExchangeRateController endpoints.
+ * Uses @WebFluxTest with the reactive profile to test only the WebFlux layer,
+ * mocking the ReactiveExchangeService. Scheduled publish cycles are pushed out
+ * of the test run; tests that stream rates run a cycle themselves.
+ *
+ * Test Structure
+ * Arrange:
+ * Set up mock behavior and test data (e.g. when(service.lookup()))
+ * Act:
+ * Perform the HTTP request using WebTestClient (e.g. webTestClient.get())
+ * Assert:
+ * Verify response status and content (e.g. expectStatus().isOk())
+ */
+@WebFluxTest(controllers = ReactiveExchangeRateController.class, properties = "exchange.subscriptions.interval=1h")
+@ActiveProfiles("reactive")
+@Import({ RateResponseCache.class, RateSubscriptions.class, CurrencyRegistry.class, ExchangeProperties.class })
+class ReactiveExchangeRateControllerTest {
+
+    @MockBean
+    private ReactiveExchangeService service;
+
+    @MockBean
+    private ExchangeService exchangeService;
+
+    @Autowired
+    private RateSubscriptions subscriptions;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    /**
+     * Test successful retrieval of exchange rates
+     * Verifies the response has the same shape as the servlet endpoint
+     */
+    @Test
+    void getRates_Success() {
+        when(service.lookup(eq("EUR"), any()))
+                .thenReturn(Mono.just(new ExchangeService.RateLookup(Map.of("USD", 1.08), Map.of())));
+
+        webTestClient.get().uri("/exchangeRates/eur?symbols=USD").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.base").isEqualTo("EUR")
+                .jsonPath("$.rates.USD").isEqualTo(1.08)
+                .jsonPath("$.staleAgeSeconds").doesNotExist();
+    }
+
+    /**
+     * Test that last known rates are reported with their age
+     * Verifies stale symbols are listed under staleAgeSeconds
+     */
+    @Test
+    void getRates_StaleRates_ReportsAge() {
+        when(service.lookup(eq("EUR"), any())).thenReturn(Mono.just(new ExchangeService.RateLookup(
+                Map.of("USD", 1.08), Map.of("USD", Duration.ofMinutes(21)))));
+
+        webTestClient.get().uri("/exchangeRates/EUR?symbols=USD").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.staleAgeSeconds.USD").isEqualTo(1260);
+    }
+
+    /**
+     * Test that no rates at all is reported as unavailable
+     * Verifies a 503 status with an error message
+     */
+    @Test
+    void getRates_NoRates_ServiceUnavailable() {
+        when(service.lookup(eq("EUR"), any()))
+                .thenReturn(Mono.just(new ExchangeService.RateLookup(Map.of(), Map.of())));
+
+        webTestClient.get().uri("/exchangeRates/EUR?symbols=USD").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("No exchange rates available");
+    }
+
+    /**
+     * Test a lookup shed at the miss concurrency limit
+     * Verifies 503 Service Unavailable with a Retry-After header
+     */
+    @Test
+    void getRates_Overloaded_ReturnsRetryAfter() {
+        when(service.lookup(eq("EUR"), any()))
+                .thenReturn(Mono.error(new OverloadedException("Too many lookups", Duration.ofMillis(1500))));
+
+        webTestClient.get().uri("/exchangeRates/EUR?symbols=USD").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Too many lookups");
+    }
+
+    /**
+     * Test that a missing symbols parameter is rejected
+     * Verifies a 400 status
+     */
+    @Test
+    void getRates_MissingSymbols_BadRequest() {
+        webTestClient.get().uri("/exchangeRates/EUR").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Test streaming rate updates as Server-Sent Events
+     * Verifies a publish cycle emits the subscribed rates as a "rates" event
+     */
+    @Test
+    void streamRates_PublishCycle_EmitsRatesEvent() {
+        when(exchangeService.lookup(eq("EUR"), any()))
+                .thenReturn(new ExchangeService.RateLookup(Map.of("USD", 1.08, "NZD", 1.8), Map.of()));
+
+        Flux<String> events = webTestClient.get().uri("/exchangeRates/EUR/stream?symbols=usd").exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody();
+        subscriptions.publishChanges();
+
+        assertThat(events.blockFirst(Duration.ofSeconds(5))).isEqualTo("{\"base\":\"EUR\",\"rates\":{\"USD\":1.08}}");
+    }
+}
@@ -0,0 +1,48 @@
+package com.tess.exchangerateapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for AmountKernel multiplying amount and rate columns.
+ *
+ * Test Structure
+ * Arrange:
+ * Fill amount and rate columns (e.g. amounts[i] = random.nextDouble() * 1000)
+ * Act:
+ * Multiply them (e.g. AmountKernel.multiply(amounts, rates, out, length))
+ * Assert:
+ * Verify the products (e.g. assertThat(out).containsExactly(expected))
+ */
+class AmountKernelTest {
+
+    /**
+     * Test the Vector API path against the scalar loop
+     * Verifies identical products, including a tail shorter than a vector
+     */
+    @Test
+    void multiply_MatchesScalar() {
+        assertThat(AmountKernel.isVectorized()).isTrue();
+        Random random = new Random(42);
+        int length = 1_003;
+        double[] amounts = new double[1_024];
+        double[] rates = new double[1_024];
+        for (int i = 0; i < length; i++) {
+            amounts[i] = random.nextDouble() * 1_000;
+            rates[i] = random.nextDouble() * 2;
+        }
+        rates[7] = Double.NaN;
+        double[] vector = new double[1_024];
+        double[] scalar = new double[1_024];
+
+        AmountKernel.multiply(amounts, rates, vector, length);
+        AmountKernel.multiplyScalar(amounts, rates, scalar, length);
+
+        assertThat(vector).containsExactly(scalar);
+        assertThat(vector[7]).isNaN();
+        assertThat(vector[length]).isZero();
+    }
+}
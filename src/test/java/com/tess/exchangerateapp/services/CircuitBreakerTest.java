@@ -0,0 +1,132 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for CircuitBreaker state transitions and the bulkhead.
+ *
+ * Test Structure
+ * Arrange:
+ * Create a breaker with small thresholds (e.g. breaker(2, Duration.ZERO, 4))
+ * Act:
+ * Acquire and finish calls (e.g. breaker.tryAcquire(), breaker.onFailure())
+ * Assert:
+ * Verify the state and which calls were permitted
+ */
+class CircuitBreakerTest {
+
+    /**
+     * Test consecutive failures
+     * Verifies the circuit opens at the threshold and then rejects calls
+     */
+    @Test
+    void onFailure_ReachesThreshold_OpensCircuit() {
+        CircuitBreaker breaker = breaker(2, Duration.ofMinutes(1), 4);
+
+        fail(breaker);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        fail(breaker);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+    }
+
+    /**
+     * Test the half-open state after the open period
+     * Verifies only one trial call is let through, and its success closes the
+     * circuit
+     */
+    @Test
+    void tryAcquire_AfterOpenPeriod_AllowsOneTrialCall() {
+        CircuitBreaker breaker = breaker(1, Duration.ZERO, 4);
+        fail(breaker);
+
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+    }
+
+    /**
+     * Test a failed trial call
+     * Verifies the circuit opens again
+     */
+    @Test
+    void onFailure_HalfOpenTrial_ReopensCircuit() {
+        CircuitBreaker breaker = breaker(5, Duration.ofMillis(50), 4);
+        for (int i = 0; i < 5; i++) {
+            fail(breaker);
+        }
+        sleep(60);
+
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    /**
+     * Test the concurrency bulkhead
+     * Verifies calls beyond the limit are rejected until a call finishes
+     */
+    @Test
+    void tryAcquire_BulkheadFull_RejectsCall() {
+        CircuitBreaker breaker = breaker(5, Duration.ofMinutes(1), 2);
+
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+        breaker.onCancelled(CircuitBreaker.Permit.CALL);
+
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Test cancelling a call admitted while the circuit was closed, after the
+     * circuit tripped and half-opened
+     * Verifies it gives back no half-open permit, so only one trial call runs
+     */
+    @Test
+    void onCancelled_ClosedCallWhileHalfOpen_KeepsTrialLimit() {
+        CircuitBreaker breaker = breaker(1, Duration.ZERO, 4);
+        CircuitBreaker.Permit closedCall = breaker.tryAcquire();
+        fail(breaker);
+
+        assertThat(closedCall).isEqualTo(CircuitBreaker.Permit.CALL);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.TRIAL);
+        breaker.onCancelled(closedCall);
+
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+        breaker.onFailure();
+    }
+
+    private static CircuitBreaker breaker(int failureThreshold, Duration openDuration, int maxConcurrentCalls) {
+        ExchangeProperties.Breaker settings = new ExchangeProperties.Breaker();
+        settings.setFailureThreshold(failureThreshold);
+        settings.setOpenDuration(openDuration);
+        settings.setMaxConcurrentCalls(maxConcurrentCalls);
+        return new CircuitBreaker(settings);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for ConcurrencyLimiter admitting lookups and adapting its limit.
+ *
+ * Test Structure
+ * Arrange:
+ * Create a limiter with a small limit (e.g. limiter(4, 2, 8))
+ * Act:
+ * Acquire and finish lookups (e.g. limiter.tryAcquire(), limiter.onComplete(nanos))
+ * Assert:
+ * Verify which lookups were admitted and the resulting limit
+ */
+class ConcurrencyLimiterTest {
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    /**
+     * Test acquiring beyond the limit
+     * Verifies excess lookups are rejected until one finishes
+     */
+    @Test
+    void tryAcquire_AtLimit_Rejects() {
+        ConcurrencyLimiter limiter = limiter(2, 1, 8);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.onCancelled();
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    /**
+     * Test slow lookups
+     * Verifies the limit shrinks multiplicatively but not below the minimum
+     */
+    @Test
+    void onComplete_Slow_ShrinksLimit() {
+        ConcurrencyLimiter limiter = limiter(10, 4, 20);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.onComplete(SLOW);
+        }
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(SLOW);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    /**
+     * Test fast lookups while the limit is in use
+     * Verifies the limit grows additively back towards the maximum
+     */
+    @Test
+    void onComplete_FastUnderLoad_GrowsLimit() {
+        ConcurrencyLimiter limiter = limiter(4, 1, 6);
+
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < limiter.limit(); i++) {
+                limiter.tryAcquire();
+            }
+            while (limiter.inFlight() > 0) {
+                limiter.onComplete(FAST);
+            }
+        }
+
+        assertThat(limiter.limit()).isEqualTo(6);
+    }
+
+    /**
+     * Test fast lookups while the limit is mostly unused
+     * Verifies the limit does not grow without demand
+     */
+    @Test
+    void onComplete_FastWhileIdle_KeepsLimit() {
+        ConcurrencyLimiter limiter = limiter(8, 1, 20);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(FAST);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(8);
+    }
+
+    private static ConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        ExchangeProperties.Limiter settings = new ExchangeProperties.Limiter();
+        settings.setInitialLimit(initialLimit);
+        settings.setMinLimit(minLimit);
+        settings.setMaxLimit(maxLimit);
+        settings.setLatencyThreshold(Duration.ofMillis(500));
+        settings.setBackoffRatio(0.8);
+        return new ConcurrencyLimiter(settings);
+    }
+}
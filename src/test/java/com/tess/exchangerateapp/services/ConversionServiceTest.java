@@ -0,0 +1,195 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import com.tess.exchangerateapp.services.ConversionService.Format;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for ConversionService streaming bulk conversion.
+ * Uses a real ExchangeService over a stub ExchangeApiService that records
+ * every lookup, with small chunks so several chunks are converted.
+ *
+ * Test Structure
+ * Arrange:
+ * Build the service over a stub API (e.g. new RecordingApi(Map.of("EUR", Map.of("USD", 1.25))))
+ * Act:
+ * Convert rows (e.g. convert(Format.CSV, "100,EUR,USD\n"))
+ * Assert:
+ * Verify the answered rows and the lookups made (e.g. assertThat(api.lookups()).hasSize(1))
+ */
+class ConversionServiceTest {
+    private final RecordingApi api = new RecordingApi(Map.of(
+            "EUR", Map.of("USD", 1.25, "GBP", 0.5),
+            "USD", Map.of("EUR", 0.8)));
+    private ExchangeService exchangeService;
+    private ConversionService conversionService;
+
+    @AfterEach
+    void tearDown() {
+        if (exchangeService != null) {
+            exchangeService.shutdown();
+        }
+    }
+
+    /**
+     * Test converting CSV rows with a header
+     * Verifies every row is answered in order with its rate and converted amount
+     */
+    @Test
+    void convert_Csv_AnswersRowsInOrder() throws IOException {
+        newService(2);
+
+        String output = convert(Format.CSV, "amount,from,to\n100,EUR,USD\n10,usd,eur\n\n4,EUR,GBP\n3,EUR,EUR\n");
+
+        assertThat(output).isEqualTo("""
+                amount,from,to,rate,converted,error
+                100.0,EUR,USD,1.25,125.0,
+                10.0,USD,EUR,0.8,8.0,
+                4.0,EUR,GBP,0.5,2.0,
+                3.0,EUR,EUR,1.0,3.0,
+                """);
+    }
+
+    /**
+     * Test converting NDJSON rows spread over several chunks
+     * Verifies each distinct pair is looked up once for the whole stream
+     */
+    @Test
+    void convert_Ndjson_LooksUpEachPairOnce() throws IOException {
+        newService(2);
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 6; i++) {
+            input.append("{\"amount\":").append(i).append(",\"from\":\"EUR\",\"to\":\"USD\"}\n");
+        }
+
+        String output = convert(Format.NDJSON, input.toString());
+
+        assertThat(output.lines()).hasSize(6)
+                .first().isEqualTo("{\"amount\":1.0,\"from\":\"EUR\",\"to\":\"USD\",\"rate\":1.25,\"converted\":1.25}");
+        assertThat(output.lines().toList().get(5)).contains("\"converted\":7.5");
+        assertThat(api.lookups()).containsExactly("EUR->[USD]");
+    }
+
+    /**
+     * Test rows that cannot be converted
+     * Verifies they are answered with an error and the rows after them still convert
+     */
+    @Test
+    void convert_InvalidRows_AnsweredWithErrors() throws IOException {
+        newService(8);
+
+        String output = convert(Format.CSV, "1,EUR,ABC\nx,EUR,USD\n1,EUR\n1,EUR,JPY\n2,EUR,USD\n");
+
+        assertThat(output.lines().skip(1).toList()).containsExactly(
+                "1.0,EUR,ABC,,,Unknown currency code: ABC",
+                ",EUR,USD,,,Invalid amount",
+                ",,,,,Expected 3 fields per row",
+                "1.0,EUR,JPY,,,No exchange rate available",
+                "2.0,EUR,USD,1.25,2.5,");
+        assertThat(api.lookups()).doesNotContain("EUR->[ABC]");
+    }
+
+    /**
+     * Test malformed JSON in the middle of a stream
+     * Verifies the rows before it are answered and the stream ends with an error line
+     */
+    @Test
+    void convert_MalformedJson_EndsWithErrorLine() throws IOException {
+        newService(8);
+
+        String output = convert(Format.NDJSON, "{\"amount\":2,\"from\":\"EUR\",\"to\":\"USD\"}\n{\"amount\":\n");
+
+        assertThat(output.lines().toList()).hasSize(2)
+                .last().asString().startsWith("{\"error\":\"Malformed JSON");
+        assertThat(output.lines().findFirst()).hasValueSatisfying(line -> assertThat(line).contains("\"converted\":2.5"));
+    }
+
+    /**
+     * Test rows whose lookup is shed because the miss limit is reached
+     * Verifies they are answered with an overloaded error instead of failing the stream
+     */
+    @Test
+    void convert_MissLimitReached_AnsweredWithOverloadedErrors() throws IOException {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getLimiter().setInitialLimit(1);
+        properties.getLimiter().setMinLimit(1);
+        properties.getLimiter().setMaxLimit(1);
+        MetricsService metrics = new MetricsService();
+        ConcurrencyLimiter limiter = metrics.registerMissLimiter(new ConcurrencyLimiter(properties.getLimiter()));
+        assertThat(limiter.tryAcquire()).isTrue();
+        newService(8, properties, metrics);
+
+        String output = convert(Format.CSV, "1,EUR,USD
+2,EUR,EUR
+");
+
+        assertThat(output.lines().skip(1).toList()).containsExactly(
+                "1.0,EUR,USD,,,Exchange rate APIs are overloaded; retry later",
+                "2.0,EUR,EUR,1.0,2.0,");
+        assertThat(api.lookups()).isEmpty();
+    }
+
+    private void newService(int chunkRows) {
+        newService(chunkRows, new ExchangeProperties(), new MetricsService());
+    }
+
+    private void newService(int chunkRows, ExchangeProperties properties, MetricsService metrics) {
+        properties.getConversion().setChunkRows(chunkRows);
+        exchangeService = new ExchangeService(List.of(api), metrics, new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+        conversionService = new ConversionService(exchangeService, new CurrencyRegistry(List.of(api)), properties);
+    }
+
+    private String convert(Format format, String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        conversionService.convert(format, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stub API answering from canned rates per base. Records every lookup as
+     * "BASE->[SYMBOLS]".
+     */
+    private static class RecordingApi implements ExchangeApiService {
+        private final Map<String, Map<String, Double>> rates;
+        private final List<String> lookups = new CopyOnWriteArrayList<>();
+
+        RecordingApi(Map<String, Map<String, Double>> rates) {
+            this.rates = rates;
+        }
+
+        List<String> lookups() {
+            return lookups;
+        }
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            lookups.add(base + "->" + symbols);
+            Map<String, Double> result = new HashMap<>();
+            for (String symbol : symbols) {
+                Double rate = rates.getOrDefault(base, Map.of()).get(symbol);
+                if (rate != null) {
+                    result.put(symbol, rate);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.tess.exchangerateapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for CurrencyRegistry validating and normalizing currency codes.
+ * Uses stub ExchangeApiService implementations that list their currencies.
+ *
+ * Test Structure
+ * Arrange:
+ * Build the registry with stub APIs (e.g. new CurrencyRegistry(List.of(api)))
+ * Act:
+ * Refresh or normalize codes (e.g. registry.normalize(List.of("usd")))
+ * Assert:
+ * Verify the normalized codes or the rejection
+ */
+class CurrencyRegistryTest {
+
+    /**
+     * Test normalizing requested symbols
+     * Verifies codes are trimmed, upper-cased and deduplicated in order
+     */
+    @Test
+    void normalize_MixedCaseAndRepeats_DistinctUpperCase() {
+        CurrencyRegistry registry = new CurrencyRegistry(List.of());
+
+        List<String> symbols = registry.normalize(Arrays.asList("usd", " NZD", "USD", "", "nzd"));
+
+        assertThat(symbols).containsExactly("USD", "NZD");
+    }
+
+    /**
+     * Test rejecting codes that are not currencies
+     * Verifies junk codes and the ISO "no currency" code are rejected
+     */
+    @Test
+    void normalize_UnknownCode_Rejected() {
+        CurrencyRegistry registry = new CurrencyRegistry(List.of());
+
+        assertThatThrownBy(() -> registry.normalize(List.of("USD", "ABC")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ABC");
+        assertThat(registry.isKnown("XXX")).isFalse();
+        assertThatThrownBy(() -> registry.normalize(List.of(" ")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test refreshing the registry from the providers' currency lists
+     * Verifies the provider codes replace the ISO fallback and a failing
+     * provider is ignored
+     */
+    @Test
+    void refresh_ProviderLists_ReplaceIsoCodes() {
+        CurrencyRegistry registry = new CurrencyRegistry(List.of(
+                new ListingApi("fawaz", Set.of("btc", "eur")),
+                new ListingApi("broken", null)));
+        assertThat(registry.isKnown("BTC")).isFalse();
+        assertThat(registry.isKnown("DEM")).isTrue();
+
+        int size = registry.refresh();
+
+        assertThat(registry.normalize("btc")).isEqualTo("BTC");
+        assertThat(registry.isKnown("EUR")).isTrue();
+        assertThat(registry.isKnown("DEM")).isFalse();
+        assertThat(size).isEqualTo(2).isEqualTo(registry.size());
+    }
+
+    /**
+     * Test a listed code that is not three letters long
+     * Verifies normalizing interns it, so a rate table read afterwards can be
+     * selected by the index computed before the read
+     */
+    @Test
+    void normalize_ListedLongCode_Interned() {
+        CurrencyRegistry registry = new CurrencyRegistry(List.of(new ListingApi("fawaz", Set.of("1inch", "eur"))));
+        registry.refresh();
+        assertThat(RateVector.index("1INCH")).isEqualTo(-1);
+
+        String code = registry.normalize("1inch");
+        int[] quotes = RateVector.indices(List.of(code));
+        RateSnapshot table = RateSnapshot.builder("EUR").put("1inch", 2.5).build();
+
+        assertThat(quotes[0]).isNotNegative();
+        assertThat(table.select(quotes)).containsEntry("1INCH", 2.5);
+    }
+
+    /**
+     * Test refreshing while no provider lists its currencies
+     * Verifies the ISO codes stay in use
+     */
+    @Test
+    void refresh_NoProviderLists_KeepsIsoCodes() {
+        CurrencyRegistry registry = new CurrencyRegistry(List.of(new ListingApi("broken", null)));
+        int isoSize = registry.size();
+
+        int size = registry.refresh();
+
+        assertThat(size).isEqualTo(isoSize);
+        assertThat(registry.isKnown("USD")).isTrue();
+    }
+
+    /**
+     * Stub API that lists a fixed set of currencies, or fails to list them if
+     * the set is null.
+     */
+    private static class ListingApi implements ExchangeApiService {
+        private final String name;
+        private final Set<String> currencies;
+
+        ListingApi(String name, Set<String> currencies) {
+            this.name = name;
+            this.currencies = currencies;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            return Map.of();
+        }
+
+        @Override
+        public Set<String> getCurrencies() {
+            if (currencies == null) {
+                throw new UpstreamException("Currency list unavailable", 503);
+            }
+            return currencies;
+        }
+    }
+}
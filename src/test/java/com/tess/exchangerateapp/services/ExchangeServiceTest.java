@@ -0,0 +1,550 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for ExchangeService fetching and averaging.
+ * Uses stub ExchangeApiService implementations that sleep for a fixed time
+ * before answering, so wall-clock behaviour can be asserted.
+ *
+ * Test Structure
+ * Arrange:
+ * Build the service with stub APIs (e.g. new SleepingApi("slow", 400, ...))
+ * Act:
+ * Call the service (e.g. service.getRates("EUR", List.of("USD")))
+ * Assert:
+ * Verify rates and elapsed time (e.g. assertThat(elapsed).isLessThan(...))
+ */
+class ExchangeServiceTest {
+    private ExchangeService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Test that APIs are queried in parallel
+     * Verifies the wall-clock time follows the slowest API, not the sum
+     */
+    @Test
+    void getRates_QueriesApisConcurrently() {
+        service = newService(Duration.ofSeconds(3),
+                new SleepingApi("first", 400, Map.of("USD", 1.0)),
+                new SleepingApi("second", 600, Map.of("USD", 2.0)));
+
+        long start = System.nanoTime();
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD"));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(rates).containsEntry("USD", 1.5);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(600).isLessThan(1000);
+    }
+
+    /**
+     * Test that an API missing the deadline is left out
+     * Verifies the answers that arrived in time are averaged and returned
+     */
+    @Test
+    void getRates_DeadlineExceeded_UsesAnswersInTime() {
+        service = newService(Duration.ofMillis(300),
+                new SleepingApi("fast", 50, Map.of("USD", 1.0)),
+                new SleepingApi("hung", 5_000, Map.of("USD", 3.0)));
+
+        long start = System.nanoTime();
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD"));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(rates).containsEntry("USD", 1.0);
+        assertThat(elapsedMillis).isLessThan(1000);
+    }
+
+    /**
+     * Test averaging when APIs return different symbols
+     * Verifies each symbol is averaged over the APIs that returned it
+     */
+    @Test
+    void getRates_PartialResponses_AveragesPerSymbol() {
+        service = newService(Duration.ofSeconds(3),
+                new SleepingApi("first", 0, Map.of("USD", 1.0, "NZD", 2.0)),
+                new SleepingApi("second", 0, Map.of("USD", 3.0)));
+
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD", "NZD"));
+
+        assertThat(rates).containsEntry("USD", 2.0).containsEntry("NZD", 2.0);
+    }
+
+    /**
+     * Test that a request is assembled from cached currency pairs
+     * Verifies only the symbols missing from the cache are fetched upstream
+     */
+    @Test
+    void getRates_CachedPairs_FetchesOnlyMissingSymbols() {
+        SleepingApi api = new SleepingApi("stub", 0, Map.of("USD", 1.1, "NZD", 1.8, "GBP", 0.85));
+        service = newService(Duration.ofSeconds(3), api);
+
+        service.getRates("EUR", List.of("USD", "NZD"));
+        service.getRates("EUR", List.of("NZD", "USD"));
+        Map<String, Double> rates = service.getRates("EUR", List.of("usd", "NZD", "GBP"));
+
+        assertThat(rates).containsOnlyKeys("USD", "NZD", "GBP");
+        assertThat(api.requestedSymbols()).containsExactly(List.of("USD", "NZD"), List.of("GBP"));
+    }
+
+    /**
+     * Test that a symbol no API quotes is negatively cached
+     * Verifies asking for it again causes no upstream call
+     */
+    @Test
+    void getRates_SymbolNotQuoted_NotFetchedAgain() {
+        SleepingApi first = new SleepingApi("first", 0, Map.of("USD", 1.0));
+        SleepingApi second = new SleepingApi("second", 0, Map.of("USD", 1.2));
+        service = newService(Duration.ofSeconds(3), first, second);
+
+        service.getRates("EUR", List.of("USD", "CLF"));
+        Map<String, Double> rates = service.getRates("EUR", List.of("CLF", "USD"));
+
+        assertThat(rates).containsOnlyKeys("USD");
+        assertThat(first.requestedSymbols()).containsExactly(List.of("USD", "CLF"));
+        assertThat(second.requestedSymbols()).containsExactly(List.of("USD", "CLF"));
+    }
+
+    /**
+     * Test a base an API has no rate table for
+     * Verifies the base is negatively cached, so other symbols for it cause
+     * no upstream call
+     */
+    @Test
+    void getRates_BaseWithoutTable_NotFetchedAgain() {
+        TableApi api = new TableApi("EUR", Map.of("USD", 1.25));
+        service = newService(Duration.ofSeconds(3), api);
+
+        assertThat(service.getRates("CLF", List.of("USD"))).isEmpty();
+        assertThat(service.getRates("CLF", List.of("GBP", "NZD"))).isEmpty();
+
+        assertThat(api.tableRequests()).containsExactly("CLF");
+    }
+
+    /**
+     * Test that concurrent misses for the same symbols are coalesced
+     * Verifies N simultaneous requests cause exactly one upstream call
+     */
+    @Test
+    void getRates_ConcurrentMisses_SingleUpstreamCall() throws Exception {
+        SleepingApi api = new SleepingApi("slow", 300, Map.of("USD", 1.1, "NZD", 1.8));
+        service = newService(Duration.ofSeconds(3), api);
+        int requests = 32;
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Map<String, Double>>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                List<String> symbols = i % 2 == 0 ? List.of("USD", "NZD") : List.of("NZD", "USD");
+                responses.add(clients.submit(() -> {
+                    start.await();
+                    return service.getRates("EUR", symbols);
+                }));
+            }
+            start.countDown();
+            for (Future<Map<String, Double>> response : responses) {
+                assertThat(response.get()).containsEntry("USD", 1.1).containsEntry("NZD", 1.8);
+            }
+        }
+
+        assertThat(api.requestedSymbols()).hasSize(1);
+    }
+
+    /**
+     * Test misses beyond the concurrency limit while a slow miss is in flight
+     * Verifies hits are served, a symbol with a last known rate is served stale
+     * and a symbol without one is shed
+     */
+    @Test
+    void lookup_MissLimitReached_ServesHitsAndStaleAndSheds() throws Exception {
+        SleepingApi api = new SleepingApi("slow", 300, Map.of("USD", 1.1, "NZD", 1.8, "GBP", 0.85, "JPY", 160.0));
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getLimiter().setInitialLimit(1);
+        properties.getLimiter().setMinLimit(1);
+        properties.getLimiter().setMaxLimit(1);
+        MetricsService metrics = new MetricsService();
+        RateCache cache = new RateCache(properties);
+        service = new ExchangeService(List.of(api), metrics, cache, new RateSnapshotStore(properties), properties);
+        service.getRates("EUR", List.of("GBP", "JPY"));
+        cache.put("EUR", "GBP", 0.85, Duration.ZERO);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Map<String, Double>> slow = clients.submit(() -> service.getRates("EUR", List.of("USD")));
+            while (limiter(metrics).get("inFlight").equals(0)) {
+                Thread.sleep(5);
+            }
+
+            assertThat(service.getRates("EUR", List.of("JPY"))).containsEntry("JPY", 160.0);
+            ExchangeService.RateLookup stale = service.lookup("EUR", List.of("GBP"));
+            assertThatThrownBy(() -> service.getRates("EUR", List.of("NZD")))
+                    .isInstanceOf(OverloadedException.class);
+            assertThat(slow.get()).containsEntry("USD", 1.1);
+
+            assertThat(stale.rates()).containsEntry("GBP", 0.85);
+            assertThat(stale.stale()).containsKey("GBP");
+        }
+        assertThat(limiter(metrics)).containsEntry("rejected", 2L).containsEntry("servedStale", 1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> limiter(MetricsService metrics) {
+        return (Map<String, Object>) metrics.getMetrics().get("missLimiter");
+    }
+
+    /**
+     * Test that concurrent misses for different symbols of one base are batched
+     * Verifies one upstream call for the union and each caller gets only its symbols
+     */
+    @Test
+    void getRates_ConcurrentMixedSymbols_BatchedIntoOneCall() throws Exception {
+        SleepingApi api = new SleepingApi("slow", 100, Map.of("USD", 1.1, "NZD", 1.8, "GBP", 0.85));
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getBatch().setWindow(Duration.ofMillis(200));
+        service = newService(properties, api);
+        List<List<String>> requests = List.of(List.of("USD"), List.of("GBP"), List.of("NZD", "USD"), List.of("GBP"));
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Map<String, Double>>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<String> symbols : requests) {
+                responses.add(clients.submit(() -> {
+                    start.await();
+                    return service.getRates("EUR", symbols);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < requests.size(); i++) {
+                assertThat(responses.get(i).get()).containsOnlyKeys(requests.get(i));
+            }
+        }
+
+        assertThat(api.requestedSymbols()).hasSize(1);
+        assertThat(api.requestedSymbols().get(0)).containsExactlyInAnyOrder("USD", "GBP", "NZD");
+    }
+
+    /**
+     * Test that a full batch is fetched without waiting for the window
+     * Verifies a miss reaching the maximum batch size returns promptly
+     */
+    @Test
+    void getRates_FullBatch_SkipsWindow() {
+        SleepingApi api = new SleepingApi("stub", 0, Map.of("USD", 1.1, "NZD", 1.8));
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getBatch().setWindow(Duration.ofSeconds(5));
+        properties.getBatch().setMaxSymbols(2);
+        service = newService(properties, api);
+
+        long start = System.nanoTime();
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD", "NZD"));
+
+        assertThat(rates).containsOnlyKeys("USD", "NZD");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    /**
+     * Test that pairs are derived from a stored full rate table
+     * Verifies a different base is answered through cross rates without
+     * another upstream call
+     */
+    @Test
+    void getRates_StoredTable_DerivesCrossRates() {
+        TableApi api = new TableApi("EUR", Map.of("USD", 1.25, "NZD", 2.0, "GBP", 0.8));
+        service = newService(Duration.ofSeconds(3), api);
+
+        Map<String, Double> eurRates = service.getRates("EUR", List.of("USD"));
+        Map<String, Double> usdRates = service.getRates("USD", List.of("NZD", "GBP"));
+
+        assertThat(eurRates).containsEntry("USD", 1.25);
+        assertThat(usdRates).containsEntry("NZD", 1.6).containsEntry("GBP", 0.64);
+        assertThat(api.tableRequests()).containsExactly("EUR");
+    }
+
+    /**
+     * Test batch lookups across several bases
+     * Verifies each base is fetched once for the union of its symbols
+     */
+    @Test
+    void getRatesBatch_ResolvesEachBaseOnce() {
+        SleepingApi api = new SleepingApi("stub", 0, Map.of("USD", 1.1, "NZD", 1.8, "JPY", 150.0));
+        service = newService(Duration.ofSeconds(3), api);
+
+        Map<String, Map<String, Double>> rates = service.getRatesBatch(Map.of(
+                "EUR", List.of("USD", "NZD"),
+                "GBP", List.of("JPY")));
+
+        assertThat(rates.get("EUR")).containsOnlyKeys("USD", "NZD");
+        assertThat(rates.get("GBP")).containsOnlyKeys("JPY");
+        assertThat(api.requestedSymbols()).hasSize(2);
+    }
+
+    /**
+     * Test adaptive routing with a slow API ranked first
+     * Verifies a hedged request goes to the next API after the hedge delay, and
+     * that the faster API is then asked first so the slow one is not called
+     */
+    @Test
+    void getRates_Adaptive_HedgesThenPrefersFastestApi() {
+        SleepingApi slow = new SleepingApi("slow", 900, Map.of("USD", 9.0, "NZD", 9.0));
+        SleepingApi fast = new SleepingApi("fast", 50, Map.of("USD", 1.0, "NZD", 2.0));
+        service = newService(adaptive(1), slow, fast);
+
+        long start = System.nanoTime();
+        Map<String, Double> first = service.getRates("EUR", List.of("USD"));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        Map<String, Double> second = service.getRates("EUR", List.of("NZD"));
+
+        assertThat(first).containsExactly(Map.entry("USD", 1.0));
+        assertThat(elapsedMillis).isLessThan(800);
+        assertThat(second).containsExactly(Map.entry("NZD", 2.0));
+        assertThat(slow.requestedSymbols()).hasSize(1);
+        assertThat(fast.requestedSymbols()).hasSize(2);
+    }
+
+    /**
+     * Test adaptive routing with a quorum of two
+     * Verifies the two first APIs are averaged and the third is never called
+     */
+    @Test
+    void getRates_AdaptiveQuorum_AveragesFirstAnswers() {
+        SleepingApi first = new SleepingApi("first", 50, Map.of("USD", 1.0));
+        SleepingApi second = new SleepingApi("second", 100, Map.of("USD", 2.0));
+        SleepingApi third = new SleepingApi("third", 50, Map.of("USD", 9.0));
+        service = newService(adaptive(2), first, second, third);
+
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD"));
+
+        assertThat(rates).containsEntry("USD", 1.5);
+        assertThat(third.requestedSymbols()).isEmpty();
+    }
+
+    /**
+     * Test adaptive routing when the first API returns nothing
+     * Verifies the next API is asked immediately instead of after the hedge delay
+     */
+    @Test
+    void getRates_AdaptiveFailure_FailsOverImmediately() {
+        SleepingApi empty = new SleepingApi("empty", 10, Map.of());
+        SleepingApi backup = new SleepingApi("backup", 10, Map.of("USD", 1.2));
+        service = newService(adaptive(1), empty, backup);
+
+        long start = System.nanoTime();
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD"));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(rates).containsEntry("USD", 1.2);
+        assertThat(elapsedMillis).isLessThan(200);
+    }
+
+    /**
+     * Test an API that keeps failing
+     * Verifies its circuit opens, so it is no longer called and later calls are
+     * rejected without waiting
+     */
+    @Test
+    void getRates_FailingApi_CircuitOpens() {
+        FailingApi failing = new FailingApi("failing", 100);
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getBreaker().setFailureThreshold(2);
+        MetricsService metrics = new MetricsService();
+        service = new ExchangeService(List.of(failing), metrics, new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+
+        service.getRates("EUR", List.of("USD"));
+        service.getRates("EUR", List.of("USD"));
+        long start = System.nanoTime();
+        Map<String, Double> rates = service.getRates("EUR", List.of("USD"));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(rates).isEmpty();
+        assertThat(elapsedMillis).isLessThan(50);
+        assertThat(failing.requestedSymbols()).hasSize(2);
+        assertThat(metrics.getStats("failing").getRejected()).isEqualTo(1);
+    }
+
+    /**
+     * Test an API that keeps answering without quoting the requested symbols
+     * Verifies the answers count as successes, so its circuit stays closed
+     */
+    @Test
+    void getRates_UnquotedAnswers_CircuitStaysClosed() {
+        SleepingApi unquoting = new SleepingApi("unquoting", 10, Map.of());
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getBreaker().setFailureThreshold(2);
+        MetricsService metrics = new MetricsService();
+        service = new ExchangeService(List.of(unquoting), metrics, new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+
+        for (String symbol : List.of("USD", "GBP", "JPY")) {
+            assertThat(service.getRates("EUR", List.of(symbol))).isEmpty();
+        }
+
+        assertThat(unquoting.requestedSymbols()).hasSize(3);
+        assertThat(metrics.getStats("unquoting").getFailures()).isZero();
+        assertThat(metrics.getStats("unquoting").getRejected()).isZero();
+    }
+
+    /**
+     * Test a cache miss while no API can be reached
+     * Verifies the last known rate is served and reported with its age
+     */
+    @Test
+    void lookup_ApisDown_ServesLastKnownRate() {
+        ExchangeProperties properties = new ExchangeProperties();
+        RateCache cache = new RateCache(properties);
+        cache.restore("EUR", "USD", 1.08, Duration.ofHours(2), Duration.ofHours(2));
+        service = new ExchangeService(List.of(new SleepingApi("down", 10, Map.of())), new MetricsService(), cache,
+                new RateSnapshotStore(properties), properties);
+
+        ExchangeService.RateLookup lookup = service.lookup("EUR", List.of("USD", "NZD"));
+
+        assertThat(lookup.rates()).containsExactly(Map.entry("USD", 1.08));
+        assertThat(lookup.stale()).containsOnlyKeys("USD");
+        assertThat(lookup.stale().get("USD")).isBetween(Duration.ofMinutes(119), Duration.ofMinutes(121));
+    }
+
+    private static ExchangeProperties adaptive(int quorum) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getRouting().setMode(ExchangeProperties.Routing.Mode.ADAPTIVE);
+        properties.getRouting().setQuorum(quorum);
+        return properties;
+    }
+
+    private static ExchangeService newService(Duration deadline, ExchangeApiService... apis) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getUpstream().setDeadline(deadline);
+        return newService(properties, apis);
+    }
+
+    private static ExchangeService newService(ExchangeProperties properties, ExchangeApiService... apis) {
+        return new ExchangeService(List.of(apis), new MetricsService(), new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+    }
+
+    /**
+     * Stub API that sleeps for a fixed time and then returns the canned rates
+     * for the requested symbols. Records the symbols of every call.
+     */
+    private static class SleepingApi implements ExchangeApiService {
+        private final String name;
+        private final long sleepMillis;
+        private final Map<String, Double> rates;
+        private final List<List<String>> requestedSymbols = new CopyOnWriteArrayList<>();
+
+        SleepingApi(String name, long sleepMillis, Map<String, Double> rates) {
+            this.name = name;
+            this.sleepMillis = sleepMillis;
+            this.rates = rates;
+        }
+
+        List<List<String>> requestedSymbols() {
+            return requestedSymbols;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            requestedSymbols.add(List.copyOf(symbols));
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                return Map.of();
+            }
+            Map<String, Double> result = new HashMap<>();
+            for (String symbol : symbols) {
+                if (rates.containsKey(symbol)) {
+                    result.put(symbol, rates.get(symbol));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Stub API that fails every call with a server error after a delay.
+     * Records the symbols of every call.
+     */
+    private static class FailingApi extends SleepingApi {
+
+        FailingApi(String name, long sleepMillis) {
+            super(name, sleepMillis, Map.of());
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            super.getRates(base, symbols);
+            throw new UpstreamException(getName() + " returned HTTP 503", 503);
+        }
+    }
+
+    /**
+     * Stub API that publishes a full rate table for a single base currency.
+     * Records the base of every table request.
+     */
+    private static class TableApi implements ExchangeApiService {
+        private final String base;
+        private final Map<String, Double> rates;
+        private final List<String> tableRequests = new CopyOnWriteArrayList<>();
+
+        TableApi(String base, Map<String, Double> rates) {
+            this.base = base;
+            this.rates = rates;
+        }
+
+        List<String> tableRequests() {
+            return tableRequests;
+        }
+
+        @Override
+        public String getName() {
+            return "table";
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            throw new UnsupportedOperationException("Only full tables are served");
+        }
+
+        @Override
+        public boolean supportsSnapshots() {
+            return true;
+        }
+
+        @Override
+        public RateSnapshot getSnapshot(String base) {
+            tableRequests.add(base);
+            if (!this.base.equals(base)) {
+                return null;
+            }
+            RateSnapshot.Builder snapshot = RateSnapshot.builder(base);
+            rates.forEach(snapshot::put);
+            return snapshot.build();
+        }
+    }
+}
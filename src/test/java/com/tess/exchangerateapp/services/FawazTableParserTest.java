@@ -0,0 +1,68 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the streaming Fawaz payload parser.
+ *
+ * Test Structure
+ * Arrange:
+ * Write a Fawaz payload (e.g. {"date":"2025-06-14","eur":{"usd":1.15}})
+ * Act:
+ * Parse it (e.g. FawazTableParser.parseSnapshot(body, "EUR"))
+ * Assert:
+ * Verify the rates (e.g. assertThat(snapshot.rate("USD")).isEqualTo(1.15))
+ */
+class FawazTableParserTest {
+    private static final String PAYLOAD = """
+            {"date": "2025-06-14",
+             "usd": {"eur": 0.86},
+             "eur": {"usd": 1.15493719, "nzd": 1.92122917, "btc": {"nested": [1, 2]}, "gbp": 0.85, "jpy": 166}}
+            """;
+
+    /**
+     * Test reading the full table of the base currency
+     * Verifies numeric rates are kept and other fields and tables are skipped
+     */
+    @Test
+    void parseSnapshot_FullTable_ReadsBaseRates() throws Exception {
+        RateSnapshot snapshot = FawazTableParser.parseSnapshot(body(PAYLOAD), "EUR");
+
+        assertThat(snapshot.base()).isEqualTo("EUR");
+        assertThat(snapshot.rate("USD")).isEqualTo(1.15493719);
+        assertThat(snapshot.rate("nzd")).isEqualTo(1.92122917);
+        assertThat(snapshot.rate("JPY")).isEqualTo(166.0);
+        assertThat(snapshot.rate("BTC")).isNaN();
+        assertThat(FawazTableParser.parseSnapshot(body(PAYLOAD), "GBP")).isNull();
+        assertThatThrownBy(() -> FawazTableParser.parseSnapshot(body("[1, 2]"), "EUR"))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    /**
+     * Test reading only the requested symbols
+     * Verifies the rates come back in request order and unquoted symbols are left out
+     */
+    @Test
+    void parseRates_RequestedSymbols_KeepsOnlyThose() throws Exception {
+        int[] quotes = RateVector.indices(List.of("GBP", "USD", "XXX"));
+
+        RateVector rates = FawazTableParser.parseRates(body(PAYLOAD), "EUR", quotes);
+
+        assertThat(rates).containsExactly(Map.entry("GBP", 0.85), Map.entry("USD", 1.15493719));
+        assertThat(FawazTableParser.parseRates(body("{\"date\": \"2025-06-14\"}"), "EUR", quotes)).isNull();
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,156 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for HistoryService with stub history APIs and a temporary archive.
+ *
+ * Test Structure
+ * Arrange:
+ * Create stub APIs with daily rates (e.g. new HistoryApi("a", ...))
+ * Act:
+ * Prepare and stream a range (e.g. service.prepare(), service.writeNdjson())
+ * Assert:
+ * Verify the NDJSON lines and which ranges were fetched
+ */
+class HistoryServiceTest {
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+    private static final Clock NEXT_MONDAY = Clock.fixed(MONDAY.plusDays(7).atStartOfDay().toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    private RateArchive archive;
+    private ExchangeProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExchangeProperties();
+        properties.getHistory().setArchivePath(directory.resolve("rates.archive").toString());
+        archive = new RateArchive(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    /**
+     * Test preparing and streaming a range across several APIs
+     * Verifies rates are averaged per day and weekend days are skipped
+     */
+    @Test
+    void writeNdjson_AfterPrepare_StreamsAveragedDays() throws Exception {
+        HistoryApi first = new HistoryApi("first", Map.of(MONDAY, 1.10, MONDAY.plusDays(1), 1.20));
+        HistoryApi second = new HistoryApi("second", Map.of(MONDAY, 1.30));
+        HistoryService service = newService(first, second);
+
+        service.prepare("EUR", MONDAY.minusDays(1), MONDAY.plusDays(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long lines = service.writeNdjson("EUR", List.of("USD", "NZD"), MONDAY.minusDays(1), MONDAY.plusDays(1), out);
+
+        assertThat(lines).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"date\":\"2025-06-02\",\"rates\":{\"USD\":1.2000000000000002}}\n"
+                        + "{\"date\":\"2025-06-03\",\"rates\":{\"USD\":1.2}}\n");
+    }
+
+    /**
+     * Test preparing a range that overlaps an archived one
+     * Verifies only the days missing from the archive are fetched, and today is
+     * never fetched
+     */
+    @Test
+    void prepare_OverlappingRange_FetchesOnlyMissingDays() {
+        HistoryApi api = new HistoryApi("api", Map.of(MONDAY, 1.10));
+        HistoryService service = newService(api);
+
+        service.prepare("EUR", MONDAY, MONDAY.plusDays(2));
+        service.prepare("EUR", MONDAY, MONDAY.plusDays(10));
+
+        assertThat(api.ranges).containsExactly(MONDAY + ".." + MONDAY.plusDays(2),
+                MONDAY.plusDays(3) + ".." + MONDAY.plusDays(6));
+    }
+
+    /**
+     * Test missing days when no API answers
+     * Verifies an error is raised and nothing is archived
+     */
+    @Test
+    void prepare_NoApiAnswers_ThrowsAndArchivesNothing() {
+        HistoryService service = newService(new HistoryApi("down", null));
+
+        assertThatThrownBy(() -> service.prepare("EUR", MONDAY, MONDAY.plusDays(1)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("No historical rates available");
+        assertThat(archive.contains("EUR", MONDAY)).isFalse();
+    }
+
+    private HistoryService newService(ExchangeApiService... apis) {
+        return new HistoryService(List.of(apis), archive, new MetricsService(), properties, NEXT_MONDAY);
+    }
+
+    /**
+     * Stub API publishing USD rates for fixed days and recording the ranges it
+     * was asked for. A null rate map makes every call fail.
+     */
+    private static final class HistoryApi implements ExchangeApiService {
+        private final String name;
+        private final Map<LocalDate, Double> usd;
+        private final List<String> ranges = new ArrayList<>();
+
+        HistoryApi(String name, Map<LocalDate, Double> usd) {
+            this.name = name;
+            this.usd = usd;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            return Map.of();
+        }
+
+        @Override
+        public boolean supportsHistory() {
+            return true;
+        }
+
+        @Override
+        public Map<LocalDate, Map<String, Double>> getHistory(String base, LocalDate from, LocalDate to) {
+            ranges.add(from + ".." + to);
+            if (usd == null) {
+                return null;
+            }
+            Map<LocalDate, Map<String, Double>> history = new TreeMap<>();
+            usd.forEach((date, rate) -> {
+                if (!date.isBefore(from) && !date.isAfter(to)) {
+                    history.put(date, Map.of("USD", rate));
+                }
+            });
+            return history;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tess.exchangerateapp.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for MetricsService counters and latency histograms.
+ *
+ * Test Structure
+ * Arrange:
+ * Create a fresh MetricsService
+ * Act:
+ * Record metrics, possibly from many threads (e.g. recordRequest("fawazApi"))
+ * Assert:
+ * Verify totals and percentiles (e.g. getStats("fawazApi").getTotalRequests())
+ */
+class MetricsServiceTest {
+    private final MetricsService metricsService = new MetricsService();
+
+    /**
+     * Test recording from many threads at once
+     * Verifies no request or response is lost under contention
+     */
+    @Test
+    void recordRequestAndResponse_ManyThreads_ExactTotals() throws Exception {
+        int threads = 16;
+        int iterations = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                String api = t % 2 == 0 ? "fawazApi" : "frankfurterApi";
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        metricsService.recordRequest(api);
+                        metricsService.recordResponse(api);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long perApi = (long) threads / 2 * iterations;
+        assertThat(metricsService.getStats("fawazApi").getTotalRequests()).isEqualTo(perApi);
+        assertThat(metricsService.getStats("fawazApi").getTotalResponses()).isEqualTo(perApi);
+        assertThat(metricsService.getStats("frankfurterApi").getTotalRequests()).isEqualTo(perApi);
+        assertThat(metricsService.getStats("frankfurterApi").getTotalResponses()).isEqualTo(perApi);
+        assertThat(metricsService.getMetrics()).containsEntry("totalQueries", (long) threads * iterations);
+    }
+
+    /**
+     * Test latency percentiles over a known distribution
+     * Verifies p50/p99/max are within the histogram's bucket precision
+     */
+    @Test
+    void recordLatency_UniformSamples_Percentiles() {
+        for (int millis = 1; millis <= 100; millis++) {
+            metricsService.recordLatency("fawazApi", TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        LatencyHistogram latency = metricsService.getStats("fawazApi").getLatency();
+
+        assertThat(latency.count()).isEqualTo(100);
+        assertThat(latency.percentileMicros(50)).isCloseTo(50_000L, within(50_000L / 16));
+        assertThat(latency.percentileMicros(99)).isCloseTo(99_000L, within(99_000L / 16));
+        assertThat(latency.maxMicros()).isEqualTo(100_000L);
+    }
+
+    /**
+     * Test the metrics summary exposed through /metrics
+     * Verifies cache, failure, fallback and latency entries are present
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getMetrics_IncludesCacheFailuresAndLatency() {
+        metricsService.recordCacheHits(3);
+        metricsService.recordCacheMisses(1);
+        metricsService.recordRequest("fawazApi");
+        metricsService.recordFallback("fawazApi");
+        metricsService.recordFailure("fawazApi");
+        metricsService.recordLatency("fawazApi", TimeUnit.MILLISECONDS.toNanos(20));
+
+        Map<String, Object> metrics = metricsService.getMetrics();
+
+        assertThat((Map<String, Object>) metrics.get("cache")).containsEntry("hitRatio", 0.75);
+        Map<String, Object> api = ((List<Map<String, Object>>) metrics.get("apis")).get(0);
+        Map<String, Object> apiMetrics = (Map<String, Object>) api.get("metrics");
+        assertThat(apiMetrics).containsEntry("totalRequests", 1L)
+                .containsEntry("failures", 1L)
+                .containsEntry("fallbacks", 1L)
+                .containsKey("latencyMs");
+        assertThat((Map<String, Object>) apiMetrics.get("latencyMs")).containsEntry("max", 20.0);
+    }
+
+    /**
+     * Test the OpenMetrics text exposition
+     * Verifies per-API counters, cumulative latency buckets and the EOF marker
+     */
+    @Test
+    void writeOpenMetrics_WritesCountersAndBuckets() throws Exception {
+        metricsService.recordRequest("fawazApi");
+        metricsService.recordResponse("fawazApi");
+        metricsService.recordLatency("fawazApi", TimeUnit.MILLISECONDS.toNanos(3));
+        metricsService.recordLatency("fawazApi", TimeUnit.MILLISECONDS.toNanos(40));
+        StringWriter writer = new StringWriter();
+
+        metricsService.writeOpenMetrics(writer);
+
+        assertThat(writer.toString())
+                .contains("exchange_api_requests_total{api=\"fawazApi\"} 1\n")
+                .contains("exchange_api_responses_total{api=\"fawazApi\"} 1\n")
+                .contains("exchange_api_latency_seconds_bucket{api=\"fawazApi\",le=\"0.005\"} 1\n")
+                .contains("exchange_api_latency_seconds_bucket{api=\"fawazApi\",le=\"0.05\"} 2\n")
+                .contains("exchange_api_latency_seconds_bucket{api=\"fawazApi\",le=\"+Inf\"} 2\n")
+                .contains("exchange_api_latency_seconds_count{api=\"fawazApi\"} 2\n")
+                .endsWith("# EOF\n");
+    }
+}
@@ -0,0 +1,83 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for MissBatcher sharing one fetch between concurrent misses.
+ *
+ * Test Structure
+ * Arrange:
+ * Create a batcher with a short window and a stub fetcher
+ * Act:
+ * Fetch missing symbols from several threads (e.g. batcher.fetch("USD", List.of("EUR")))
+ * Assert:
+ * Verify the fetcher calls and what each caller gets back
+ */
+class MissBatcherTest {
+
+    /**
+     * Test a fetcher throwing an Error
+     * Verifies every caller of the batch fails instead of waiting forever
+     */
+    @Test
+    void fetch_FetcherThrowsError_AllCallersFail() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MissBatcher batcher = new MissBatcher(batch(Duration.ofMillis(100)), (_, _) -> {
+            calls.incrementAndGet();
+            throw new AssertionError("fetcher failed");
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<RateVector> first = executor.submit(() -> batcher.fetch("USD", List.of("EUR")));
+            Future<RateVector> second = executor.submit(() -> batcher.fetch("USD", List.of("GBP")));
+
+            for (Future<RateVector> caller : List.of(first, second)) {
+                assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(CompletionException.class)
+                        .hasRootCauseInstanceOf(AssertionError.class);
+            }
+        }
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test a fetcher failing once
+     * Verifies a later miss for the same base starts a new batch
+     */
+    @Test
+    void fetch_AfterFailedBatch_FetchesAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        MissBatcher batcher = new MissBatcher(batch(Duration.ZERO), (_, _) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new AssertionError("fetcher failed");
+            }
+            return RateVector.empty();
+        });
+
+        assertThatThrownBy(() -> batcher.fetch("USD", List.of("EUR")))
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(AssertionError.class);
+        assertThat(batcher.fetch("USD", List.of("EUR")).size()).isZero();
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    private static ExchangeProperties.Batch batch(Duration window) {
+        ExchangeProperties.Batch settings = new ExchangeProperties.Batch();
+        settings.setWindow(window);
+        settings.setMaxSymbols(16);
+        return settings;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RateArchive on a temporary archive file.
+ *
+ * Test Structure
+ * Arrange:
+ * Append daily rates to a fresh archive (e.g. archive.append("EUR", date, ...))
+ * Act:
+ * Scan or look up the archive (e.g. archive.scan(), archive.missingRanges())
+ * Assert:
+ * Verify the visited records and ranges
+ */
+class RateArchiveTest {
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+
+    @TempDir
+    Path directory;
+
+    private RateArchive archive;
+
+    @AfterEach
+    void tearDown() {
+        archive.close();
+    }
+
+    /**
+     * Test scanning a date range
+     * Verifies only the requested quotes and dates are visited, in date order
+     */
+    @Test
+    void scan_RequestedRange_VisitsMatchingRecordsInDateOrder() {
+        archive = open();
+        archive.append("EUR", MONDAY.plusDays(1), Map.of("USD", 1.14, "NZD", 1.90, "JPY", 164.0));
+        archive.append("EUR", MONDAY, Map.of("USD", 1.15, "NZD", 1.91));
+        archive.append("USD", MONDAY, Map.of("EUR", 0.87));
+        archive.append("EUR", MONDAY.plusDays(2), Map.of("USD", 1.13));
+
+        List<String> visited = new ArrayList<>();
+        long count = archive.scan("EUR", MONDAY, MONDAY.plusDays(1), List.of("USD", "NZD"),
+                (day, quote, rate) -> visited.add(LocalDate.ofEpochDay(day) + " " + quote + " " + rate));
+
+        assertThat(count).isEqualTo(4);
+        assertThat(visited).hasSize(4);
+        assertThat(visited.subList(0, 2)).containsExactlyInAnyOrder("2025-06-02 0 1.15", "2025-06-02 1 1.91");
+        assertThat(visited.subList(2, 4)).containsExactlyInAnyOrder("2025-06-03 0 1.14", "2025-06-03 1 1.9");
+    }
+
+    /**
+     * Test reopening an existing archive file
+     * Verifies the date index is rebuilt from the records on disk
+     */
+    @Test
+    void open_ExistingFile_RebuildsIndex() {
+        archive = open();
+        archive.append("EUR", MONDAY, Map.of("USD", 1.15));
+        archive.append("EUR", MONDAY.plusDays(5), Map.of());
+        archive.close();
+
+        archive = open();
+        List<Double> rates = new ArrayList<>();
+        archive.scan("EUR", MONDAY, MONDAY.plusDays(6), List.of("USD"), (_, _, rate) -> rates.add(rate));
+
+        assertThat(rates).containsExactly(1.15);
+        assertThat(archive.contains("EUR", MONDAY.plusDays(5))).isTrue();
+        assertThat(archive.contains("EUR", MONDAY.plusDays(1))).isFalse();
+    }
+
+    /**
+     * Test finding the gaps in an archived range
+     * Verifies days marked as having no rates are not reported as missing
+     */
+    @Test
+    void missingRanges_PartiallyArchived_ReturnsGaps() {
+        archive = open();
+        archive.append("EUR", MONDAY.plusDays(2), Map.of("USD", 1.13));
+        archive.append("EUR", MONDAY.plusDays(3), Map.of());
+
+        List<LocalDate[]> missing = archive.missingRanges("EUR", MONDAY, MONDAY.plusDays(6));
+
+        assertThat(missing).hasSize(2);
+        assertThat(missing.get(0)).containsExactly(MONDAY, MONDAY.plusDays(1));
+        assertThat(missing.get(1)).containsExactly(MONDAY.plusDays(4), MONDAY.plusDays(6));
+    }
+
+    /**
+     * Test appending more records than the initial mapping holds
+     * Verifies the mapping grows and earlier records stay readable
+     */
+    @Test
+    void append_BeyondInitialMapping_GrowsFile() {
+        archive = open();
+        Map<String, Double> table = new HashMap<>();
+        for (char a = 'A'; a <= 'Z'; a++) {
+            for (char b = 'A'; b <= 'Z'; b++) {
+                table.put("" + a + b + "X", 1.0 + a + b);
+            }
+        }
+        for (int day = 0; day < 100; day++) {
+            archive.append("EUR", MONDAY.plusDays(day), table);
+        }
+
+        List<Double> rates = new ArrayList<>();
+        archive.scan("EUR", MONDAY, MONDAY.plusDays(99), List.of("ABX"), (_, _, rate) -> rates.add(rate));
+
+        assertThat(rates).hasSize(100).containsOnly(1.0 + 'A' + 'B');
+    }
+
+    private RateArchive open() {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getHistory().setArchivePath(directory.resolve("rates.archive").toString());
+        return new RateArchive(properties);
+    }
+}
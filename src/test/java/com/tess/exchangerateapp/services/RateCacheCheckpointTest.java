@@ -0,0 +1,111 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RateCacheCheckpoint on a temporary checkpoint file.
+ *
+ * Test Structure
+ * Arrange:
+ * Fill a cache and write a checkpoint (e.g. checkpoint.checkpoint())
+ * Act:
+ * Restore it into a new cache (e.g. new RateCacheCheckpoint(...).restore())
+ * Assert:
+ * Verify which rates were restored
+ */
+class RateCacheCheckpointTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Test a checkpoint round trip into a fresh cache
+     * Verifies live rates are restored and rates past their TTL are not
+     */
+    @Test
+    void restore_AfterCheckpoint_RestoresUnexpiredRates() throws InterruptedException {
+        RateCache cache = new RateCache(properties(Duration.ofMinutes(10)));
+        cache.put("EUR", "USD", 1.15);
+        cache.put("EUR", "NZD", 1.92, Duration.ofMillis(200));
+        assertThat(new RateCacheCheckpoint(cache, properties(Duration.ofMinutes(10))).checkpoint()).isEqualTo(2);
+        Thread.sleep(300);
+
+        RateCache restarted = new RateCache(properties(Duration.ofMinutes(10)));
+        int restored = new RateCacheCheckpoint(restarted, properties(Duration.ofMinutes(10))).restore();
+
+        assertThat(restored).isEqualTo(1);
+        assertThat(restarted.get("EUR", "USD")).isEqualTo(1.15);
+        assertThat(restarted.get("EUR", "NZD")).isNull();
+        assertThat(directory.resolve("cache.bin.tmp")).doesNotExist();
+    }
+
+    /**
+     * Test restoring a rate cached until the provider's next publication
+     * Verifies it is restored with its own TTL, not the configured one
+     */
+    @Test
+    void restore_EntryTtl_OutlivesConfiguredTtl() {
+        RateCache cache = new RateCache(properties(Duration.ofMinutes(10)));
+        cache.restore("EUR", "USD", 1.15, Duration.ofMinutes(30), Duration.ofMinutes(1), Duration.ofHours(2));
+        new RateCacheCheckpoint(cache, properties(Duration.ofMinutes(10))).checkpoint();
+
+        RateCache restarted = new RateCache(properties(Duration.ofMinutes(10)));
+        int restored = new RateCacheCheckpoint(restarted, properties(Duration.ofMinutes(10))).restore();
+
+        assertThat(restored).isEqualTo(1);
+        assertThat(restarted.get("EUR", "USD")).isEqualTo(1.15);
+    }
+
+    /**
+     * Test restoring pairs whose refresh timing must survive a restart
+     * Verifies a restored pair is still due for refresh at its original age
+     */
+    @Test
+    void restore_KeepsEntryAges_ForRefreshAhead() {
+        RateCache cache = new RateCache(properties(Duration.ofMinutes(10)));
+        cache.restore("EUR", "USD", 1.15, Duration.ofMinutes(9), Duration.ofSeconds(30));
+        new RateCacheCheckpoint(cache, properties(Duration.ofMinutes(10))).checkpoint();
+
+        RateCache restarted = new RateCache(properties(Duration.ofMinutes(10)));
+        new RateCacheCheckpoint(restarted, properties(Duration.ofMinutes(10))).restore();
+
+        assertThat(restarted.dueForRefresh(Duration.ofMinutes(8), Duration.ofMinutes(1)))
+                .containsEntry("EUR", List.of("USD"));
+    }
+
+    /**
+     * Test restoring from a damaged file
+     * Verifies the checkpoint is ignored instead of failing startup
+     */
+    @Test
+    void restore_CorruptFile_IsIgnored() throws IOException {
+        RateCache cache = new RateCache(properties(Duration.ofMinutes(10)));
+        cache.put("EUR", "USD", 1.15);
+        new RateCacheCheckpoint(cache, properties(Duration.ofMinutes(10))).checkpoint();
+        byte[] bytes = Files.readAllBytes(directory.resolve("cache.bin"));
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(directory.resolve("cache.bin"), bytes);
+
+        RateCache restarted = new RateCache(properties(Duration.ofMinutes(10)));
+        int restored = new RateCacheCheckpoint(restarted, properties(Duration.ofMinutes(10))).restore();
+
+        assertThat(restored).isZero();
+        assertThat(restarted.size()).isZero();
+    }
+
+    private ExchangeProperties properties(Duration ttl) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getCache().setTtl(ttl);
+        properties.getCheckpoint().setPath(directory.resolve("cache.bin").toString());
+        return properties;
+    }
+}
@@ -0,0 +1,99 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RateRefresher background refresh of hot cached rates.
+ * Uses a stub ExchangeApiService whose rate can be changed between calls.
+ *
+ * Test Structure
+ * Arrange:
+ * Warm the cache through the service (e.g. service.getRates("EUR", ...))
+ * Act:
+ * Run one refresh cycle (e.g. refresher.refreshHot())
+ * Assert:
+ * Verify the cached value and upstream call count
+ */
+class RateRefresherTest {
+    private final ChangingApi api = new ChangingApi();
+    private ExchangeService service;
+    private RateRefresher refresher;
+
+    @AfterEach
+    void tearDown() {
+        refresher.shutdown();
+        service.shutdown();
+    }
+
+    /**
+     * Test that a hot pair due for a refresh is fetched again
+     * Verifies the new rate replaces the cached one
+     */
+    @Test
+    void refreshHot_HotPair_ReplacesCachedRate() {
+        setUp(Duration.ofMinutes(1));
+        service.getRates("EUR", List.of("USD"));
+        api.rate = 2.0;
+
+        int refreshed = refresher.refreshHot();
+
+        assertThat(refreshed).isEqualTo(1);
+        assertThat(api.calls.get()).isEqualTo(2);
+        assertThat(service.getRates("EUR", List.of("USD"))).containsEntry("USD", 2.0);
+        assertThat(api.calls.get()).isEqualTo(2);
+    }
+
+    /**
+     * Test that pairs nobody requested recently are left to expire
+     * Verifies no upstream call is made for a cold pair
+     */
+    @Test
+    void refreshHot_ColdPair_IsNotRefreshed() {
+        setUp(Duration.ZERO);
+        service.getRates("EUR", List.of("USD"));
+
+        int refreshed = refresher.refreshHot();
+
+        assertThat(refreshed).isZero();
+        assertThat(api.calls.get()).isEqualTo(1);
+    }
+
+    private void setUp(Duration hotWindow) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getRefresh().setAfter(Duration.ZERO);
+        properties.getRefresh().setHotWindow(hotWindow);
+        properties.getRefresh().setJitter(Duration.ZERO);
+        RateCache cache = new RateCache(properties);
+        service = new ExchangeService(List.of(api), new MetricsService(), cache,
+                new RateSnapshotStore(properties), properties);
+        refresher = new RateRefresher(service, cache, properties);
+    }
+
+    /**
+     * Stub API returning a single USD rate that tests can change.
+     */
+    private static class ChangingApi implements ExchangeApiService {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile double rate = 1.0;
+
+        @Override
+        public String getName() {
+            return "changing";
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            calls.incrementAndGet();
+            return Map.of("USD", rate);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RateResponseCache encoding, reuse and ETags.
+ *
+ * Test Structure
+ * Arrange:
+ * Build rate lookups (e.g. new RateLookup(Map.of("USD", 1.08), Map.of()))
+ * Act:
+ * Encode them (e.g. responses.encode("EUR", List.of("USD"), lookup))
+ * Assert:
+ * Verify body, ETag and reuse (e.g. assertThat(second).isSameAs(first))
+ */
+class RateResponseCacheTest {
+    private final RateResponseCache responses = new RateResponseCache(new ExchangeProperties());
+
+    /**
+     * Test that unchanged rates reuse the encoded body
+     * Verifies the same bytes are returned and a changed rate gets a new body and ETag
+     */
+    @Test
+    void encode_UnchangedRates_ReusesBody() {
+        RateResponseCache.EncodedResponse first = responses.encode("EUR", List.of("usd", "NZD", "USD"),
+                new ExchangeService.RateLookup(Map.of("USD", 1.08, "NZD", 1.8), Map.of()));
+        RateResponseCache.EncodedResponse second = responses.encode("EUR", List.of("usd", "NZD", "USD"),
+                new ExchangeService.RateLookup(Map.of("NZD", 1.8, "USD", 1.08), Map.of()));
+        RateResponseCache.EncodedResponse changed = responses.encode("EUR", List.of("usd", "NZD", "USD"),
+                new ExchangeService.RateLookup(Map.of("USD", 1.09, "NZD", 1.8), Map.of()));
+
+        assertThat(new String(first.body(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"base\":\"EUR\",\"rates\":{\"USD\":1.08,\"NZD\":1.8}}");
+        assertThat(second).isSameAs(first);
+        assertThat(changed.etag()).isNotEqualTo(first.etag());
+        assertThat(changed.matches("W/" + changed.etag() + ", \"other\"")).isTrue();
+        assertThat(changed.matches(first.etag())).isFalse();
+    }
+
+    /**
+     * Test that bodies with last known rates are written but not cached
+     * Verifies the stale ages are included and each call encodes anew
+     */
+    @Test
+    void encode_StaleRates_NotCached() {
+        ExchangeService.RateLookup stale = new ExchangeService.RateLookup(Map.of("USD", 1.08),
+                Map.of("USD", Duration.ofSeconds(90)));
+
+        RateResponseCache.EncodedResponse first = responses.encode("EUR", List.of("USD"), stale);
+        RateResponseCache.EncodedResponse second = responses.encode("EUR", List.of("USD"), stale);
+
+        assertThat(new String(first.body(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"base\":\"EUR\",\"rates\":{\"USD\":1.08},\"staleAgeSeconds\":{\"USD\":90}}");
+        assertThat(second).isNotSameAs(first);
+    }
+}
@@ -0,0 +1,83 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RateSnapshotStore expiring tables by their publication date.
+ *
+ * Test Structure
+ * Arrange:
+ * Store dated tables with a publish schedule (e.g. store.put("ecb", table, PublishSchedule.ECB))
+ * Act:
+ * Ask for the validity or rates (e.g. store.validUntil("ecb", "EUR"))
+ * Assert:
+ * Verify the table is valid until the next publication or recheck
+ */
+class RateSnapshotStoreTest {
+    private final ExchangeProperties properties = new ExchangeProperties();
+    private final RateSnapshotStore store = new RateSnapshotStore(properties);
+
+    /**
+     * Test the ECB schedule over a weekend
+     * Verifies rates of a Friday are current until Monday's publication
+     */
+    @Test
+    void nextAfter_Friday_IsMondayAfternoonInFrankfurt() {
+        Instant next = PublishSchedule.ECB.nextAfter(LocalDate.of(2025, 6, 13));
+
+        assertThat(next).isEqualTo(ZonedDateTime.of(2025, 6, 16, 14, 0, 0, 0, ZoneOffset.UTC).toInstant());
+    }
+
+    /**
+     * Test a dated table whose next publication is in the future
+     * Verifies the table stays valid until that publication, beyond the TTL
+     */
+    @Test
+    void put_DatedTable_ValidUntilNextPublication() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        store.put("fawazApi", table(today), PublishSchedule.DAILY_UTC);
+
+        assertThat(store.validUntil("fawazApi", "EUR")).isEqualTo(today.plusDays(1).atStartOfDay()
+                .toInstant(ZoneOffset.UTC));
+        assertThat(store.derive("fawazApi", "EUR", List.of("USD"))).containsEntry("USD", 1.15);
+    }
+
+    /**
+     * Test a table whose provider is late with the next publication
+     * Verifies the table is rechecked after the recheck interval
+     */
+    @Test
+    void put_OverdueTable_RecheckedAfterInterval() {
+        RateSnapshot overdue = table(LocalDate.now(ZoneOffset.UTC).minusDays(3));
+        store.put("fawazApi", overdue, PublishSchedule.DAILY_UTC);
+
+        assertThat(store.validUntil("fawazApi", "EUR"))
+                .isEqualTo(overdue.fetchedAt().plus(properties.getSnapshot().getRecheckInterval()));
+    }
+
+    /**
+     * Test a table without a publication date
+     * Verifies the configured TTL applies
+     */
+    @Test
+    void put_UndatedTable_ValidForTtl() {
+        RateSnapshot undated = RateSnapshot.builder("EUR").put("USD", 1.15).build();
+        store.put("fawazApi", undated, PublishSchedule.DAILY_UTC);
+
+        assertThat(store.validUntil("fawazApi", "EUR"))
+                .isEqualTo(undated.fetchedAt().plus(properties.getSnapshot().getTtl()));
+    }
+
+    private static RateSnapshot table(LocalDate date) {
+        return RateSnapshot.builder("EUR").put("USD", 1.15).date(date).build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for RateSubscriptions publishing rate changes to subscribers.
+ * Uses a stub ExchangeApiService whose rates can be changed between cycles,
+ * refreshed into the cache the way the background refresher does.
+ *
+ * Test Structure
+ * Arrange:
+ * Subscribe listeners (e.g. subscriptions.subscribe("EUR", List.of("USD"), events::add))
+ * Act:
+ * Run publish cycles (e.g. subscriptions.publishChanges())
+ * Assert:
+ * Verify the events received and upstream call count
+ */
+class RateSubscriptionsTest {
+    private final ChangingApi api = new ChangingApi();
+    private ExchangeService service;
+    private RateSubscriptions subscriptions;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getSubscriptions().setEpsilon(0.001);
+        properties.getSubscriptions().setMaxSubscribers(3);
+        service = new ExchangeService(List.of(api), new MetricsService(), new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+        subscriptions = new RateSubscriptions(service, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        subscriptions.shutdown();
+        service.shutdown();
+    }
+
+    /**
+     * Test that subscribers of one base share a single lookup per cycle
+     * Verifies every subscriber gets all of its rates in the first event
+     */
+    @Test
+    void publishChanges_ManySubscribers_OneFetchPerBase() {
+        List<RateSubscriptions.RateUpdate> usd = new CopyOnWriteArrayList<>();
+        List<RateSubscriptions.RateUpdate> both = new CopyOnWriteArrayList<>();
+        subscriptions.subscribe("eur", List.of("usd"), usd::add);
+        subscriptions.subscribe("EUR", List.of("USD", "NZD", "USD"), both::add);
+
+        int sent = subscriptions.publishChanges();
+
+        assertThat(sent).isEqualTo(2);
+        assertThat(api.calls.get()).isEqualTo(1);
+        assertThat(usd).containsExactly(new RateSubscriptions.RateUpdate("EUR", Map.of("USD", 1.0)));
+        assertThat(both.get(0).rates()).isEqualTo(Map.of("USD", 1.0, "NZD", 2.0));
+    }
+
+    /**
+     * Test that only changes beyond the relative epsilon are pushed
+     * Verifies small moves are held back and the changed rate is sent alone
+     */
+    @Test
+    void publishChanges_RateChanges_SendsOnlyChangesBeyondEpsilon() {
+        List<RateSubscriptions.RateUpdate> events = new CopyOnWriteArrayList<>();
+        subscriptions.subscribe("EUR", List.of("USD", "NZD"), events::add);
+        subscriptions.publishChanges();
+
+        api.rates.put("USD", 1.0005);
+        service.refresh("EUR", List.of("USD", "NZD"));
+        int small = subscriptions.publishChanges();
+        api.rates.put("USD", 1.1);
+        service.refresh("EUR", List.of("USD", "NZD"));
+        int large = subscriptions.publishChanges();
+
+        assertThat(small).isZero();
+        assertThat(large).isEqualTo(1);
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1).rates()).isEqualTo(Map.of("USD", 1.1));
+    }
+
+    /**
+     * Test closing subscriptions and the subscriber limit
+     * Verifies closed and failing listeners receive no further events
+     */
+    @Test
+    void subscribe_ClosedOrFailing_StopsEvents() {
+        List<RateSubscriptions.RateUpdate> events = new CopyOnWriteArrayList<>();
+        subscriptions.subscribe("EUR", List.of("USD"), events::add).close();
+        subscriptions.subscribe("EUR", List.of("USD"), _ -> {
+            throw new IllegalStateException("Client gone");
+        });
+        subscriptions.subscribe("EUR", List.of("NZD"), events::add);
+        subscriptions.subscribe("EUR", List.of("USD"), events::add);
+
+        subscriptions.publishChanges();
+
+        assertThat(events).hasSize(2);
+        assertThat(subscriptions.size()).isEqualTo(2);
+        subscriptions.subscribe("USD", List.of("EUR"), events::add);
+        assertThatThrownBy(() -> subscriptions.subscribe("USD", List.of("EUR"), events::add))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Stub API returning adjustable rates and counting its calls.
+     */
+    private static class ChangingApi implements ExchangeApiService {
+        private final Map<String, Double> rates = new ConcurrentHashMap<>(Map.of("USD", 1.0, "NZD", 2.0));
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "changing";
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            calls.incrementAndGet();
+            return Map.copyOf(rates);
+        }
+    }
+}
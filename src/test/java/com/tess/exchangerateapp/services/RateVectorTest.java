@@ -0,0 +1,83 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RateVector averaging, its map view and JSON serialization.
+ *
+ * Test Structure
+ * Arrange:
+ * Build vectors from rate tables or maps (e.g. snapshot.select(quotes))
+ * Act:
+ * Average, read or serialize them (e.g. RateVector.average(vectors, quotes))
+ * Assert:
+ * Verify the rates (e.g. assertThat(average).containsEntry("USD", 1.5))
+ */
+class RateVectorTest {
+
+    /**
+     * Test averaging vectors that do and do not line up with the quotes
+     * Verifies each quote is averaged over the vectors that contain it
+     */
+    @Test
+    void average_MixedVectors_AveragesPerQuote() {
+        int[] quotes = RateVector.indices(List.of("USD", "NZD", "GBP"));
+        RateVector aligned = snapshot(Map.of("USD", 1.0, "NZD", 2.0, "GBP", 0.5)).select(quotes);
+        RateVector partial = snapshot(Map.of("NZD", 4.0)).select(quotes);
+        Map<String, Double> reversed = new LinkedHashMap<>();
+        reversed.put("GBP", 1.0);
+        reversed.put("USD", 2.0);
+
+        RateVector average = RateVector.average(List.of(aligned, partial, RateVector.of(reversed)), quotes);
+
+        assertThat(average).containsExactly(Map.entry("USD", 1.5), Map.entry("NZD", 3.0), Map.entry("GBP", 0.75));
+        assertThat(average.currency(0)).isEqualTo(quotes[0]);
+    }
+
+    /**
+     * Test the read-only map view of a vector
+     * Verifies lookups by code and equality with an equivalent map
+     */
+    @Test
+    void mapView_BehavesLikeMap() {
+        RateVector vector = snapshot(Map.of("USD", 1.08, "NZD", 1.8)).select(List.of("usd", "NZD", "XXX"));
+
+        assertThat(vector).hasSize(2).isEqualTo(Map.of("USD", 1.08, "NZD", 1.8));
+        assertThat(vector.get("usd")).isEqualTo(1.08);
+        assertThat(vector.get("XXX")).isNull();
+        assertThat(vector.containsKey("GBP")).isFalse();
+        assertThat(RateVector.of(vector)).isSameAs(vector);
+        assertThat(RateVector.of(Map.of())).isEmpty();
+    }
+
+    /**
+     * Test JSON serialization straight from the arrays
+     * Verifies the output matches the serialized map of the same rates
+     */
+    @Test
+    void serialize_WritesSameJsonAsMap() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RateVector vector = snapshot(Map.of("USD", 1.08, "NZD", 1.8)).select(List.of("USD", "NZD"));
+        Map<String, Double> map = new LinkedHashMap<>();
+        map.put("USD", 1.08);
+        map.put("NZD", 1.8);
+
+        String json = objectMapper.writeValueAsString(Map.of("base", "EUR", "rates", vector));
+
+        assertThat(json).isEqualTo(objectMapper.writeValueAsString(Map.of("base", "EUR", "rates", map)));
+        assertThat(objectMapper.writeValueAsString(vector)).isEqualTo("{\"USD\":1.08,\"NZD\":1.8}");
+    }
+
+    private static RateSnapshot snapshot(Map<String, Double> rates) {
+        RateSnapshot.Builder snapshot = RateSnapshot.builder("EUR");
+        rates.forEach(snapshot::put);
+        return snapshot.build();
+    }
+}
@@ -0,0 +1,276 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for ReactiveExchangeService fetching, averaging and caching.
+ * Uses stub ReactiveExchangeApiService implementations that answer with a
+ * full rate table after a fixed delay, without blocking a thread.
+ *
+ * Test Structure
+ * Arrange:
+ * Build the service with stub APIs (e.g. new DelayedApi("slow", 300, ...))
+ * Act:
+ * Subscribe to the lookup (e.g. service.lookup("EUR", List.of("USD")).block())
+ * Assert:
+ * Verify rates, upstream calls and elapsed time
+ */
+class ReactiveExchangeServiceTest {
+
+    /**
+     * Test that the API answers are merged, averaged and cached
+     * Verifies a repeated lookup is answered without calling the APIs again
+     */
+    @Test
+    void lookup_MergesApis_AveragesAndCaches() {
+        DelayedApi first = new DelayedApi("first", 200, Map.of("USD", 1.0));
+        DelayedApi second = new DelayedApi("second", 300, Map.of("USD", 2.0));
+        ReactiveExchangeService service = newService(Duration.ofSeconds(3), first, second);
+
+        long start = System.nanoTime();
+        ExchangeService.RateLookup lookup = service.lookup("EUR", List.of("usd")).block();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        ExchangeService.RateLookup cached = service.lookup("EUR", List.of("USD")).block();
+
+        assertThat(lookup.rates()).containsEntry("USD", 1.5);
+        assertThat(lookup.stale()).isEmpty();
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(300).isLessThan(800);
+        assertThat(cached.rates()).containsEntry("USD", 1.5);
+        assertThat(first.calls()).isEqualTo(1);
+        assertThat(second.calls()).isEqualTo(1);
+    }
+
+    /**
+     * Test that an API missing the deadline is left out
+     * Verifies the answers that arrived in time are averaged and returned
+     */
+    @Test
+    void lookup_DeadlineExceeded_UsesAnswersInTime() {
+        ReactiveExchangeService service = newService(Duration.ofMillis(300),
+                new DelayedApi("fast", 50, Map.of("USD", 1.0)),
+                new DelayedApi("hung", 5_000, Map.of("USD", 3.0)));
+
+        long start = System.nanoTime();
+        ExchangeService.RateLookup lookup = service.lookup("EUR", List.of("USD")).block();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(lookup.rates()).containsEntry("USD", 1.0);
+        assertThat(elapsedMillis).isLessThan(1000);
+    }
+
+    /**
+     * Test that concurrent misses for the same symbols are coalesced
+     * Verifies many simultaneous lookups cause exactly one upstream call
+     */
+    @Test
+    void lookup_ConcurrentMisses_SingleUpstreamCall() {
+        DelayedApi api = new DelayedApi("slow", 300, Map.of("USD", 1.1, "NZD", 1.8));
+        ReactiveExchangeService service = newService(Duration.ofSeconds(3), api);
+
+        List<ExchangeService.RateLookup> lookups = Flux.range(0, 32)
+                .flatMap(_ -> service.lookup("EUR", List.of("USD", "NZD")))
+                .collectList()
+                .block();
+
+        assertThat(lookups).hasSize(32)
+                .allSatisfy(lookup -> assertThat(lookup.rates()).containsEntry("USD", 1.1).containsEntry("NZD", 1.8));
+        assertThat(api.calls()).isEqualTo(1);
+    }
+
+    /**
+     * Test that a symbol no API quotes is negatively cached
+     * Verifies asking for it again causes no upstream call, even without a
+     * stored table to derive it from
+     */
+    @Test
+    void lookup_SymbolNotQuoted_NotFetchedAgain() {
+        DelayedApi api = new DelayedApi("stub", 0, Map.of("USD", 1.1));
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getSnapshot().setTtl(Duration.ZERO);
+        ReactiveExchangeService service = new ReactiveExchangeService(List.of(api), new MetricsService(),
+                new RateCache(properties), new RateSnapshotStore(properties), properties);
+
+        assertThat(service.lookup("EUR", List.of("NZD")).block().rates()).isEmpty();
+        assertThat(service.lookup("EUR", List.of("NZD")).block().rates()).isEmpty();
+
+        assertThat(api.calls()).isEqualTo(1);
+    }
+
+    /**
+     * Test a base an API has no rate table for
+     * Verifies the base is negatively cached, so other symbols for it cause
+     * no upstream call
+     */
+    @Test
+    void lookup_BaseWithoutTable_NotFetchedAgain() {
+        NoTableApi api = new NoTableApi();
+        ReactiveExchangeService service = newService(Duration.ofSeconds(3), api);
+
+        assertThat(service.lookup("CLF", List.of("USD")).block().rates()).isEmpty();
+        assertThat(service.lookup("CLF", List.of("GBP", "NZD")).block().rates()).isEmpty();
+
+        assertThat(api.calls()).isEqualTo(1);
+    }
+
+    /**
+     * Test a dated table from an API with a publish schedule
+     * Verifies the table is stored until the next publication, beyond the TTL
+     */
+    @Test
+    void lookup_DatedTable_ValidUntilNextPublication() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        ExchangeProperties properties = new ExchangeProperties();
+        RateSnapshotStore snapshots = new RateSnapshotStore(properties);
+        ReactiveExchangeService service = new ReactiveExchangeService(List.of(new DatedApi(today, Map.of("USD", 1.1))),
+                new MetricsService(), new RateCache(properties), snapshots, properties);
+
+        assertThat(service.lookup("EUR", List.of("USD")).block().rates()).containsEntry("USD", 1.1);
+
+        assertThat(snapshots.validUntil("dated", "EUR"))
+                .isEqualTo(today.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+    }
+
+    /**
+     * Test misses beyond the concurrency limit while a slow miss is in flight
+     * Verifies hits are served, a symbol without a last known rate is shed and
+     * the permit is given back once the slow miss completes
+     */
+    @Test
+    void lookup_MissLimitReached_ServesHitsAndSheds() {
+        DelayedApi api = new DelayedApi("slow", 300, Map.of("USD", 1.1, "NZD", 1.8));
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getLimiter().setInitialLimit(1);
+        properties.getLimiter().setMinLimit(1);
+        properties.getLimiter().setMaxLimit(1);
+        MetricsService metrics = new MetricsService();
+        RateCache cache = new RateCache(properties);
+        ReactiveExchangeService service = new ReactiveExchangeService(List.of(api), metrics, cache,
+                new RateSnapshotStore(properties), properties);
+        cache.put("EUR", "JPY", 160.0);
+
+        Mono<ExchangeService.RateLookup> slow = service.lookup("EUR", List.of("USD")).cache();
+        slow.subscribe();
+
+        assertThat(service.lookup("EUR", List.of("JPY")).block().rates()).containsEntry("JPY", 160.0);
+        assertThatThrownBy(() -> service.lookup("EUR", List.of("NZD")).block())
+                .isInstanceOf(OverloadedException.class);
+        assertThat(slow.block().rates()).containsEntry("USD", 1.1);
+        assertThat(service.lookup("EUR", List.of("NZD")).block().rates()).containsEntry("NZD", 1.8);
+        assertThat(limiter(metrics)).containsEntry("rejected", 1L).containsEntry("inFlight", 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> limiter(MetricsService metrics) {
+        return (Map<String, Object>) metrics.getMetrics().get("missLimiter");
+    }
+
+    private static ReactiveExchangeService newService(Duration deadline, ReactiveExchangeApiService... apis) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getUpstream().setDeadline(deadline);
+        return new ReactiveExchangeService(List.of(apis), new MetricsService(), new RateCache(properties),
+                new RateSnapshotStore(properties), properties);
+    }
+
+    /**
+     * Stub API that answers with a fixed rate table after a delay on a timer,
+     * counting its calls.
+     */
+    private static class DelayedApi implements ReactiveExchangeApiService {
+        private final String name;
+        private final long delayMillis;
+        private final Map<String, Double> rates;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        DelayedApi(String name, long delayMillis, Map<String, Double> rates) {
+            this.name = name;
+            this.delayMillis = delayMillis;
+            this.rates = rates;
+        }
+
+        int calls() {
+            return calls.get();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Mono<RateSnapshot> getSnapshot(String base) {
+            return Mono.delay(Duration.ofMillis(delayMillis))
+                    .doOnSubscribe(_ -> calls.incrementAndGet())
+                    .map(_ -> {
+                        RateSnapshot.Builder snapshot = RateSnapshot.builder(base);
+                        rates.forEach(snapshot::put);
+                        return snapshot.build();
+                    });
+        }
+    }
+
+    /**
+     * Stub API that publishes daily at midnight UTC and answers at once with a
+     * rate table dated for the given day.
+     */
+    private static class DatedApi implements ReactiveExchangeApiService {
+        private final LocalDate date;
+        private final Map<String, Double> rates;
+
+        DatedApi(LocalDate date, Map<String, Double> rates) {
+            this.date = date;
+            this.rates = rates;
+        }
+
+        @Override
+        public String getName() {
+            return "dated";
+        }
+
+        @Override
+        public PublishSchedule publishSchedule() {
+            return PublishSchedule.DAILY_UTC;
+        }
+
+        @Override
+        public Mono<RateSnapshot> getSnapshot(String base) {
+            RateSnapshot.Builder snapshot = RateSnapshot.builder(base).date(date);
+            rates.forEach(snapshot::put);
+            return Mono.just(snapshot.build());
+        }
+    }
+
+    /**
+     * Stub API that has no rate table for any base, counting its calls.
+     */
+    private static class NoTableApi implements ReactiveExchangeApiService {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        int calls() {
+            return calls.get();
+        }
+
+        @Override
+        public String getName() {
+            return "noTable";
+        }
+
+        @Override
+        public Mono<RateSnapshot> getSnapshot(String base) {
+            calls.incrementAndGet();
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.tess.exchangerateapp.services;
+
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for several application instances sharing rates through a
+ * SharedRateCache. Each instance has its own ExchangeService and first-level
+ * RateCache, and all of them use one InMemorySharedRateCache and one stub
+ * upstream API that counts its calls.
+ *
+ * Test Structure
+ * Arrange:
+ * Start several instances on the shared cache (e.g. newInstance())
+ * Act:
+ * Look up or refresh rates on them (e.g. instance.lookup("EUR", ...))
+ * Assert:
+ * Verify the rates each instance sees and the upstream call count
+ */
+class SharedRateCacheTest {
+    private final SlowApi api = new SlowApi();
+    private final ExchangeProperties properties = new ExchangeProperties();
+    private final SharedRateCache shared = new InMemorySharedRateCache(properties);
+    private final List<ExchangeService> instances = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(ExchangeService::shutdown);
+    }
+
+    /**
+     * Test concurrent misses for the same key on different instances
+     * Verifies the key is fetched upstream once and every instance gets the rate
+     */
+    @Test
+    void lookup_ConcurrentMissesAcrossInstances_FetchesOnce() throws Exception {
+        List<ExchangeService> nodes = List.of(newInstance(), newInstance(), newInstance(), newInstance());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Double>>> results = new ArrayList<>();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ExchangeService node : nodes) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    return node.getRates("EUR", List.of("USD", "NZD"));
+                }));
+            }
+            start.countDown();
+            for (Future<Map<String, Double>> result : results) {
+                assertThat(result.get()).isEqualTo(Map.of("USD", 1.0, "NZD", 2.0));
+            }
+        }
+
+        assertThat(api.calls.get()).isEqualTo(1);
+        assertThat(newInstance().getRates("EUR", List.of("USD"))).containsEntry("USD", 1.0);
+        assertThat(api.calls.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test a refresh on one instance
+     * Verifies other instances replace their local copy with the newer version
+     */
+    @Test
+    void refresh_OneInstance_UpdatesOtherInstances() {
+        ExchangeService first = newInstance();
+        ExchangeService second = newInstance();
+        first.getRates("EUR", List.of("USD"));
+        assertThat(second.getRates("EUR", List.of("USD"))).containsEntry("USD", 1.0);
+
+        api.usd = 1.25;
+        boolean refreshed = first.refresh("EUR", List.of("USD"));
+
+        assertThat(refreshed).isTrue();
+        assertThat(second.getRates("EUR", List.of("USD"))).containsEntry("USD", 1.25);
+        assertThat(api.calls.get()).isEqualTo(2);
+    }
+
+    /**
+     * Test a rate stored with a TTL shorter than the configured one
+     * Verifies other instances reading it from the shared cache expire it at the same time
+     */
+    @Test
+    void getRate_SharedWithShortTtl_ExpiresOnOtherInstances() throws InterruptedException {
+        RateCache first = new RateCache(properties, shared);
+        RateCache second = new RateCache(properties, shared);
+        first.put("EUR", "USD", 1.1, Duration.ofMillis(20));
+        first.put("EUR", "GBP", 0.8);
+
+        Thread.sleep(50);
+
+        assertThat(second.getRate("EUR", "USD")).isNaN();
+        assertThat(second.getRate("EUR", "GBP")).isEqualTo(0.8);
+    }
+
+    private ExchangeService newInstance() {
+        ExchangeService instance = new ExchangeService(List.of(api), new MetricsService(),
+                new RateCache(properties, shared), new RateSnapshotStore(properties), properties);
+        instances.add(instance);
+        return instance;
+    }
+
+    /**
+     * Stub API that answers after a delay, so concurrent misses overlap.
+     */
+    private static class SlowApi implements ExchangeApiService {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile double usd = 1.0;
+
+        @Override
+        public String getName() {
+            return "slow";
+        }
+
+        @Override
+        public Map<String, Double> getRates(String base, List<String> symbols) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("USD", usd, "NZD", 2.0);
+        }
+    }
+}
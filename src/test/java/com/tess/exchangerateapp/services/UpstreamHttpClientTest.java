@@ -0,0 +1,282 @@
+package com.tess.exchangerateapp.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tess.exchangerateapp.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for UpstreamHttpClient against a local stub HTTP server.
+ *
+ * Test Structure
+ * Arrange:
+ * Register a stub handler on the local server (e.g. server.createContext())
+ * Act:
+ * Call the client (e.g. client.getJson(url("/rates"), ...))
+ * Assert:
+ * Verify the parsed body, error or timing
+ */
+class UpstreamHttpClientTest {
+    private static final TypeReference<Map<String, Double>> RATES = new TypeReference<>() {
+    };
+
+    private HttpServer server;
+    private UpstreamHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    /**
+     * Test reading a gzip-compressed JSON body
+     * Verifies the body is decompressed and mapped
+     */
+    @Test
+    void getJson_GzipBody_IsDecoded() {
+        server.createContext("/rates", exchange -> {
+            assertThat(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            respond(exchange, 200, gzip("{\"USD\":1.15,\"NZD\":1.92}"));
+        });
+        client = newClient(Duration.ofSeconds(2), 4);
+
+        Map<String, Double> rates = UpstreamHttpClient.await(client.getJson(url("/rates"), RATES));
+
+        assertThat(rates).containsEntry("USD", 1.15).containsEntry("NZD", 1.92);
+    }
+
+    /**
+     * Test handling of an error status
+     * Verifies an UpstreamException carrying the status is thrown
+     */
+    @Test
+    void getJson_ErrorStatus_ThrowsUpstreamException() {
+        server.createContext("/missing", exchange -> respond(exchange, 404, "{}".getBytes(StandardCharsets.UTF_8)));
+        client = newClient(Duration.ofSeconds(2), 4);
+
+        assertThatThrownBy(() -> UpstreamHttpClient.await(client.getJson(url("/missing"), RATES)))
+                .isInstanceOf(UpstreamException.class)
+                .extracting(error -> ((UpstreamException) error).getStatusCode())
+                .isEqualTo(404);
+    }
+
+    /**
+     * Test an error status whose body claims gzip but is not compressed
+     * Verifies the status is reported instead of the decoding failure
+     */
+    @Test
+    void getJson_ErrorStatusWithBadGzipBody_ThrowsUpstreamException() {
+        server.createContext("/broken", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            respond(exchange, 503, "Service Unavailable".getBytes(StandardCharsets.UTF_8));
+        });
+        client = newClient(Duration.ofSeconds(2), 4);
+
+        assertThatThrownBy(() -> UpstreamHttpClient.await(client.getJson(url("/broken"), RATES)))
+                .isInstanceOf(UpstreamException.class)
+                .extracting(error -> ((UpstreamException) error).getStatusCode())
+                .isEqualTo(503);
+    }
+
+    /**
+     * Test a server that never answers in time
+     * Verifies the call fails after the read timeout instead of hanging
+     */
+    @Test
+    void getJson_SlowServer_TimesOut() {
+        server.createContext("/slow", exchange -> {
+            sleep(3_000);
+            respond(exchange, 200, "{}".getBytes(StandardCharsets.UTF_8));
+        });
+        client = newClient(Duration.ofMillis(200), 4);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> UpstreamHttpClient.await(client.getJson(url("/slow"), RATES)))
+                .isInstanceOf(UpstreamException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    /**
+     * Test a server that stalls in the middle of a body
+     * Verifies the call times out and the host's only permit is given back
+     */
+    @Test
+    void get_StalledBody_ReleasesPermitOnTimeout() {
+        server.createContext("/stalled", exchange -> {
+            exchange.sendResponseHeaders(200, 100);
+            OutputStream out = exchange.getResponseBody();
+            out.write("{\"USD\":".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(5_000);
+            exchange.close();
+        });
+        server.createContext("/rates", exchange -> respond(exchange, 200,
+                "{\"USD\":1.15}".getBytes(StandardCharsets.UTF_8)));
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getHttp().setMaxConnectionsPerHost(1);
+        properties.getHttp().setTotalTimeout(Duration.ofMillis(300));
+        client = new UpstreamHttpClient(new ObjectMapper(), properties);
+
+        assertThatThrownBy(() -> UpstreamHttpClient.await(client.getJson(url("/stalled"), RATES)))
+                .isInstanceOf(UpstreamException.class);
+        Map<String, Double> rates = UpstreamHttpClient.await(client.getJson(url("/rates"), RATES));
+
+        assertThat(rates).containsEntry("USD", 1.15);
+    }
+
+    /**
+     * Test the per-host connection bound
+     * Verifies no more than the configured number of requests reach the host at
+     * once, while all requests still complete
+     */
+    @Test
+    void get_ManyConcurrentCalls_BoundedPerHost() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        server.createContext("/bounded", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(100);
+            inFlight.decrementAndGet();
+            respond(exchange, 200, "{\"USD\":1.0}".getBytes(StandardCharsets.UTF_8));
+        });
+        client = newClient(Duration.ofSeconds(2), 2);
+
+        List<CompletableFuture<Map<String, Double>>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(client.getJson(url("/bounded"), RATES));
+        }
+        calls.forEach(call -> assertThat(UpstreamHttpClient.await(call)).containsEntry("USD", 1.0));
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    /**
+     * Test revalidating a body with its ETag
+     * Verifies If-None-Match is sent and a 304 reuses the parsed body without
+     * parsing again
+     */
+    @Test
+    void getConditional_NotModified_ReusesParsedBody() {
+        List<String> sentTags = new ArrayList<>();
+        server.createContext("/table", exchange -> {
+            String tag = exchange.getRequestHeaders().getFirst("If-None-Match");
+            sentTags.add(tag);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(tag)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, "{\"USD\":1.15}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        client = newClient(Duration.ofSeconds(2), 4);
+        AtomicInteger parsed = new AtomicInteger();
+        AtomicInteger revalidated = new AtomicInteger();
+        UpstreamHttpClient.BodyParser<String> parser = body -> {
+            parsed.incrementAndGet();
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        };
+
+        String first = UpstreamHttpClient.await(client.getConditional(url("/table"), parser, body -> {
+            revalidated.incrementAndGet();
+            return body;
+        }));
+        String second = UpstreamHttpClient.await(client.getConditional(url("/table"), parser, body -> {
+            revalidated.incrementAndGet();
+            return body;
+        }));
+
+        assertThat(sentTags).containsExactly(null, "\"v1\"");
+        assertThat(second).isSameAs(first).isEqualTo("{\"USD\":1.15}");
+        assertThat(parsed.get()).isEqualTo(1);
+        assertThat(revalidated.get()).isEqualTo(1);
+    }
+
+    /**
+     * Test revalidating a body with its Last-Modified date after it changed
+     * Verifies If-Modified-Since is sent and a changed body is parsed again
+     */
+    @Test
+    void getJsonConditional_Modified_ParsesNewBody() {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> sentDates = new ArrayList<>();
+        server.createContext("/latest", exchange -> {
+            sentDates.add(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+            int call = calls.incrementAndGet();
+            exchange.getResponseHeaders().add("Last-Modified", "Fri, 13 Jun 2025 14:0" + call + ":00 GMT");
+            respond(exchange, 200, ("{\"USD\":1." + call + "}").getBytes(StandardCharsets.UTF_8));
+        });
+        client = newClient(Duration.ofSeconds(2), 4);
+
+        UpstreamHttpClient.await(client.getJsonConditional(url("/latest"), RATES));
+        Map<String, Double> second = UpstreamHttpClient.await(client.getJsonConditional(url("/latest"), RATES));
+
+        assertThat(sentDates).containsExactly(null, "Fri, 13 Jun 2025 14:01:00 GMT");
+        assertThat(second).containsEntry("USD", 1.2);
+    }
+
+    private UpstreamHttpClient newClient(Duration readTimeout, int maxConnectionsPerHost) {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getHttp().setReadTimeout(readTimeout);
+        properties.getHttp().setMaxConnectionsPerHost(maxConnectionsPerHost);
+        return new UpstreamHttpClient(new ObjectMapper(), properties);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException error) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}